@@ -0,0 +1,86 @@
+package edu.ntnu.arunang.wargames.benchmark;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.Unit;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Army methods that are used when simulating and when the gui is repainted.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArmyBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Army army;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    /**
+     * Creates the army.
+     */
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        army = BenchmarkArmies.mixed("Army", size);
+    }
+
+    /**
+     * Picks a random unit.
+     *
+     * @return the unit
+     */
+
+    @Benchmark
+    public Unit getRandom() {
+        return army.getRandom(random);
+    }
+
+    /**
+     * Removes a random unit and adds it back, so the size of the army stays the same between invocations.
+     *
+     * @return the removed unit
+     */
+
+    @Benchmark
+    public Unit removeAndAdd() {
+        Unit unit = army.getRandom(random);
+        army.remove(unit);
+        army.add(unit);
+        return unit;
+    }
+
+    /**
+     * Converts the army to a map.
+     *
+     * @return the map
+     */
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<Unit, Integer> getMap() {
+        return army.getMap();
+    }
+
+    /**
+     * Converts the army to a condensed map.
+     *
+     * @return the condensed map
+     */
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<Unit, Integer> getCondensedMap() {
+        return army.getCondensedMap();
+    }
+}
@@ -0,0 +1,65 @@
+package edu.ntnu.arunang.wargames.benchmark;
+
+import edu.ntnu.arunang.wargames.fsh.ArmyFSH;
+import edu.ntnu.arunang.wargames.fsh.FileFormatException;
+import edu.ntnu.arunang.wargames.model.army.Army;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading an army from a csv file. The file is written to a temporary directory before the benchmark, and
+ * deleted after.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArmyFSHBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int size;
+
+    private final ArmyFSH armyFSH = new ArmyFSH();
+    private File file;
+
+    /**
+     * Writes the army file.
+     *
+     * @throws IOException if the file can not be written
+     */
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("benchmark", "." + ArmyFSH.FILETYPE).toFile();
+        armyFSH.writeArmyTo(file, BenchmarkArmies.mixed("Benchmark", size));
+    }
+
+    /**
+     * Deletes the army file.
+     */
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Loads the army from the file.
+     *
+     * @return the loaded army
+     * @throws IOException         if the file can not be read
+     * @throws FileFormatException if the file is wrongly formatted
+     */
+
+    @Benchmark
+    public Army loadFromFile() throws IOException, FileFormatException {
+        return armyFSH.loadFromFile(file);
+    }
+}
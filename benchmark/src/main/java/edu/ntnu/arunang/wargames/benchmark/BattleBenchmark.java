@@ -0,0 +1,58 @@
+package edu.ntnu.arunang.wargames.benchmark;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.battle.Battle;
+import edu.ntnu.arunang.wargames.model.battle.Terrain;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full simulation of a Battle, from the first attack until one of the armies has no units left. Both
+ * armies have size units, split between every unit type.
+ */
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BattleBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private Battle original;
+    private Battle battle;
+
+    /**
+     * Creates the armies of the battle.
+     */
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        original = new Battle(BenchmarkArmies.mixed("Attacker", size), BenchmarkArmies.mixed("Defender", size),
+                Terrain.HILL, 42);
+    }
+
+    /**
+     * Copies the battle before every simulation, since a simulation changes the armies.
+     */
+
+    @Setup(Level.Iteration)
+    public void copyBattle() {
+        battle = original.copy();
+    }
+
+    /**
+     * Simulates the battle to the end.
+     *
+     * @return the winning army
+     */
+
+    @Benchmark
+    public Army simulate() {
+        return battle.simulate(0);
+    }
+}
@@ -0,0 +1,41 @@
+package edu.ntnu.arunang.wargames.benchmark;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.CavalryUnit;
+import edu.ntnu.arunang.wargames.model.unit.CommanderUnit;
+import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import edu.ntnu.arunang.wargames.model.unit.RangedUnit;
+
+/**
+ * Creates the armies that are used by the benchmarks.
+ */
+
+final class BenchmarkArmies {
+
+    /**
+     * Private constructor because the class should not be instantiated.
+     */
+
+    private BenchmarkArmies() {
+    }
+
+    /**
+     * Creates an army with a given size, where the units are split between every unit type.
+     *
+     * @param name name of the army
+     * @param size number of units
+     * @return the army
+     */
+
+    static Army mixed(String name, int size) {
+        Army army = new Army(name);
+        int quarter = size / 4;
+
+        army.add(new InfantryUnit("Footman", 100), size - 3 * quarter);
+        army.add(new RangedUnit("Archer", 100), quarter);
+        army.add(new CavalryUnit("Knight", 100), quarter);
+        army.add(new CommanderUnit("Mountain King", 180), quarter);
+
+        return army;
+    }
+}
@@ -0,0 +1,38 @@
+package edu.ntnu.arunang.wargames.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of the benchmark jar. Runs the benchmarks with the GC profiler, so every benchmark reports its allocation
+ * rate. The normal JMH command line options can be given, for example a regex to only run some of the benchmarks.
+ */
+
+public class BenchmarkRunner {
+
+    /**
+     * Private constructor because the class should not be instantiated.
+     */
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args JMH command line options
+     * @throws RunnerException            if a benchmark fails
+     * @throws CommandLineOptionException if the options can not be parsed
+     */
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,60 @@
+package edu.ntnu.arunang.wargames.benchmark;
+
+import edu.ntnu.arunang.wargames.model.battle.Terrain;
+import edu.ntnu.arunang.wargames.model.unit.Unit;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitFactory;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a single attack for every unit type on every terrain. NONE is an attack without terrain. The defender is
+ * of the same type as the attacker, and has enough health to never die during an iteration.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnitBenchmark {
+
+    @Param({"InfantryUnit", "RangedUnit", "CavalryUnit", "CommanderUnit"})
+    private UnitType type;
+
+    @Param({"NONE", "PLAINS", "FOREST", "HILL"})
+    private String terrainName;
+
+    private Terrain terrain;
+    private Unit attacker;
+    private Unit defender;
+
+    /**
+     * Creates the units.
+     */
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        terrain = terrainName.equals("NONE") ? null : Terrain.valueOf(terrainName);
+        attacker = UnitFactory.constructUnit(type, "Attacker", 100);
+        defender = UnitFactory.constructUnit(type, "Defender", Integer.MAX_VALUE);
+    }
+
+    /**
+     * Attacks the defender once.
+     *
+     * @return the health of the defender
+     */
+
+    @Benchmark
+    public int attack() {
+        if (terrain == null) {
+            attacker.attack(defender);
+        } else {
+            attacker.attack(defender, terrain);
+        }
+        return defender.getHealthPoints();
+    }
+}
@@ -1,22 +1,34 @@
 package edu.ntnu.arunang.wargames.event;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Abstract class for a Subject. The class store functions
  * for notifying, adding, and attaching listeners.
+ * <p>
+ * By default the listeners are notified on the thread that notifies them. The subject can instead dispatch
+ * asynchronously on a given executor, so the notifying thread never waits for the listeners. In this mode UPDATE
+ * events are coalesced: a burst of updates is delivered as one, and at most one UPDATE is delivered per interval.
+ * Every other event, like FINISH, is always delivered, after any UPDATE that is still waiting.
  */
 
 public abstract class Subject {
     List<EventListener> listeners;
 
+    private volatile Executor executor = null; // null if the listeners are notified synchronously
+    private volatile long intervalNanos = 0;
+    private volatile long lastUpdate = 0; // when the last UPDATE was delivered, by System.nanoTime
+    private final AtomicBoolean updatePending = new AtomicBoolean(false);
+
     /**
-     * Constructor that creates a new empty arraylist for listeners.
+     * Constructor that creates a new empty list for listeners. The list can be changed while it is being notified from
+     * another thread.
      */
 
     public Subject() {
-        listeners = new ArrayList<>();
+        listeners = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -41,15 +53,106 @@ public abstract class Subject {
         listeners.remove(eventListener);
     }
 
+    /**
+     * Dispatch the events asynchronously on an executor. UPDATE events are coalesced, so the listeners get at most one
+     * UPDATE per interval.
+     *
+     * @param executor executor the listeners are notified on, for example Platform::runLater
+     * @param interval minimum time between two UPDATE events
+     * @param unit     unit of the interval
+     * @throws IllegalArgumentException if the interval is negative
+     */
+
+    public void setAsyncDispatch(Executor executor, long interval, TimeUnit unit) throws IllegalArgumentException {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Interval can not be negative");
+        }
+        this.intervalNanos = unit.toNanos(interval);
+        this.lastUpdate = System.nanoTime() - intervalNanos;
+        this.executor = executor;
+    }
+
+    /**
+     * Notify the listeners synchronously, on the thread that notifies them. This is the default.
+     */
+
+    public void setSyncDispatch() {
+        this.executor = null;
+    }
+
     /**
      * Notifies the attached listeners. An event type must be given
-     * for the type of changes.
+     * for the type of changes. If the subject dispatches asynchronously, the method returns without waiting for the
+     * listeners.
      *
      * @param eventtype type of change that has occured.
      */
 
     public void notifyObservers(EventType eventtype) {
+        Executor executor = this.executor;
+
+        if (executor == null) {
+            deliver(eventtype);
+            return;
+        }
+
+        if (eventtype != EventType.UPDATE) {
+            executor.execute(() -> {
+                deliverPendingUpdate();
+                deliver(eventtype);
+            });
+            return;
+        }
+
+        // an update is already waiting, and will show this change as well
+        if (!updatePending.compareAndSet(false, true)) {
+            return;
+        }
+
+        long delay = lastUpdate + intervalNanos - System.nanoTime();
+        if (delay <= 0) {
+            executor.execute(this::deliverPendingUpdate);
+        } else {
+            DispatchTimer.TIMER.schedule(() -> executor.execute(this::deliverPendingUpdate), delay,
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Helper method for delivering the waiting UPDATE, if there is one.
+     */
+
+    private void deliverPendingUpdate() {
+        if (!updatePending.get()) {
+            return;
+        }
+        lastUpdate = System.nanoTime();
+
+        if (updatePending.getAndSet(false)) {
+            deliver(EventType.UPDATE);
+        }
+    }
+
+    /**
+     * Helper method for notifying every listener on the current thread.
+     *
+     * @param eventtype type of change that has occured
+     */
+
+    private void deliver(EventType eventtype) {
         listeners.forEach(observer -> observer.update(eventtype));
     }
 
+    /**
+     * Holds the timer that delays coalesced updates. The timer is only created when it is first used, and only hands
+     * the updates over to the executor of the subject.
+     */
+
+    private static final class DispatchTimer {
+        private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "subject-dispatch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
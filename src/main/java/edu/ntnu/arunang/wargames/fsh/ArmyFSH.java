@@ -1,12 +1,16 @@
 package edu.ntnu.arunang.wargames.fsh;
 
 import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.army.ArmySummary;
 import edu.ntnu.arunang.wargames.model.unit.Unit;
+import edu.ntnu.arunang.wargames.model.unit.UnitTemplate;
 import edu.ntnu.arunang.wargames.model.unit.util.UnitFactory;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
 
 import java.io.*;
 import java.nio.file.FileSystems;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -23,7 +27,8 @@ import java.util.Map;
  * <p>
  * ArmyFSH implements FSH which is the basic FileSystemHandling interface for every FSH in War games.
  * <p>
- * The FSH uses Buffered- Reader and Writer, for easily reading and writing to a line.
+ * The FSH uses a BufferedWriter for writing. Files are read by a CsvTokenizer, which reads the file in one pass and
+ * parses the fields of a line in place, so large army files can be imported quickly.
  */
 
 public class ArmyFSH implements FSH {
@@ -75,7 +80,8 @@ public class ArmyFSH implements FSH {
     }
 
     /**
-     * Load an Army from a specific file. It constructs a fully reset army.
+     * Load an Army from a specific file. It constructs a fully reset army. Every line is added as a stack, so the army
+     * only takes memory per line rather than per Unit until the Units are used.
      *
      * <p>
      *
@@ -92,40 +98,126 @@ public class ArmyFSH implements FSH {
         }
 
         Army army;
-        String line;
 
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        String armyName = reader.readLine();
+        try (CsvTokenizer tokenizer = new CsvTokenizer(file)) {
+            //check if file is empty
+            if (!tokenizer.nextLine()) {
+                throw new FileFormatException(String.format("File '%s' is empty", file));
+            }
+
+            //add army name
+            army = new Army(tokenizer.getLine());
+
+            //parse the units
+            lineNr = 1;
+            while (tokenizer.nextLine()) {
+                parseLine(tokenizer, army);
+                lineNr++;
+            }
+        }
+
+        return army;
+    }
+
+    /**
+     * Read the summary of an Army from a file. The lines are parsed like in loadFromFile, but no Units are made, only the
+     * count and the healthpoints of every type are summed up.
+     *
+     * @param file file that is parsed
+     * @return the summary of the army in the file
+     * @throws FileFormatException If the file is wrongly formatted
+     * @throws IOException         If the file can not be found or is not accessible
+     */
 
-        //check if file is empty
-        if (armyName == null) {
-            throw new FileFormatException(String.format("File '%s' is empty", file));
+    public ArmySummary loadSummary(File file) throws FileFormatException, IOException {
+        //Check if file is csv
+        if (!isCsv(file.toString())) {
+            throw new FileFormatException(String.format("File '%s' is not csv.", file.getName()));
         }
 
-        //add army name
-        army = new Army(armyName);
+        ArmySummary summary;
+
+        try (CsvTokenizer tokenizer = new CsvTokenizer(file)) {
+            //check if file is empty
+            if (!tokenizer.nextLine()) {
+                throw new FileFormatException(String.format("File '%s' is empty", file));
+            }
 
-        //parse the units
-        lineNr = 1;
-        while ((line = reader.readLine()) != null) {
-            army.add((ArrayList<Unit>) parseLine(line));
-            parseLine(line);
-            lineNr++;
+            summary = new ArmySummary(tokenizer.getLine());
+
+            lineNr = 1;
+            while (tokenizer.nextLine()) {
+                parseSummaryLine(tokenizer, summary);
+                lineNr++;
+            }
         }
-        reader.close();
 
-        return army;
+        return summary;
     }
 
     /**
-     * Get all the army files and stored armies.
+     * Get all the army files and stored armies. Other files in the directory, like the matchup cache, are left out.
      *
      * @return the files
      */
 
     public File[] getAllArmyFiles() {
-        File folder = new File(getDir());
-        return folder.listFiles();
+        return getAllArmyFiles(new File(getDir()));
+    }
+
+    /**
+     * Get all the army files in a directory.
+     *
+     * @param dir the directory
+     * @return the files, or null if the directory does not exist
+     */
+
+    public File[] getAllArmyFiles(File dir) {
+        return getFilesOfType(dir, FILETYPE);
+    }
+
+    /**
+     * Load every army that is saved in the army directory.
+     *
+     * @return the armies
+     * @throws FileFormatException if one of the files is wrongly formatted
+     * @throws IOException         if one of the files can not be read
+     */
+
+    public List<Army> loadAllArmies() throws FileFormatException, IOException {
+        return loadAllArmies(new File(getDir()));
+    }
+
+    /**
+     * Load every army in a directory. Files that are not csv files are skipped.
+     *
+     * @param dir the directory
+     * @return the armies, or an empty list if the directory does not exist
+     * @throws FileFormatException if one of the files is wrongly formatted, the message includes the file name
+     * @throws IOException         if one of the files can not be read
+     */
+
+    public List<Army> loadAllArmies(File dir) throws FileFormatException, IOException {
+        List<Army> armies = new ArrayList<>();
+        File[] files = dir.listFiles();
+
+        if (files == null) {
+            return armies;
+        }
+
+        Arrays.sort(files);
+        for (File file : files) {
+            if (!fileExists(file) || !isCsv(file.toString())) {
+                continue;
+            }
+
+            try {
+                armies.add(loadFromFile(file));
+            } catch (FileFormatException e) {
+                throw new FileFormatException(String.format("%s: %s", file.getName(), e.getMessage()));
+            }
+        }
+        return armies;
     }
 
     /**
@@ -165,44 +257,111 @@ public class ArmyFSH implements FSH {
     }
 
     /**
-     * A helper function that parses a line from a file. It uses regex to clean the values and checks if the health and
-     * count values can be parsed to int.
+     * A helper function that parses the current line of the tokenizer and adds the units to the army as a stack. The
+     * whitespace is removed from the type, and the health and count values are parsed directly from the line. A line
+     * with a count less than 1 adds no units, but its type is still checked.
      *
-     * @param line line that is being parsed
-     * @return pares values
+     * @param tokenizer tokenizer positioned at the line that is being parsed
+     * @param army      army the units are added to
      * @throws FileFormatException if the line is wrongly formatted.
      */
 
-    private List<Unit> parseLine(String line) throws FileFormatException {
-        String[] values;
-        String type, name;
-        int health, count;
-
-        values = line.split(",");
+    private void parseLine(CsvTokenizer tokenizer, Army army) throws FileFormatException {
+        Line line = readLine(tokenizer);
 
-        //try to parse the values
+        //try to construct the units
         try {
-            type = values[0].replaceAll("\\s+", "");
-            name = values[1];
-            health = Integer.parseInt(values[2].replaceAll("\\s+", ""));
-            count = Integer.parseInt(values[3].replaceAll("\\s+", ""));
+            //lines without units are skipped, but the type must still exist
+            if (line.count() < 1) {
+                UnitType.getUnitType(line.type());
+                return;
+            }
 
-        } catch (NumberFormatException e) {
-            throw new FileFormatException("Could not parse integers on line :" + lineNr);
-        } catch (IndexOutOfBoundsException e) {
-            throw new FileFormatException("Too few fields on line: " + lineNr);
+            army.addStack(UnitFactory.constructUnitFromString(line.type(), line.name(), line.health()), line.count());
+        } catch (IllegalArgumentException e) {
+            throw new FileFormatException(String.format("%s on Line: %d", e.getMessage(), lineNr));
         }
+    }
+
+    /**
+     * A helper function that parses the current line of the tokenizer and adds it to a summary. The line is checked
+     * like in parseLine, but no Units are made. A line with a count less than 1 is not added.
+     *
+     * @param tokenizer tokenizer positioned at the line that is being parsed
+     * @param summary   summary the units are added to
+     * @throws FileFormatException if the line is wrongly formatted.
+     */
 
-        List<Unit> units;
+    private void parseSummaryLine(CsvTokenizer tokenizer, ArmySummary summary) throws FileFormatException {
+        Line line = readLine(tokenizer);
 
-        //try to construct the units
         try {
-            units = UnitFactory.constructUnitsFromString(type, name, health, count);
+            UnitType type = UnitType.getUnitType(line.type());
+            if (line.count() < 1) {
+                return;
+            }
+
+            if (line.health() < 0) {
+                throw new IllegalArgumentException("Health-points can not be less than 0");
+            }
+
+            UnitTemplate template = UnitTemplate.of(type, line.name());
+            summary.add(type, line.health(), template.getAttackPoints(), template.getArmorPoints(), line.count());
         } catch (IllegalArgumentException e) {
             throw new FileFormatException(String.format("%s on Line: %d", e.getMessage(), lineNr));
         }
+    }
+
+    /**
+     * Helper method for reading the fields of the current line. The whitespace is removed from the type, and the
+     * health and count values are parsed directly from the line.
+     *
+     * @param tokenizer tokenizer positioned at the line that is being parsed
+     * @return the fields of the line
+     * @throws FileFormatException if the line has too few fields, or the numbers can not be parsed
+     */
+
+    private Line readLine(CsvTokenizer tokenizer) throws FileFormatException {
+        //try to parse the values, in the order of the fields
+        try {
+            String type = tokenizer.getStrippedString(0);
+            checkFieldCount(tokenizer, 2);
+            String name = tokenizer.getString(1);
+            checkFieldCount(tokenizer, 3);
+            int health = tokenizer.getInt(2);
+            checkFieldCount(tokenizer, 4);
+            int count = tokenizer.getInt(3);
+
+            return new Line(type, name, health, count);
+        } catch (NumberFormatException e) {
+            throw new FileFormatException("Could not parse integers on line :" + lineNr);
+        }
+    }
+
+    /**
+     * The fields of a line in an army file.
+     *
+     * @param type   unit type
+     * @param name   unit name
+     * @param health unit health
+     * @param count  number of units
+     */
 
-        return units;
+    private record Line(String type, String name, int health, int count) {
+    }
+
+    /**
+     * Helper method for checking that the current line has enough fields.
+     *
+     * @param tokenizer tokenizer positioned at the line
+     * @param fields    number of fields that is needed
+     * @throws FileFormatException if the line has too few fields
+     */
+
+    private void checkFieldCount(CsvTokenizer tokenizer, int fields) throws FileFormatException {
+        if (tokenizer.getFieldCount() < fields) {
+            throw new FileFormatException("Too few fields on line: " + lineNr);
+        }
     }
 
     /**
@@ -213,13 +372,7 @@ public class ArmyFSH implements FSH {
      */
 
     protected boolean isCsv(String fileName) {
-        int index = fileName.lastIndexOf('.');
-
-        if (index > 0) {
-            String extension = fileName.substring(index + 1);
-            return extension.equals(FILETYPE);
-        }
-        return false;
+        return hasFileType(fileName, FILETYPE);
     }
 
     /**
@@ -0,0 +1,157 @@
+package edu.ntnu.arunang.wargames.fsh;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.army.ArmySummary;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An ArmyHandle is a lazy reference to an army file. Nothing is read when the handle is made, the name is taken from
+ * the file name. The summary of the army is read the first time it is asked for, and the army itself is only built when
+ * load is called, which is usually when a simulation starts.
+ * <p>
+ * The file is read on a background executor, and the results are given as futures. A gui can therefore go through a
+ * directory of huge armies without waiting for the files to be read. If reading fails, the future is completed
+ * exceptionally with a CompletionException, which has the IOException or FileFormatException as its cause.
+ */
+
+public class ArmyHandle {
+
+    // shared by every handle, one thread is enough since reading is bound by the disk
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "army-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File file;
+    private final Executor executor;
+    private CompletableFuture<ArmySummary> summary = null;
+
+    /**
+     * Constructs a handle that reads the file on the shared loader thread.
+     *
+     * @param file the army file
+     */
+
+    public ArmyHandle(File file) {
+        this(file, LOADER);
+    }
+
+    /**
+     * Constructs a handle that reads the file on a given executor.
+     *
+     * @param file     the army file
+     * @param executor executor the file is read on
+     */
+
+    public ArmyHandle(File file, Executor executor) {
+        this.file = file;
+        this.executor = executor;
+    }
+
+    /**
+     * Constructs a handle with a summary that is already known, for example from an ArmyIndex. The summary is not read
+     * from the file.
+     *
+     * @param file    the army file
+     * @param summary summary of the army, or null if it should be read from the file
+     */
+
+    public ArmyHandle(File file, ArmySummary summary) {
+        this(file, LOADER);
+        if (summary != null) {
+            this.summary = CompletableFuture.completedFuture(summary);
+        }
+    }
+
+    /**
+     * Get the summary of the army. The summary is read once, later calls give the same future.
+     *
+     * @return future of the summary
+     */
+
+    public synchronized CompletableFuture<ArmySummary> getSummary() {
+        if (summary == null || summary.isCompletedExceptionally()) {
+            summary = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new ArmyFSH().loadSummary(file);
+                } catch (IOException | FileFormatException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+        return summary;
+    }
+
+    /**
+     * Builds the army from the file. The army is read every time, so every caller gets its own army that can be
+     * changed by a battle.
+     *
+     * @return future of the army
+     */
+
+    public CompletableFuture<Army> load() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return new ArmyFSH().loadFromFile(file);
+            } catch (IOException | FileFormatException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Get the executor the handles read their files on by default. Other file work of a gui, like listing the army
+     * directory, can be run on it as well, so the gui does not wait for the disk.
+     *
+     * @return the shared loader executor
+     */
+
+    public static Executor getLoader() {
+        return LOADER;
+    }
+
+    /**
+     * Get the army file.
+     *
+     * @return this.file
+     */
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the name of the army, which is the name of the file without the extension. The file is not read.
+     *
+     * @return name of the army
+     */
+
+    public String getName() {
+        return new ArmyFSH().getFileNameWithoutExtension(file);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ArmyHandle handle)) return false;
+        return file.equals(handle.file);
+    }
+
+    @Override
+    public int hashCode() {
+        return file.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ArmyHandle " + file;
+    }
+}
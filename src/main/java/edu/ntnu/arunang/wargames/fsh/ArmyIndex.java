@@ -0,0 +1,323 @@
+package edu.ntnu.arunang.wargames.fsh;
+
+import edu.ntnu.arunang.wargames.model.army.ArmySummary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * An ArmyIndex keeps the summary of every army file in a directory, along with the size and the modification time of
+ * the file. The armies can therefore be listed and filtered without reading the files.
+ * <p>
+ * The index is stored in the directory by an ArmyIndexFSH. When it is refreshed, only the files whose size or
+ * modification time has changed are read again. While the index is watching the directory, it is updated by a
+ * WatchService as soon as a file is created, changed or deleted, so the directory never needs to be listed.
+ * <p>
+ * The stored index is only a cache. If it can not be read, it is rebuilt from the army files, and if it can not be
+ * written, the index is kept in memory and written on the next change.
+ */
+
+public class ArmyIndex {
+
+    private final File dir;
+    private final File indexFile;
+    private final ArmyFSH armyFSH = new ArmyFSH();
+    private final ArmyIndexFSH indexFSH = new ArmyIndexFSH();
+    private final Map<String, Entry> entries = new HashMap<>(); // the entries by file name
+    private WatchService watcher = null;
+
+    /**
+     * An army file in the index.
+     *
+     * @param file         the army file
+     * @param size         size of the file in bytes, when it was read
+     * @param lastModified modification time of the file, when it was read
+     * @param summary      summary of the army, or null if the file could not be read
+     */
+
+    public record Entry(File file, long size, long lastModified, ArmySummary summary) {
+    }
+
+    /**
+     * Constructs an empty index of a directory. The index is filled by load and refresh.
+     *
+     * @param dir the army directory
+     */
+
+    public ArmyIndex(File dir) {
+        this.dir = dir;
+        this.indexFile = new File(dir, ArmyIndexFSH.FILENAME + "." + ArmyIndexFSH.FILETYPE);
+    }
+
+    /**
+     * Loads the stored index, brings it up to date and starts watching the directory.
+     *
+     * @throws IOException if the directory can not be watched
+     */
+
+    public void open() throws IOException {
+        load();
+        refresh();
+        startWatching();
+    }
+
+    /**
+     * Loads the stored index. The index is empty if nothing is stored, or the stored index can not be read.
+     */
+
+    public synchronized void load() {
+        entries.clear();
+        if (!indexFSH.fileExists(indexFile)) {
+            return;
+        }
+
+        try {
+            for (Entry entry : indexFSH.loadFromFile(indexFile, dir)) {
+                entries.put(entry.file().getName(), entry);
+            }
+        } catch (IOException | FileFormatException e) {
+            // rebuilt by refresh
+            entries.clear();
+        }
+    }
+
+    /**
+     * Brings the index up to date with the directory. Files that are new or changed are read, and files that are
+     * removed are taken out of the index. The index is stored if it changed.
+     *
+     * @return true if the index changed
+     */
+
+    public synchronized boolean refresh() {
+        boolean changed = refreshEntries();
+        if (changed) {
+            save();
+        }
+        return changed;
+    }
+
+    /**
+     * Brings the entry of one file up to date. The file is taken out of the index if it no longer exists. The index
+     * is stored if it changed.
+     *
+     * @param file the army file
+     * @return true if the index changed
+     */
+
+    public synchronized boolean update(File file) {
+        boolean changed = index(file);
+        if (changed) {
+            save();
+        }
+        return changed;
+    }
+
+    /**
+     * Get every entry, sorted by file name.
+     *
+     * @return the entries
+     */
+
+    public synchronized List<Entry> getEntries() {
+        return entries.values().stream().sorted(Comparator.comparing(entry -> entry.file().getName())).toList();
+    }
+
+    /**
+     * Get the entries whose file name or army name contains a text. Case is ignored.
+     *
+     * @param text the text that is searched for
+     * @return the entries that match, sorted by file name
+     */
+
+    public List<Entry> search(String text) {
+        String query = text.toLowerCase(Locale.ROOT);
+        return getEntries().stream().filter(entry -> entry.file().getName().toLowerCase(Locale.ROOT).contains(query)
+                || (entry.summary() != null && entry.summary().getName().toLowerCase(Locale.ROOT).contains(query)))
+                .toList();
+    }
+
+    /**
+     * Get the entry of a file.
+     *
+     * @param file the army file
+     * @return the entry, or null if the file is not in the index
+     */
+
+    public synchronized Entry get(File file) {
+        return entries.get(file.getName());
+    }
+
+    /**
+     * Get the number of files in the index.
+     *
+     * @return number of entries
+     */
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Starts watching the directory. The index is updated on a daemon thread every time an army file changes.
+     *
+     * @throws IOException if the directory can not be watched
+     */
+
+    public synchronized void startWatching() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+
+        WatchService service = dir.toPath().getFileSystem().newWatchService();
+        try {
+            dir.toPath().register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException e) {
+            service.close();
+            throw e;
+        }
+        watcher = service;
+
+        Thread thread = new Thread(() -> watch(service), "army-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the directory.
+     */
+
+    public synchronized void stopWatching() {
+        if (watcher == null) {
+            return;
+        }
+
+        try {
+            watcher.close();
+        } catch (IOException ignored) {
+            // the watcher is not used again
+        }
+        watcher = null;
+    }
+
+    /**
+     * Checks if the index is watching the directory. If it is not, it must be refreshed to see changes.
+     *
+     * @return true if the directory is watched
+     */
+
+    public synchronized boolean isWatching() {
+        return watcher != null;
+    }
+
+    /**
+     * Helper method for handling the events of the watch service until it is closed. The events of a key are handled
+     * together, so the index is only stored once for them.
+     *
+     * @param service the watch service
+     */
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+
+                synchronized (this) {
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == OVERFLOW) {
+                            changed |= refreshEntries();
+                        } else {
+                            changed |= index(new File(dir, event.context().toString()));
+                        }
+                    }
+
+                    if (changed) {
+                        save();
+                    }
+                }
+
+                // the directory is no longer accessible
+                if (!key.reset()) {
+                    synchronized (this) {
+                        if (watcher == service) {
+                            stopWatching();
+                        }
+                    }
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the index stopped watching
+        }
+    }
+
+    /**
+     * Helper method for bringing every entry up to date, without storing the index.
+     *
+     * @return true if the index changed
+     */
+
+    private boolean refreshEntries() {
+        File[] files = armyFSH.getAllArmyFiles(dir);
+        if (files == null) {
+            files = new File[0];
+        }
+
+        Set<String> names = new HashSet<>();
+        boolean changed = false;
+        for (File file : files) {
+            names.add(file.getName());
+            changed |= index(file);
+        }
+
+        return entries.keySet().retainAll(names) || changed;
+    }
+
+    /**
+     * Helper method for bringing the entry of a file up to date, without storing the index. The file is only read if
+     * its size or modification time has changed. Files that are not army files are ignored.
+     *
+     * @param file the file
+     * @return true if the index changed
+     */
+
+    private boolean index(File file) {
+        String name = file.getName();
+        if (!armyFSH.fileExists(file) || !armyFSH.isCsv(name)) {
+            return entries.remove(name) != null;
+        }
+
+        long size = file.length();
+        long lastModified = file.lastModified();
+        Entry entry = entries.get(name);
+        if (entry != null && entry.size() == size && entry.lastModified() == lastModified) {
+            return false;
+        }
+
+        ArmySummary summary;
+        try {
+            summary = armyFSH.loadSummary(file);
+        } catch (IOException | FileFormatException e) {
+            summary = null;
+        }
+
+        entries.put(name, new Entry(file, size, lastModified, summary));
+        return true;
+    }
+
+    /**
+     * Helper method for storing the index.
+     */
+
+    private void save() {
+        try {
+            indexFSH.writeIndexTo(indexFile, getEntries());
+        } catch (IOException ignored) {
+            // kept in memory, and stored on the next change
+        }
+    }
+}
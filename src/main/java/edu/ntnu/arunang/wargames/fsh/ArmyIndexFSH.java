@@ -0,0 +1,160 @@
+package edu.ntnu.arunang.wargames.fsh;
+
+import edu.ntnu.arunang.wargames.model.army.ArmySummary;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+
+import java.io.*;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ArmyIndexFSH is a file system handler (FSH) class for an ArmyIndex. The index is stored in the army directory, so the
+ * armies do not need to be read again when the application starts.
+ * <p>
+ * Every army file is stored on one line in the following manner:
+ * fileName, fileSize, lastModified, armyName, count and health of every unit type, totalAttack, totalArmor.
+ * <p>
+ * The unit types are stored in the order of UnitType. The names are url encoded, so they can not break the line. A
+ * file that could not be read is stored with only the first three fields.
+ */
+
+public class ArmyIndexFSH implements FSH {
+    public final static String FILENAME = "armies";
+    public final static String FILETYPE = "index";
+    private final static UnitType[] TYPES = UnitType.values();
+    private final static int FILE_FIELDS = 3;
+    private final static int FIELDS = FILE_FIELDS + 1 + 2 * TYPES.length + 2;
+
+    /**
+     * Constructs the FSH with no parameters.
+     */
+
+    public ArmyIndexFSH() {
+
+    }
+
+    /**
+     * Writes the entries of an index to a file.
+     *
+     * @param file    the file
+     * @param entries the entries of the index
+     * @throws IOException if the file is unavailable or cannot be written to.
+     */
+
+    public void writeIndexTo(File file, Collection<ArmyIndex.Entry> entries) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (ArmyIndex.Entry entry : entries) {
+                writer.append(encode(entry.file().getName())).append(',')
+                        .append(String.valueOf(entry.size())).append(',')
+                        .append(String.valueOf(entry.lastModified()));
+
+                ArmySummary summary = entry.summary();
+                if (summary != null) {
+                    writer.append(',').append(encode(summary.getName()));
+                    for (UnitType type : TYPES) {
+                        writer.append(',').append(String.valueOf(summary.getCount(type)))
+                                .append(',').append(String.valueOf(summary.getHealthPoints(type)));
+                    }
+                    writer.append(',').append(String.valueOf(summary.getTotalAttackPoints()))
+                            .append(',').append(String.valueOf(summary.getTotalArmorPoints()));
+                }
+                writer.append('\n');
+            }
+        }
+    }
+
+    /**
+     * Loads the entries of an index from a file.
+     *
+     * @param file the index file
+     * @param dir  the directory the army files are in
+     * @return the entries
+     * @throws FileFormatException if the file is wrongly formatted
+     * @throws IOException         if the file can not be found or is not accessible
+     */
+
+    public List<ArmyIndex.Entry> loadFromFile(File file, File dir) throws FileFormatException, IOException {
+        List<ArmyIndex.Entry> entries = new ArrayList<>();
+
+        try (CsvTokenizer tokenizer = new CsvTokenizer(file)) {
+            int lineNr = 1;
+            while (tokenizer.nextLine()) {
+                entries.add(parseLine(tokenizer, dir, lineNr));
+                lineNr++;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Helper method for parsing the current line of the tokenizer into an entry.
+     *
+     * @param tokenizer tokenizer positioned at the line
+     * @param dir       the directory the army files are in
+     * @param lineNr    number of the line
+     * @return the entry
+     * @throws FileFormatException if the line is wrongly formatted
+     */
+
+    private ArmyIndex.Entry parseLine(CsvTokenizer tokenizer, File dir, int lineNr) throws FileFormatException {
+        int fields = tokenizer.getFieldCount();
+        if (fields != FILE_FIELDS && fields != FIELDS) {
+            throw new FileFormatException("Wrong number of fields on line: " + lineNr);
+        }
+
+        try {
+            File armyFile = new File(dir, decode(tokenizer.getString(0)));
+            long size = Long.parseLong(tokenizer.getStrippedString(1));
+            long lastModified = Long.parseLong(tokenizer.getStrippedString(2));
+
+            if (fields == FILE_FIELDS) {
+                return new ArmyIndex.Entry(armyFile, size, lastModified, null);
+            }
+
+            int[] countByType = new int[TYPES.length];
+            long[] healthByType = new long[TYPES.length];
+            int field = FILE_FIELDS + 1;
+            for (int i = 0; i < TYPES.length; i++) {
+                countByType[i] = tokenizer.getInt(field++);
+                healthByType[i] = Long.parseLong(tokenizer.getStrippedString(field++));
+            }
+            long totalAttack = Long.parseLong(tokenizer.getStrippedString(field++));
+            long totalArmor = Long.parseLong(tokenizer.getStrippedString(field));
+
+            ArmySummary summary = new ArmySummary(decode(tokenizer.getString(FILE_FIELDS)), countByType,
+                    healthByType, totalAttack, totalArmor);
+            return new ArmyIndex.Entry(armyFile, size, lastModified, summary);
+        } catch (NumberFormatException e) {
+            throw new FileFormatException("Could not parse integers on line :" + lineNr);
+        } catch (IllegalArgumentException e) {
+            throw new FileFormatException(String.format("%s on Line: %d", e.getMessage(), lineNr));
+        }
+    }
+
+    /**
+     * Helper method for encoding a name, so it has no commas or line breaks.
+     *
+     * @param name the name
+     * @return the encoded name
+     */
+
+    private String encode(String name) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Helper method for decoding a name.
+     *
+     * @param name the encoded name
+     * @return the name
+     * @throws IllegalArgumentException if the name is wrongly encoded
+     */
+
+    private String decode(String name) throws IllegalArgumentException {
+        return URLDecoder.decode(name, StandardCharsets.UTF_8);
+    }
+}
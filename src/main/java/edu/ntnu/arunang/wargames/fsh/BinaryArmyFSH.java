@@ -0,0 +1,323 @@
+package edu.ntnu.arunang.wargames.fsh;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.army.UnitStack;
+import edu.ntnu.arunang.wargames.model.battle.DamageTable;
+import edu.ntnu.arunang.wargames.model.unit.Unit;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitFactory;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BinaryArmyFSH is a file system handler (FSH) class that stores an Army in a compact binary format. Unlike the csv
+ * format of the ArmyFSH, the binary format keeps the state of every Unit, so an Army in the middle of a battle can be
+ * saved and restored exactly. The csv format is still used for importing and exporting armies.
+ * <p>
+ * The file is stored in the following manner, with every number in big-endian:
+ * <ul>
+ *     <li>magic number (int) and version (short)</li>
+ *     <li>army name, as length (int) and UTF-8 bytes</li>
+ *     <li>name table: number of names (int), then every name as length (int) and UTF-8 bytes</li>
+ *     <li>number of records (int), then every record as: unit type ordinal (byte), name index (int), health (int),
+ *     state (int) and count (int)</li>
+ * </ul>
+ * <p>
+ * Equal Units are stored as one record with a count. The state is stored the same way as in the DamageTable and the
+ * CompiledArmy: 1 if a CavalryUnit or CommanderUnit has attacked and 0 if not, the number of hits that has lowered the
+ * resist bonus of a RangedUnit, and always 0 for an InfantryUnit. A state the unit type can not have is a format error.
+ * <p>
+ * The file is read through a memory mapped buffer, so the records are parsed directly from the file without being
+ * copied.
+ */
+
+public class BinaryArmyFSH implements FSH {
+    public final static String FILETYPE = "army";
+    public final static int MAGIC = 0x57415247; // "WARG"
+    public final static short VERSION = 2; // version 1 stored the resist bonus of a RangedUnit as its state
+
+    private static final UnitType[] TYPES = UnitType.values();
+
+    /**
+     * Constructs the FSH with no parameters.
+     */
+
+    public BinaryArmyFSH() {
+
+    }
+
+    /**
+     * Write an Army to a specific file.
+     *
+     * @param file the file
+     * @param army army that is written
+     * @throws IllegalArgumentException if the filetype is not supported for writing to
+     * @throws IOException              if the file is not writable or unavailable.
+     */
+
+    public void writeArmyTo(File file, Army army) throws IllegalArgumentException, IOException {
+        if (!isBinary(file.toString())) {
+            throw new IllegalArgumentException("Filetype is not supported");
+        }
+
+        Map<String, Integer> names = new LinkedHashMap<>();
+        Map<Record, Integer> records = new LinkedHashMap<>();
+
+        // the stacked units are placed after the individual units, and are not taken out of their stacks
+        List<Unit> units = army.getUnitsView();
+        int individuals = army.size() - army.getStackedCount();
+        for (int i = 0; i < individuals; i++) {
+            records.merge(toRecord(units.get(i), names), 1, Integer::sum);
+        }
+        for (UnitStack stack : army.getStacks()) {
+            records.merge(toRecord(stack.getUnit(), names), stack.getCount(), Integer::sum);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            writeString(out, army.getName());
+
+            out.writeInt(names.size());
+            for (String name : names.keySet()) {
+                writeString(out, name);
+            }
+
+            out.writeInt(records.size());
+            for (Map.Entry<Record, Integer> entry : records.entrySet()) {
+                Record record = entry.getKey();
+                out.writeByte(record.type());
+                out.writeInt(record.name());
+                out.writeInt(record.health());
+                out.writeInt(record.state());
+                out.writeInt(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Load an Army from a specific file. Every record is added as a stack, with the state of the Units restored.
+     *
+     * @param file file that is read
+     * @return the army read from the file
+     * @throws FileFormatException if the file is wrongly formatted
+     * @throws IOException         if the file can not be found or is not accessible
+     */
+
+    public Army loadFromFile(File file) throws FileFormatException, IOException {
+        if (!isBinary(file.toString())) {
+            throw new FileFormatException(String.format("File '%s' is not a binary army file.", file.getName()));
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, file);
+        } catch (BufferUnderflowException e) {
+            throw new FileFormatException(String.format("File '%s' is truncated", file.getName()));
+        }
+    }
+
+    /**
+     * Helper method for reading an army from a buffer.
+     *
+     * @param buffer buffer positioned at the start of the file
+     * @param file   the file, used in error messages
+     * @return the army
+     * @throws FileFormatException      if the file is wrongly formatted
+     * @throws BufferUnderflowException if the file ends too early
+     */
+
+    private Army read(ByteBuffer buffer, File file) throws FileFormatException, BufferUnderflowException {
+        if (!buffer.hasRemaining()) {
+            throw new FileFormatException(String.format("File '%s' is empty", file));
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new FileFormatException(String.format("File '%s' is not a binary army file.", file.getName()));
+        }
+
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new FileFormatException(String.format("Version %d of the binary format is not supported", version));
+        }
+
+        Army army;
+        try {
+            army = new Army(readString(buffer));
+        } catch (IllegalArgumentException e) {
+            throw new FileFormatException(e.getMessage());
+        }
+
+        String[] names = new String[readCount(buffer)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = readString(buffer);
+        }
+
+        int records = readCount(buffer);
+        for (int i = 0; i < records; i++) {
+            int type = buffer.get();
+            int name = buffer.getInt();
+            int health = buffer.getInt();
+            int state = buffer.getInt();
+            int count = buffer.getInt();
+
+            if (type < 0 || type >= TYPES.length || name < 0 || name >= names.length) {
+                throw new FileFormatException("Unknown unit type or name in record: " + (i + 1));
+            }
+
+            try {
+                army.addStack(toUnit(TYPES[type], names[name], health, state), count);
+            } catch (IllegalArgumentException e) {
+                throw new FileFormatException(String.format("%s in record: %d", e.getMessage(), i + 1));
+            }
+        }
+
+        return army;
+    }
+
+    /**
+     * Helper method for converting a Unit to a record. The name is added to the name table if it is not in it.
+     *
+     * @param unit  the unit
+     * @param names the name table
+     * @return the record
+     * @throws IllegalArgumentException if the unit is not an UnitType
+     */
+
+    private Record toRecord(Unit unit, Map<String, Integer> names) throws IllegalArgumentException {
+        UnitType type = unit.getUnitType();
+        if (type == null) {
+            throw new IllegalArgumentException(String.format("Unittype %s does not exist",
+                    unit.getClass().getSimpleName()));
+        }
+        int name = names.computeIfAbsent(unit.getName(), key -> names.size());
+
+        return new Record(type.ordinal(), name, unit.getHealthPoints(), DamageTable.stateOf(unit, type));
+    }
+
+    /**
+     * Helper method for constructing a Unit from a record.
+     *
+     * @param type   unit type
+     * @param name   unit name
+     * @param health unit health
+     * @param state  the state of the unit
+     * @return the unit
+     * @throws IllegalArgumentException if the health is negative, or the type can not have the state
+     */
+
+    private Unit toUnit(UnitType type, String name, int health, int state) throws IllegalArgumentException {
+        Unit unit = UnitFactory.constructUnit(type, name, health);
+        DamageTable.setState(unit, type, state);
+        return unit;
+    }
+
+    /**
+     * Helper method for writing a string as its length and UTF-8 bytes.
+     *
+     * @param out    the stream
+     * @param string the string
+     * @throws IOException if the stream can not be written to
+     */
+
+    private void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Helper method for reading a string written by writeString.
+     *
+     * @param buffer the buffer
+     * @return the string
+     * @throws FileFormatException if the length is negative
+     */
+
+    private String readString(ByteBuffer buffer) throws FileFormatException {
+        byte[] bytes = new byte[readCount(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Helper method for reading a length or a number of elements.
+     *
+     * @param buffer the buffer
+     * @return the count
+     * @throws FileFormatException if the count is negative or larger than the rest of the file
+     */
+
+    private int readCount(ByteBuffer buffer) throws FileFormatException {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new FileFormatException("Invalid length in file: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Get all the binary army files in the army directory.
+     *
+     * @return the files
+     */
+
+    public File[] getAllArmyFiles() {
+        return getAllArmyFiles(new File(ArmyFSH.getDir()));
+    }
+
+    /**
+     * Get all the binary army files in a directory.
+     *
+     * @param dir the directory
+     * @return the files, or null if the directory does not exist
+     */
+
+    public File[] getAllArmyFiles(File dir) {
+        return getFilesOfType(dir, FILETYPE);
+    }
+
+    /**
+     * Helper method for checking if file is the correct filetype.
+     *
+     * @param fileName file that is checked
+     * @return true if the file is a binary army file
+     */
+
+    protected boolean isBinary(String fileName) {
+        return hasFileType(fileName, FILETYPE);
+    }
+
+    /**
+     * Helper method to get the path of the army. This is in the same directory as the csv files.
+     *
+     * @param fileName the name of the army is the name of the file
+     * @return the full system path
+     */
+
+    public static String getPath(String fileName) {
+        return ArmyFSH.getDir() + "/" + fileName + "." + FILETYPE;
+    }
+
+    /**
+     * A group of equal Units, as it is stored in the file.
+     *
+     * @param type   unit type ordinal
+     * @param name   index in the name table
+     * @param health health of the units
+     * @param state  state of the units
+     */
+
+    private record Record(int type, int name, int health, int state) {
+    }
+}
@@ -0,0 +1,295 @@
+package edu.ntnu.arunang.wargames.fsh;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * CsvTokenizer reads a csv file line by line through a file channel. Each line is copied into a reused byte array, and
+ * split into fields in place, so reading a line does not create any objects. Only the fields that are read as strings
+ * are decoded.
+ * <p>
+ * The lines and fields follow the same rules as BufferedReader.readLine and String.split(","): a line ends at \n, \r or
+ * \r\n, and empty fields at the end of a line are ignored. Whitespace is ignored everywhere in integer fields, like when
+ * the whitespace is removed by regex before parsing.
+ */
+
+final class CsvTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Charset charset = Charset.defaultCharset(); // same charset as a FileReader
+
+    private byte[] line = new byte[256];
+    private int length = 0;
+    private int[] fieldEnds = new int[8]; // the end of every field, a field starts after the end of the last one
+    private int fieldCount = 0;
+    private boolean skipLineFeed = false; // the last line ended with \r, so a following \n is part of it
+    private boolean endOfFile = false;
+
+    /**
+     * Opens a file for reading.
+     *
+     * @param file file that is read
+     * @throws IOException if the file can not be opened
+     */
+
+    CsvTokenizer(File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        buffer.flip();
+    }
+
+    /**
+     * Reads the next line and splits it into fields.
+     *
+     * @return false if there are no more lines
+     * @throws IOException if the file can not be read
+     */
+
+    boolean nextLine() throws IOException {
+        length = 0;
+        boolean readAny = false;
+
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                break;
+            }
+
+            byte[] bytes = buffer.array();
+            int position = buffer.position();
+            int limit = buffer.limit();
+
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (bytes[position] == '\n') {
+                    buffer.position(++position);
+                    continue;
+                }
+            }
+
+            readAny = true;
+            int end = position;
+            while (end < limit && bytes[end] != '\n' && bytes[end] != '\r') {
+                end++;
+            }
+            append(bytes, position, end - position);
+
+            if (end < limit) {
+                skipLineFeed = bytes[end] == '\r';
+                buffer.position(end + 1);
+                split();
+                return true;
+            }
+            buffer.position(end);
+        }
+
+        split();
+        return readAny;
+    }
+
+    /**
+     * Get the whole line as a string.
+     *
+     * @return the line
+     */
+
+    String getLine() {
+        return new String(line, 0, length, charset);
+    }
+
+    /**
+     * Get the number of fields on the line. Empty fields at the end of the line are not counted.
+     *
+     * @return number of fields
+     */
+
+    int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Get a field as a string.
+     *
+     * @param field index of the field
+     * @return the field
+     */
+
+    String getString(int field) {
+        int start = start(field);
+        return new String(line, start, fieldEnds[field] - start, charset);
+    }
+
+    /**
+     * Get a field as a string without any whitespace.
+     *
+     * @param field index of the field
+     * @return the field without whitespace
+     */
+
+    String getStrippedString(int field) {
+        byte[] stripped = new byte[fieldEnds[field] - start(field)];
+        int size = 0;
+
+        for (int i = start(field); i < fieldEnds[field]; i++) {
+            if (!isWhitespace(line[i])) {
+                stripped[size++] = line[i];
+            }
+        }
+        return new String(stripped, 0, size, charset);
+    }
+
+    /**
+     * Parses a field as an integer directly from the line. Whitespace is ignored.
+     *
+     * @param field index of the field
+     * @return the integer
+     * @throws NumberFormatException if the field is not an integer
+     */
+
+    int getInt(int field) throws NumberFormatException {
+        long value = 0;
+        boolean negative = false;
+        boolean first = true;
+        boolean hasDigits = false;
+
+        for (int i = start(field); i < fieldEnds[field]; i++) {
+            byte b = line[i];
+
+            if (isWhitespace(b)) {
+                continue;
+            }
+
+            if (first && (b == '-' || b == '+')) {
+                negative = b == '-';
+            } else if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                hasDigits = true;
+
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw new NumberFormatException("Integer is too large");
+                }
+            } else {
+                throw new NumberFormatException("Not a digit: " + (char) b);
+            }
+            first = false;
+        }
+
+        if (!hasDigits || (!negative && value > Integer.MAX_VALUE)) {
+            throw new NumberFormatException("Not an integer");
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Helper method for reading more of the file into the buffer.
+     *
+     * @return false if the end of the file is reached
+     * @throws IOException if the file can not be read
+     */
+
+    private boolean fill() throws IOException {
+        if (endOfFile) {
+            return false;
+        }
+
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+
+        if (read < 0) {
+            endOfFile = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Helper method for appending bytes to the line.
+     *
+     * @param bytes  bytes that are appended
+     * @param offset start of the bytes
+     * @param count  number of bytes
+     */
+
+    private void append(byte[] bytes, int offset, int count) {
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+        }
+        System.arraycopy(bytes, offset, line, length, count);
+        length += count;
+    }
+
+    /**
+     * Helper method for finding the fields of the line. Empty fields at the end are removed, like String.split does.
+     */
+
+    private void split() {
+        fieldCount = 0;
+
+        for (int i = 0; i < length; i++) {
+            if (line[i] == ',') {
+                addField(i);
+            }
+        }
+        addField(length);
+
+        // an empty line is one empty field
+        if (length == 0) {
+            return;
+        }
+
+        while (fieldCount > 0 && fieldEnds[fieldCount - 1] == start(fieldCount - 1)) {
+            fieldCount--;
+        }
+    }
+
+    /**
+     * Helper method for adding the end of a field.
+     *
+     * @param end end of the field
+     */
+
+    private void addField(int end) {
+        if (fieldCount == fieldEnds.length) {
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldEnds[fieldCount++] = end;
+    }
+
+    /**
+     * Helper method for getting where a field starts.
+     *
+     * @param field index of the field
+     * @return start of the field
+     */
+
+    private int start(int field) {
+        return field == 0 ? 0 : fieldEnds[field - 1] + 1;
+    }
+
+    /**
+     * Helper method for checking if a byte is whitespace, the same as \s in regex.
+     *
+     * @param b byte that is checked
+     * @return true if whitespace
+     */
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+}
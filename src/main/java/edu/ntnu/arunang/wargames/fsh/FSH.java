@@ -35,4 +35,33 @@ public interface FSH {
             return file.toString();
         }
     }
+
+    /**
+     * Check if a file has a given filetype.
+     *
+     * @param fileName file that is checked
+     * @param fileType the filetype, without the dot
+     * @return true if the extension of the file is the filetype
+     */
+
+    default boolean hasFileType(String fileName, String fileType) {
+        int index = fileName.lastIndexOf('.');
+
+        if (index > 0) {
+            return fileName.substring(index + 1).equals(fileType);
+        }
+        return false;
+    }
+
+    /**
+     * Get all the files of a given filetype in a directory.
+     *
+     * @param dir      the directory
+     * @param fileType the filetype, without the dot
+     * @return the files, or null if the directory does not exist
+     */
+
+    default File[] getFilesOfType(File dir, String fileType) {
+        return dir.listFiles(file -> fileExists(file) && hasFileType(file.toString(), fileType));
+    }
 }
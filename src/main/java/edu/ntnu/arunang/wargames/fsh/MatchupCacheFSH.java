@@ -0,0 +1,236 @@
+package edu.ntnu.arunang.wargames.fsh;
+
+import edu.ntnu.arunang.wargames.model.battle.BatchResult;
+import edu.ntnu.arunang.wargames.model.battle.MatchupCache;
+import edu.ntnu.arunang.wargames.model.battle.Terrain;
+
+import java.io.*;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MatchupCacheFSH is a file system handler (FSH) class for a MatchupCache. The cache is stored next to the army files,
+ * so the results of earlier simulations are kept between sessions.
+ * <p>
+ * Every result is stored on one line in the following manner:
+ * attacker, defender, terrain, runs, attackerContent, defenderContent, attackerWins, defenderWins, totalAttacks,
+ * attackerSurvivors, defenderSurvivors.
+ * <p>
+ * The attacker and defender are the fingerprints of the armies in hexadecimal, and their contents are stored as the
+ * space separated values given by Army.getContent. The terrain is empty if the battle has
+ * no terrain. The survivor distributions are stored as space separated survivors:runs pairs. The results are stored
+ * from the least to the most recently used, so the order is kept when the cache is loaded.
+ */
+
+public class MatchupCacheFSH implements FSH {
+    public final static String FILENAME = "matchups";
+    public final static String FILETYPE = "cache";
+    private final static int FIELDS = 11;
+
+    /**
+     * Constructs the FSH with no parameters.
+     */
+
+    public MatchupCacheFSH() {
+
+    }
+
+    /**
+     * Writes the cache to the default file in the army directory.
+     *
+     * @param cache the cache
+     * @throws IOException if the file is unavailable or cannot be written to.
+     */
+
+    public void writeCache(MatchupCache cache) throws IOException {
+        writeCacheTo(new File(getPath()), cache);
+    }
+
+    /**
+     * Writes the cache to a specific file.
+     *
+     * @param file  the file
+     * @param cache the cache
+     * @throws IOException if the file is unavailable or cannot be written to.
+     */
+
+    public void writeCacheTo(File file, MatchupCache cache) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (Map.Entry<MatchupCache.Key, BatchResult> entry : cache.getResults().entrySet()) {
+                MatchupCache.Key key = entry.getKey();
+                BatchResult result = entry.getValue();
+
+                writer.append(Long.toHexString(key.attacker())).append(',')
+                        .append(Long.toHexString(key.defender())).append(',')
+                        .append(key.terrain() == null ? "" : key.terrain().name()).append(',')
+                        .append(String.valueOf(key.runs())).append(',')
+                        .append(contentToString(key.attackerContent())).append(',')
+                        .append(contentToString(key.defenderContent())).append(',')
+                        .append(String.valueOf(result.getAttackerWins())).append(',')
+                        .append(String.valueOf(result.getDefenderWins())).append(',')
+                        .append(String.valueOf(result.getTotalAttacks())).append(',')
+                        .append(distributionToString(result.getAttackerSurvivors())).append(',')
+                        .append(distributionToString(result.getDefenderSurvivors())).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Loads the default file in the army directory into a cache. Nothing is loaded if the file does not exist.
+     *
+     * @param cache cache the results are stored in
+     * @throws FileFormatException if the file is wrongly formatted
+     * @throws IOException         if the file can not be read
+     */
+
+    public void loadCache(MatchupCache cache) throws FileFormatException, IOException {
+        File file = new File(getPath());
+        if (fileExists(file)) {
+            loadFromFile(file, cache);
+        }
+    }
+
+    /**
+     * Loads the results in a file into a cache. If the file has more results than the capacity of the cache, the
+     * most recently used results are kept.
+     *
+     * @param file  the file
+     * @param cache cache the results are stored in
+     * @throws FileFormatException if the file is wrongly formatted
+     * @throws IOException         if the file can not be found or is not accessible
+     */
+
+    public void loadFromFile(File file, MatchupCache cache) throws FileFormatException, IOException {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(file)) {
+            int lineNr = 1;
+            while (tokenizer.nextLine()) {
+                parseLine(tokenizer, cache, lineNr);
+                lineNr++;
+            }
+        }
+    }
+
+    /**
+     * Helper method for parsing the current line of the tokenizer into a result.
+     *
+     * @param tokenizer tokenizer positioned at the line
+     * @param cache     cache the result is stored in
+     * @param lineNr    number of the line
+     * @throws FileFormatException if the line is wrongly formatted
+     */
+
+    private void parseLine(CsvTokenizer tokenizer, MatchupCache cache, int lineNr) throws FileFormatException {
+        if (tokenizer.getFieldCount() < FIELDS) {
+            throw new FileFormatException("Too few fields on line: " + lineNr);
+        }
+
+        try {
+            String terrain = tokenizer.getStrippedString(2);
+            MatchupCache.Key key = new MatchupCache.Key(Long.parseUnsignedLong(tokenizer.getStrippedString(0), 16),
+                    Long.parseUnsignedLong(tokenizer.getStrippedString(1), 16),
+                    terrain.isEmpty() ? null : Terrain.valueOf(terrain), tokenizer.getInt(3),
+                    parseContent(tokenizer.getString(4)), parseContent(tokenizer.getString(5)));
+
+            BatchResult result = new BatchResult(tokenizer.getInt(6), tokenizer.getInt(7),
+                    Long.parseLong(tokenizer.getStrippedString(8)), parseDistribution(tokenizer.getString(9)),
+                    parseDistribution(tokenizer.getString(10)));
+
+            cache.put(key, result);
+        } catch (NumberFormatException e) {
+            throw new FileFormatException("Could not parse integers on line :" + lineNr);
+        } catch (IllegalArgumentException e) {
+            throw new FileFormatException(String.format("%s on Line: %d", e.getMessage(), lineNr));
+        }
+    }
+
+    /**
+     * Helper method for converting a survivor distribution to a string.
+     *
+     * @param distribution survivors mapped to number of runs
+     * @return space separated survivors:runs pairs
+     */
+
+    private String distributionToString(Map<Integer, Integer> distribution) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<Integer, Integer> entry : distribution.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(entry.getKey()).append(':').append(entry.getValue());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Helper method for parsing a survivor distribution.
+     *
+     * @param string space separated survivors:runs pairs
+     * @return survivors mapped to number of runs
+     * @throws NumberFormatException if a pair can not be parsed
+     */
+
+    private Map<Integer, Integer> parseDistribution(String string) throws NumberFormatException {
+        Map<Integer, Integer> distribution = new TreeMap<>();
+        for (String pair : string.strip().split(" +")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf(':');
+            if (separator < 0) {
+                throw new NumberFormatException(pair);
+            }
+            distribution.put(Integer.parseInt(pair.substring(0, separator)), Integer.parseInt(pair.substring(separator + 1)));
+        }
+        return distribution;
+    }
+
+    /**
+     * Helper method for converting the content of an army to a string.
+     *
+     * @param content the content
+     * @return space separated values
+     */
+
+    private String contentToString(int[] content) {
+        StringBuilder builder = new StringBuilder();
+        for (int value : content) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Helper method for parsing the content of an army.
+     *
+     * @param string space separated values
+     * @return the content
+     * @throws NumberFormatException if a value can not be parsed
+     */
+
+    private int[] parseContent(String string) throws NumberFormatException {
+        String stripped = string.strip();
+        if (stripped.isEmpty()) {
+            return new int[0];
+        }
+
+        String[] values = stripped.split(" +");
+        int[] content = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            content[i] = Integer.parseInt(values[i]);
+        }
+        return content;
+    }
+
+    /**
+     * Get the path of the default file, which is in the army directory.
+     *
+     * @return the full system path
+     */
+
+    public static String getPath() {
+        return ArmyFSH.getDir() + "/" + FILENAME + "." + FILETYPE;
+    }
+}
@@ -1,5 +1,6 @@
 package edu.ntnu.arunang.wargames.gui;
 
+import edu.ntnu.arunang.wargames.model.battle.SimulationScheduler;
 import javafx.application.Application;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXMLLoader;
@@ -24,6 +25,10 @@ public class GUI extends Application {
     private static final int STAGE_MIN_HEIGHT = 475;
     private static final int STAGE_MIN_WIDTH = 625;
 
+    // runs the simulations of every simulation page with one thread per processor, owned by the application and shut
+    // down when it stops
+    private static SimulationScheduler scheduler = null;
+
     /**
      * Sets a scene by getting the current stage from a given node and replacing the scene. The paths default is
      * /resources.
@@ -129,6 +134,20 @@ public class GUI extends Application {
         return GUI.class.getResource("/gui/view/" + page + ".fxml");
     }
 
+    /**
+     * Get the scheduler that runs the simulations of the application.
+     *
+     * @return the scheduler
+     * @throws IllegalStateException if the application is not started
+     */
+
+    public static SimulationScheduler getScheduler() throws IllegalStateException {
+        if (scheduler == null) {
+            throw new IllegalStateException("The application is not started");
+        }
+        return scheduler;
+    }
+
     /**
      * Main method of the GUI, and starts the application by applying the mainpage to the primaryStage.
      *
@@ -137,9 +156,23 @@ public class GUI extends Application {
 
     @Override
     public void start(Stage primaryStage) {
+        scheduler = new SimulationScheduler();
+
         primaryStage.getIcons().add(new Image(String.valueOf(this.getClass().getResource("/gui/media/logo.png"))));
         primaryStage.setTitle("Wargames");
 
         setSceneFromStage(primaryStage, "main", true);
     }
+
+    /**
+     * Stops the application. The simulations that are running are cancelled, and the scheduler is shut down.
+     */
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
 }
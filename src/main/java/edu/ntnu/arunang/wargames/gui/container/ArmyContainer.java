@@ -2,6 +2,8 @@ package edu.ntnu.arunang.wargames.gui.container;
 
 import edu.ntnu.arunang.wargames.gui.factory.TextFactory;
 import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.army.ArmySummary;
+import edu.ntnu.arunang.wargames.model.battle.BattleSnapshot;
 import edu.ntnu.arunang.wargames.gui.decorator.TextDecorator;
 import javafx.scene.control.Label;
 import javafx.scene.layout.GridPane;
@@ -54,9 +56,36 @@ public class ArmyContainer {
 
     public void updateData() {
         armySize.setText(Integer.toString(army.size()));
-        avgHealth.setText(Integer.toString(army.getTotalHealthPoints()));
-        avgArmor.setText(Integer.toString(army.getTotalAttackPoints()));
-        avgAttack.setText(Integer.toString(army.getTotalArmorPoints()));
+        avgHealth.setText(Long.toString(army.getTotalHealthPoints()));
+        avgArmor.setText(Long.toString(army.getTotalAttackPoints()));
+        avgAttack.setText(Long.toString(army.getTotalArmorPoints()));
+    }
+
+    /**
+     * Update the grid pane data according to the summary of an army that is not loaded.
+     *
+     * @param summary summary of the army
+     */
+
+    public void showSummary(ArmySummary summary) {
+        armySize.setText(Integer.toString(summary.size()));
+        avgHealth.setText(Long.toString(summary.getTotalHealthPoints()));
+        avgArmor.setText(Long.toString(summary.getTotalArmorPoints()));
+        avgAttack.setText(Long.toString(summary.getTotalAttackPoints()));
+    }
+
+    /**
+     * Update the grid pane data according to the totals of an army in a snapshot of a battle. Used while the army is
+     * simulated on another thread.
+     *
+     * @param totals totals of the army
+     */
+
+    public void showTotals(BattleSnapshot.ArmyTotals totals) {
+        armySize.setText(Integer.toString(totals.size()));
+        avgHealth.setText(Long.toString(totals.healthPoints()));
+        avgArmor.setText(Long.toString(totals.armorPoints()));
+        avgAttack.setText(Long.toString(totals.attackPoints()));
     }
 
     /**
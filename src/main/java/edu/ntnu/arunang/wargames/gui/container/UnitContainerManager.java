@@ -59,8 +59,17 @@ public class UnitContainerManager {
      */
 
     public void updateContainer() {
-        Map<Unit, Integer> units = getMap();
+        updateContainer(getMap());
+    }
+
+    /**
+     * Update the container from a given count of the units, for example the counts of a BattleSnapshot. The army is
+     * not read, so it can be changed by another thread meanwhile.
+     *
+     * @param units count of the units, in the same form as the cards
+     */
 
+    public void updateContainer(Map<Unit, Integer> units) {
         for (Map.Entry<Unit, UnitContainer> entry : new HashSet<>(containers.entrySet())) {
             Unit unit = entry.getKey();
 
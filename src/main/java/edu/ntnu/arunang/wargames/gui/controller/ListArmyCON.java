@@ -1,10 +1,11 @@
 package edu.ntnu.arunang.wargames.gui.controller;
 
 import edu.ntnu.arunang.wargames.fsh.ArmyFSH;
+import edu.ntnu.arunang.wargames.fsh.ArmyHandle;
+import edu.ntnu.arunang.wargames.fsh.ArmyIndex;
 import edu.ntnu.arunang.wargames.gui.GUI;
 import edu.ntnu.arunang.wargames.gui.StateHandler;
 import edu.ntnu.arunang.wargames.gui.container.ArmyContainer;
-import edu.ntnu.arunang.wargames.gui.container.UnitContainerManager;
 import edu.ntnu.arunang.wargames.gui.decorator.ButtonDecorator;
 import edu.ntnu.arunang.wargames.gui.decorator.TextDecorator;
 import edu.ntnu.arunang.wargames.gui.factory.AlertFactory;
@@ -13,6 +14,9 @@ import edu.ntnu.arunang.wargames.gui.factory.NavbarFactory;
 import edu.ntnu.arunang.wargames.gui.factory.TextFactory;
 import edu.ntnu.arunang.wargames.gui.util.ArmyFSHutil;
 import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.army.ArmySummary;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -29,13 +33,25 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for pages where armies are listed.
+ * <p>
+ * The armies are listed as handles to their files. Only the summary of an army is read when it is picked, and the
+ * armies are not built before the simulation starts. The files are read in the background, so the page does not freeze
+ * on large armies.
+ * <p>
+ * The armies are listed from an ArmyIndex that is shared by every visit to the page. The index watches the army
+ * directory, so the directory is not listed, and the summaries are known before an army is picked.
  */
 
 public class ListArmyCON {
+    private static ArmyIndex index;
+
     @FXML
     private VBox armyListContainer;
     @FXML
@@ -51,8 +67,8 @@ public class ListArmyCON {
     @FXML
     private BorderPane borderPane;
 
-    private Army pickedArmy = new Army("army");
-    private Army choosenAttacker;
+    private ArmyHandle pickedArmy;
+    private ArmyHandle choosenAttacker;
 
     private Label txtErrorMsg;
 
@@ -60,14 +76,33 @@ public class ListArmyCON {
     private boolean isAttacker;
     private ArmyContainer unitContainer;
 
-    private void onArmyChosen(Button button, File file) {
-        pickedArmy = ArmyFSHutil.loadArmyFromFile(file);
-        if (pickedArmy == null) {
-            return;
-        }
+    /**
+     * Method called when the user presses an army. The summary of the army is read in the background, and shown when it
+     * is ready.
+     *
+     * @param button the pressed button
+     * @param handle handle of the army
+     */
 
+    private void onArmyChosen(Button button, ArmyHandle handle) {
+        pickedArmy = handle;
         updatePressedArmy(button);
-        repaintArmyInformation();
+
+        handle.getSummary().whenCompleteAsync((summary, exception) -> {
+            // another army has been picked while the summary was read
+            if (pickedArmy != handle) {
+                return;
+            }
+
+            if (exception != null) {
+                pickedArmy = null;
+                informationContainer.setVisible(false);
+                ArmyFSHutil.showLoadError(exception);
+                return;
+            }
+
+            repaintArmyInformation(summary);
+        }, Platform::runLater);
     }
 
     /**
@@ -88,18 +123,46 @@ public class ListArmyCON {
             btnPressedArmy.setText("(Attacker) " + btnPressedArmy.getText());
             btnPressedArmy = null;
         } else {
-            Army choosenDefender = pickedArmy;
-            FXMLLoader loader = GUI.initLoader(GUI.getPath("simulate"));
-            ((SimulateCON) loader.getController()).initialize(choosenAttacker, choosenDefender);
-            Scene scene = btnPressedArmy.getScene();
-            Stage stage = (Stage) scene.getWindow();
-            stage.setScene(new Scene(loader.getRoot(), scene.getWidth(), scene.getHeight()));
+            loadAndSimulate((Button) event.getSource(), choosenAttacker, pickedArmy);
         }
         repaintHeader();
         informationContainer.setVisible(false);
         pickedArmy = null;
     }
 
+    /**
+     * Builds both armies in the background, and starts the simulation when they are ready. The continue button is
+     * disabled while the armies are built.
+     *
+     * @param btnContinue the continue button
+     * @param attacker    handle of the attacking army
+     * @param defender    handle of the defending army
+     */
+
+    private void loadAndSimulate(Button btnContinue, ArmyHandle attacker, ArmyHandle defender) {
+        Scene scene = btnContinue.getScene();
+        btnContinue.setDisable(true);
+        txtErrorMsg.setText("Loading armies...");
+
+        CompletableFuture<Army> attackerArmy = attacker.load();
+        CompletableFuture<Army> defenderArmy = defender.load();
+
+        CompletableFuture.allOf(attackerArmy, defenderArmy).whenCompleteAsync((ignored, exception) -> {
+            btnContinue.setDisable(false);
+            txtErrorMsg.setText("");
+
+            if (exception != null) {
+                ArmyFSHutil.showLoadError(exception);
+                return;
+            }
+
+            FXMLLoader loader = GUI.initLoader(GUI.getPath("simulate"));
+            ((SimulateCON) loader.getController()).initialize(attackerArmy.join(), defenderArmy.join());
+            Stage stage = (Stage) scene.getWindow();
+            stage.setScene(new Scene(loader.getRoot(), scene.getWidth(), scene.getHeight()));
+        }, Platform::runLater);
+    }
+
     /**
      * Deletes an Army from the Singleton and in the stored files in /resources/army folder. The method will show a
      * pop-up warning that the user must confirm.
@@ -107,7 +170,6 @@ public class ListArmyCON {
 
     @FXML
     void onDelete() {
-        ArmyFSH armyFSH = new ArmyFSH();
         // get the result of the popup
         Optional<ButtonType> result = AlertFactory.createConfirmation("Are you sure you want to delete army?")
                 .showAndWait();
@@ -117,14 +179,14 @@ public class ListArmyCON {
         }
 
         // show error if failed
-        if (!armyFSH.deleteArmy(pickedArmy)) {
+        if (!pickedArmy.getFile().delete()) {
             AlertFactory.createWarning("Could not remove army. \n The army file might be in use or does not exist.")
                     .show();
             return;
         }
 
         // refresh page
-        repaintArmies();
+        repaintArmies(pickedArmy.getFile());
 
         // hides the details window
         informationContainer.setVisible(false);
@@ -133,21 +195,28 @@ public class ListArmyCON {
     /**
      * Updates the details container. If the window is disabled it will be set to enabled.
      * <p>
-     * It creates a detailed gridPane of the army stats, and a tableview of with every unit.
+     * It creates a detailed gridPane of the army stats, and a line with the count and health of every unit type. The
+     * army is not loaded, so only its summary is shown.
+     *
+     * @param summary summary of the picked army
      */
 
-    void repaintArmyInformation() {
+    void repaintArmyInformation(ArmySummary summary) {
         if (!informationContainer.isVisible()) {
             informationContainer.setVisible(true);
         }
 
-        txtArmyName.setText(pickedArmy.getName());
+        txtArmyName.setText(summary.getName());
 
-        unitContainer.setArmy(pickedArmy);
-        unitContainer.updateData();
+        unitContainer.showSummary(summary);
 
         unitDetailsContainer.getChildren().clear();
-        unitDetailsContainer.getChildren().add(new UnitContainerManager(pickedArmy, false).getFlowpane());
+        for (UnitType type : UnitType.values()) {
+            if (summary.getCount(type) > 0) {
+                unitDetailsContainer.getChildren().add(TextFactory.createSmallText(String.format("%s: %d units, %d HP",
+                        type, summary.getCount(type), summary.getHealthPoints(type))));
+            }
+        }
     }
 
     /**
@@ -155,28 +224,85 @@ public class ListArmyCON {
      */
 
     void repaintArmies() {
+        repaintArmies(null);
+    }
+
+    /**
+     * Update the army list after a file has changed. The index is opened, refreshed and updated on the loader thread,
+     * since that reads the summaries of new and changed files, and the list is filled when it is done.
+     *
+     * @param changed file that has been written or deleted, or null
+     */
+
+    void repaintArmies(File changed) {
         // clear the container before adding
         armyListContainer.getChildren().clear();
+        armyListContainer.getChildren().add(TextFactory.createSmallTitle("Loading armies...", false));
+
+        CompletableFuture.supplyAsync(() -> {
+            ArmyIndex armyIndex = getIndex();
+
+            if (changed != null) {
+                armyIndex.update(changed);
+            }
+            // changes are only seen by refreshing if the directory could not be watched
+            if (!armyIndex.isWatching()) {
+                armyIndex.refresh();
+            }
+            return armyIndex.getEntries();
+        }, ArmyHandle.getLoader()).whenCompleteAsync((entries, exception) -> {
+            armyListContainer.getChildren().clear();
 
-        ArmyFSH armyFSH = new ArmyFSH();
+            if (exception != null) {
+                ArmyFSHutil.showLoadError(exception);
+                return;
+            }
+            showArmies(entries);
+        }, Platform::runLater);
+    }
 
-        File[] armyFiles = armyFSH.getAllArmyFiles();
+    /**
+     * Helper method for filling the army list with a button for every army in the index.
+     *
+     * @param entries entries of the index
+     */
 
-        if (armyFiles == null || armyFiles.length == 0) {
+    private void showArmies(List<ArmyIndex.Entry> entries) {
+        if (entries.isEmpty()) {
             armyListContainer.getChildren().add(TextFactory.createSmallTitle("No armies found!", false));
             return;
         }
 
-
         // loop through all the armies
-        for (File file : armyFiles) {
-            Button armyButton = ButtonFactory.listButton(armyFSH.getFileNameWithoutExtension(file));
-            armyButton.setOnAction(buttonEvent -> onArmyChosen(armyButton, file));
+        for (ArmyIndex.Entry entry : entries) {
+            ArmyHandle handle = new ArmyHandle(entry.file(), entry.summary());
+            Button armyButton = ButtonFactory.listButton(handle.getName());
+            armyButton.setOnAction(buttonEvent -> onArmyChosen(armyButton, handle));
             armyListContainer.getChildren().add(armyButton);
         }
     }
 
 
+    /**
+     * Get the index of the army directory. The index is opened the first time the page is shown, and is kept up to date
+     * by watching the directory after that. Opening the index reads every army file, so it must not be called on the
+     * javafx thread.
+     *
+     * @return the index
+     */
+
+    private static synchronized ArmyIndex getIndex() {
+        if (index == null) {
+            index = new ArmyIndex(new File(ArmyFSH.getDir()));
+            try {
+                index.open();
+            } catch (IOException e) {
+                // the directory can not be watched, the index is refreshed every time the armies are listed
+            }
+        }
+        return index;
+    }
+
     /**
      * Update the header. This is according to whether simulation has been chosen and the attacker is not null.
      */
@@ -215,7 +341,7 @@ public class ListArmyCON {
 
     /**
      * Import an army from the file system. The file will be re-saved in the folder where armies are
-     * stored by the ArmyFSH default.
+     * stored by the ArmyFSH default. The file is read in the background.
      *
      * @param actionEvent triggering event
      */
@@ -231,19 +357,21 @@ public class ListArmyCON {
         }
 
         //try to load the file to an army
-        pickedArmy = ArmyFSHutil.loadArmyFromFile(file);
-        if (pickedArmy == null) {
-            return;
-        }
+        new ArmyHandle(file).load().whenCompleteAsync((army, exception) -> {
+            if (exception != null) {
+                ArmyFSHutil.showLoadError(exception);
+                return;
+            }
 
-        //Write the army
-        if (!ArmyFSHutil.writeArmy(pickedArmy)) {
-            return;
-        }
+            //Write the army
+            if (!ArmyFSHutil.writeArmy(army)) {
+                return;
+            }
 
-        repaintArmies();
+            repaintArmies(new File(ArmyFSH.getPath(army.getName())));
 
-        AlertFactory.createInformation("Import successful").show();
+            AlertFactory.createInformation("Import successful").show();
+        }, Platform::runLater);
     }
 
     /**
@@ -257,7 +385,7 @@ public class ListArmyCON {
         initBottomBar();
 
         informationContainer.setVisible(false);
-        unitContainer = new ArmyContainer(pickedArmy);
+        unitContainer = new ArmyContainer(new Army("army"));
         armyDetailsContainer.getChildren().add(unitContainer.getGridPane());
 
         repaintArmies();
@@ -1,15 +1,17 @@
 package edu.ntnu.arunang.wargames.gui.controller;
 
-import edu.ntnu.arunang.wargames.event.EventType;
 import edu.ntnu.arunang.wargames.gui.GUI;
 import edu.ntnu.arunang.wargames.gui.container.ArmyContainer;
 import edu.ntnu.arunang.wargames.gui.container.UnitContainerManager;
 import edu.ntnu.arunang.wargames.gui.decorator.TextDecorator;
 import edu.ntnu.arunang.wargames.gui.factory.*;
+import edu.ntnu.arunang.wargames.gui.util.SampleBuffer;
 import edu.ntnu.arunang.wargames.model.army.Army;
 import edu.ntnu.arunang.wargames.model.battle.Battle;
+import edu.ntnu.arunang.wargames.model.battle.BattleSnapshot;
+import edu.ntnu.arunang.wargames.model.battle.SimulationScheduler;
 import edu.ntnu.arunang.wargames.model.battle.Terrain;
-import javafx.application.Platform;
+import javafx.animation.AnimationTimer;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.chart.LineChart;
@@ -23,10 +25,14 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller for the simulation page.
+ * <p>
+ * A running simulation is painted by a render loop that runs once per frame on the javafx thread. The loop reads the
+ * latest snapshot published by the battle, so the simulation never hands work to the javafx thread, and the speed of
+ * the simulation does not depend on how often the page is painted.
  */
 
 public class SimulateCON {
@@ -38,9 +44,22 @@ public class SimulateCON {
     private final static int UPDATE_GRAPHICS_DELTA = 100;
     private final static int UPDATE_TEXT_DELTA = 40;
 
+    // owned by the application, which shuts it down on exit
+    private SimulationScheduler scheduler;
+
     private final int delay = 1;
-    private long lastTextUpdate = new Date().getTime();
-    private long lastGraphicUpdate = new Date().getTime();
+    private long lastGraphicUpdate = 0;
+    private long lastTextUpdate = 0;
+    private BattleSnapshot lastSnapshot = null;
+    private BattleSnapshot.UnitCounts lastUnitCounts = null;
+
+    // paints the running simulation once per frame
+    private final AnimationTimer renderLoop = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            onFrame(now);
+        }
+    };
 
     private Army originalAttacker;
     private Army originalDefender;
@@ -54,6 +73,9 @@ public class SimulateCON {
     private LineChart<Number, Number> lineChart;
     private XYChart.Series<Number, Number> attackerData;
     private XYChart.Series<Number, Number> defenderData;
+    // raw samples of the current series, the series only hold a downsampled copy
+    private final SampleBuffer attackerSamples = new SampleBuffer();
+    private final SampleBuffer defenderSamples = new SampleBuffer();
 
     private Button btnStart, btnCleanChart;
     private ComboBox<Terrain> terrainComboBox;
@@ -67,8 +89,8 @@ public class SimulateCON {
     private UnitContainerManager attackerUnitsContainer, defenderUnitsContainer;
 
     /**
-     * Starts the simulation. It prepares the battle first, and creates a new thread
-     * for the simulation. Lastly the btnCleanChart and
+     * Starts the simulation. It prepares the battle first, and submits it to the
+     * scheduler. Lastly the btnCleanChart and
      */
 
     private void onSimulationStart(ActionEvent event) {
@@ -88,14 +110,17 @@ public class SimulateCON {
             return;
         }
 
-        battle.attach(this::onRepaint);
-
-        Thread thread = new Thread(() -> battle.simulate(delay));
-        thread.setDaemon(true);
-        thread.start();
+        // the render loop reads the snapshots, the battle does not notify the page
+        battle.setPublishSnapshots(true);
+        lastSnapshot = null;
+        lastUnitCounts = null;
 
+        // the cards are made before the battle starts changing the armies
         initUnitsWindow(true);
 
+        scheduler.submit(battle, delay);
+        renderLoop.start();
+
         //disable terrain chooser and clean chart
         terrainComboBox.setDisable(true);
         btnCleanChart.setDisable(true);
@@ -105,27 +130,23 @@ public class SimulateCON {
     }
 
     /**
-     * Stops the simulation
+     * Pauses the simulation
      *
      * @param event triggering event
      */
 
     private void onSimulationStop(ActionEvent event) {
-        battle.stopSimulation();
+        battle.pause();
         btnStart.setText("Resume");
         btnStart.setOnAction(this::onSimulationResume);
     }
 
     /**
-     * Helper method for restarting the simulation. Gets the armies from the singleton again and creates a new battle.
-     * Updates the gui accordingly.
+     * Helper method for resuming the paused simulation. Updates the gui accordingly.
      */
 
     private void onSimulationResume(ActionEvent event) {
-        //restart the thread
-        Thread thread = new Thread(() -> battle.simulate(delay));
-        thread.setDaemon(true);
-        thread.start();
+        battle.resume();
 
         btnStart.setText("Stop");
         btnStart.setOnAction(this::onSimulationStop);
@@ -140,7 +161,6 @@ public class SimulateCON {
         simulations.add(battle.copy());
 
         battle = new Battle(originalAttacker.copy(), originalDefender.copy(), null);
-        battle.attach(this::onRepaint);
 
         //reset the start button
         btnStart.setText("Simulate");
@@ -162,6 +182,8 @@ public class SimulateCON {
      */
 
     public void onSimulationFinish() {
+        renderLoop.stop();
+
         btnStart.setText("Reset");
         btnStart.setOnAction(event -> onSimulationReset());
 
@@ -181,7 +203,8 @@ public class SimulateCON {
      */
 
     private void onFinish(ActionEvent event) {
-        battle.stopSimulation();
+        renderLoop.stop();
+        battle.cancel();
 
         GUI.setSceneFromActionEvent(event, "main");
     }
@@ -198,31 +221,45 @@ public class SimulateCON {
     }
 
     /**
-     * Updates the graphical elements. Text updates every 30 ms, and the linechart updates
-     * every 100ms.
+     * Paints a frame of the running simulation. Called by the render loop on the javafx thread. The army stats are
+     * painted from the snapshot every frame, the unit cards every 40 ms if the published unit counts have changed, and
+     * the linechart every 100 ms. The simulation is finished when the snapshot says so, which is after its last turn.
+     *
+     * @param now time of the frame in nanoseconds
      */
 
-    public void onRepaint(EventType type) {
-        long now = new Date().getTime();
-        switch (type) {
-            case UPDATE -> {
-                if (now - UPDATE_TEXT_DELTA >= lastTextUpdate) {
-                    Platform.runLater(() -> {
-                        repaintArmyInformation();
-                        repaintUnitInformation();
-                    });
-                    lastTextUpdate = now;
-                }
-
-                if (now - UPDATE_GRAPHICS_DELTA >= lastGraphicUpdate) {
-                    Platform.runLater(this::repaintChart);
-                    lastGraphicUpdate = now;
-                }
-            }
+    private void onFrame(long now) {
+        BattleSnapshot snapshot = battle.getSnapshot();
+        BattleSnapshot.UnitCounts unitCounts = battle.getUnitCounts();
+
+        // nothing has happened since the last frame, the unit counts of the last turn may come after its snapshot
+        if (snapshot == null || (snapshot == lastSnapshot && unitCounts == lastUnitCounts)) {
+            return;
+        }
+        lastSnapshot = snapshot;
+
+        if (snapshot.finished()) {
+            onSimulationFinish();
+            return;
+        }
+
+        attackerDetails.showTotals(snapshot.attacker());
+        defenderDetails.showTotals(snapshot.defender());
 
-            case FINISH -> Platform.runLater(this::onSimulationFinish);
+        if (now - lastTextUpdate >= TimeUnit.MILLISECONDS.toNanos(UPDATE_TEXT_DELTA)) {
+            // the cards are painted from the published unit counts, the armies are not read while simulating
+            if (unitCounts != null && unitCounts != lastUnitCounts) {
+                attackerUnitsContainer.updateContainer(unitCounts.attacker());
+                defenderUnitsContainer.updateContainer(unitCounts.defender());
+                lastUnitCounts = unitCounts;
+            }
+            lastTextUpdate = now;
         }
 
+        if (now - lastGraphicUpdate >= TimeUnit.MILLISECONDS.toNanos(UPDATE_GRAPHICS_DELTA)) {
+            repaintChart(snapshot.numOfAttacks(), snapshot.attacker().size(), snapshot.defender().size());
+            lastGraphicUpdate = now;
+        }
     }
 
     /**
@@ -245,13 +282,28 @@ public class SimulateCON {
     }
 
     /**
-     * Updates the barchart by getting the data from the armies.
+     * Updates the barchart by getting the data from the armies. Only used when the battle is not running.
      */
 
     private void repaintChart() {
-        // add the data to the barchart
-        attackerData.getData().add(ChartFactory.createData(battle.getNumOfAttacks(), battle.getAttacker().size()));
-        defenderData.getData().add(ChartFactory.createData(battle.getNumOfAttacks(), battle.getDefender().size()));
+        repaintChart(battle.getNumOfAttacks(), battle.getAttacker().size(), battle.getDefender().size());
+    }
+
+    /**
+     * Adds a sample to the barchart. The samples are buffered, and the series are given a downsampled copy, so they
+     * never have more than ChartFactory.MAX_POINTS points.
+     *
+     * @param numOfAttacks number of attacks
+     * @param attackerSize number of units in the attacking army
+     * @param defenderSize number of units in the defending army
+     */
+
+    private void repaintChart(int numOfAttacks, int attackerSize, int defenderSize) {
+        attackerSamples.add(numOfAttacks, attackerSize);
+        defenderSamples.add(numOfAttacks, defenderSize);
+
+        ChartFactory.setDownsampledData(attackerData, attackerSamples, ChartFactory.MAX_POINTS);
+        ChartFactory.setDownsampledData(defenderData, defenderSamples, ChartFactory.MAX_POINTS);
     }
 
     private void repaintInfoContainer() {
@@ -284,10 +336,13 @@ public class SimulateCON {
     }
 
     /**
-     * Create a new data series for the linechart
+     * Create a new data series for the linechart. The series of earlier runs keep their downsampled points.
      */
 
     private void createNewDataSeries() {
+        attackerSamples.clear();
+        defenderSamples.clear();
+
         attackerData = ChartFactory.createDataSeries(battle.getAttacker().getName() + ", run: " + simulations.size());
         defenderData = ChartFactory.createDataSeries(battle.getDefender().getName() + ", run: " + simulations.size());
         lineChart.getData().add(attackerData);
@@ -302,6 +357,7 @@ public class SimulateCON {
     protected void initialize(Army attacker, Army defender) {
         originalDefender = defender;
         originalAttacker = attacker;
+        scheduler = GUI.getScheduler();
 
         battle = new Battle(originalAttacker.copy(), originalDefender.copy(), null);
 
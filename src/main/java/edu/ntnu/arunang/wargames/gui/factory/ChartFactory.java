@@ -1,5 +1,6 @@
 package edu.ntnu.arunang.wargames.gui.factory;
 
+import edu.ntnu.arunang.wargames.gui.util.SampleBuffer;
 import edu.ntnu.arunang.wargames.model.army.Army;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
@@ -7,12 +8,22 @@ import javafx.scene.chart.XYChart;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Factory for creating charts, and chart elements.
+ * <p>
+ * Series that get a point for every update are downsampled before they are shown. The raw samples are kept in a
+ * SampleBuffer, and the series is given at most a fixed number of points, picked by Largest-Triangle-Three-Buckets.
+ * The picked points keep the visual shape of the series, so a long simulation does not fill the scene graph with
+ * points.
  */
 
 public class ChartFactory {
 
+    public final static int MAX_POINTS = 200;
+
     /**
      * Static class, should not be instantiated.
      */
@@ -84,4 +95,94 @@ public class ChartFactory {
     public static XYChart.Data<Number, Number> createData(int xIndex, int value) {
         return new XYChart.Data<>(xIndex, value);
     }
+
+    /**
+     * Replaces the data of a series with a downsampled copy of the samples. The series gets at most maxPoints points,
+     * and always keeps the first and the last sample.
+     *
+     * @param series    the series that is shown
+     * @param samples   the raw samples of the series
+     * @param maxPoints maximum number of points in the series, must be at least 3
+     * @throws IllegalArgumentException if maxPoints is less than 3
+     */
+
+    public static void setDownsampledData(XYChart.Series<Number, Number> series, SampleBuffer samples, int maxPoints)
+            throws IllegalArgumentException {
+        int[] picked = downsample(samples, maxPoints);
+        List<XYChart.Data<Number, Number>> data = new ArrayList<>(picked.length);
+
+        for (int index : picked) {
+            data.add(createData(samples.getX(index), samples.getY(index)));
+        }
+        series.getData().setAll(data);
+    }
+
+    /**
+     * Picks the samples that are shown by Largest-Triangle-Three-Buckets. The first and the last sample are always
+     * picked. The samples in between are split into buckets, and from every bucket the sample that makes the largest
+     * triangle with the previously picked sample and the average of the next bucket is picked.
+     *
+     * @param samples   the raw samples
+     * @param maxPoints maximum number of picked samples, must be at least 3
+     * @return indices of the picked samples, in order
+     * @throws IllegalArgumentException if maxPoints is less than 3
+     */
+
+    public static int[] downsample(SampleBuffer samples, int maxPoints) throws IllegalArgumentException {
+        if (maxPoints < 3) {
+            throw new IllegalArgumentException("At least 3 points must be picked");
+        }
+
+        int size = samples.size();
+        if (size <= maxPoints) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] picked = new int[maxPoints];
+        double bucketSize = (double) (size - 2) / (maxPoints - 2);
+        int previous = 0;
+        int count = 0;
+        picked[count++] = 0;
+
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            // the average of the next bucket, the last sample is the next bucket of the last bucket
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += samples.getX(i);
+                averageY += samples.getY(i);
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            double previousX = samples.getX(previous);
+            double previousY = samples.getY(previous);
+            double largestArea = -1;
+            int largest = start;
+
+            for (int i = start; i < end; i++) {
+                // twice the area of the triangle, which is enough to compare the triangles
+                double area = Math.abs((previousX - averageX) * (samples.getY(i) - previousY)
+                        - (previousX - samples.getX(i)) * (averageY - previousY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+            }
+
+            picked[count++] = largest;
+            previous = largest;
+        }
+
+        picked[count] = size - 1;
+        return picked;
+    }
 }
@@ -10,6 +10,7 @@ import javafx.scene.control.ButtonType;
 import java.io.File;
 import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
 
 /**
  * ArmyFSH util class makes ArmyFSH methods abstract with gui. This class reduces code repetition
@@ -64,11 +65,28 @@ public class ArmyFSHutil {
 
         try {
             army = armyFSH.loadFromFile(file);
-        } catch (IOException e) {
-            AlertFactory.createError("Army could not be loaded...\n" + e.getMessage()).show();
-        } catch (FileFormatException e) {
-            AlertFactory.createError("Army is wrongly formatted! \n" + e.getMessage()).show();
+        } catch (IOException | FileFormatException e) {
+            showLoadError(e);
         }
         return army;
     }
+
+    /**
+     * Shows an alert box for an army that could not be loaded. Used for armies that are loaded in the background, where
+     * the exception is wrapped in a CompletionException.
+     *
+     * @param exception the exception thrown when loading
+     */
+
+    public static void showLoadError(Throwable exception) {
+        if (exception instanceof CompletionException && exception.getCause() != null) {
+            exception = exception.getCause();
+        }
+
+        if (exception instanceof FileFormatException) {
+            AlertFactory.createError("Army is wrongly formatted! \n" + exception.getMessage()).show();
+        } else {
+            AlertFactory.createError("Army could not be loaded...\n" + exception.getMessage()).show();
+        }
+    }
 }
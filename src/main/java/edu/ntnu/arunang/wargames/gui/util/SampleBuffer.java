@@ -0,0 +1,130 @@
+package edu.ntnu.arunang.wargames.gui.util;
+
+/**
+ * A SampleBuffer is a ring buffer of (x, y) samples stored in primitive arrays. It holds the raw samples of a chart
+ * series, so the chart itself only needs to hold a downsampled copy. When the buffer is full, the oldest sample is
+ * overwritten, so a buffer never takes more memory than its capacity.
+ * <p>
+ * The samples are indexed from the oldest to the newest.
+ */
+
+public class SampleBuffer {
+
+    public final static int DEFAULT_CAPACITY = 8192;
+
+    private final int[] xs;
+    private final int[] ys;
+    private int start = 0; // index of the oldest sample in the arrays
+    private int size = 0;
+
+    /**
+     * Constructs a buffer with the default capacity.
+     */
+
+    public SampleBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a buffer with a given capacity.
+     *
+     * @param capacity maximum number of samples, must be greater than 0
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+
+    public SampleBuffer(int capacity) throws IllegalArgumentException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+    }
+
+    /**
+     * Adds a sample. If the buffer is full, the oldest sample is overwritten.
+     *
+     * @param x x-coordinate of the sample
+     * @param y y-coordinate of the sample
+     */
+
+    public void add(int x, int y) {
+        int index;
+        if (size < xs.length) {
+            index = (start + size++) % xs.length;
+        } else {
+            index = start;
+            start = (start + 1) % xs.length;
+        }
+
+        xs[index] = x;
+        ys[index] = y;
+    }
+
+    /**
+     * Get the x-coordinate of a sample.
+     *
+     * @param index index of the sample, 0 is the oldest
+     * @return x-coordinate
+     * @throws IndexOutOfBoundsException if there is no sample at the index
+     */
+
+    public int getX(int index) throws IndexOutOfBoundsException {
+        return xs[position(index)];
+    }
+
+    /**
+     * Get the y-coordinate of a sample.
+     *
+     * @param index index of the sample, 0 is the oldest
+     * @return y-coordinate
+     * @throws IndexOutOfBoundsException if there is no sample at the index
+     */
+
+    public int getY(int index) throws IndexOutOfBoundsException {
+        return ys[position(index)];
+    }
+
+    /**
+     * Get the number of samples in the buffer.
+     *
+     * @return number of samples
+     */
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the maximum number of samples in the buffer.
+     *
+     * @return capacity
+     */
+
+    public int getCapacity() {
+        return xs.length;
+    }
+
+    /**
+     * Removes every sample.
+     */
+
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * Helper method for finding the position of a sample in the arrays.
+     *
+     * @param index index of the sample
+     * @return position in the arrays
+     */
+
+    private int position(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (start + index) % xs.length;
+    }
+}
@@ -1,23 +1,78 @@
 package edu.ntnu.arunang.wargames.model.army;
 
 import edu.ntnu.arunang.wargames.model.unit.Unit;
+import edu.ntnu.arunang.wargames.model.unit.UnitOwner;
+import edu.ntnu.arunang.wargames.model.unit.UnitTemplate;
+import edu.ntnu.arunang.wargames.model.unit.util.Hashing;
 import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
 
 /**
  * An Army is a collection of Units. It has a name that defines it.
  * <p>
  * The Army class uses an ArrayList for storing the Units. This is because there can be duplicates of the same troop in
  * the Army, and the order of the Units does not matter.
+ * <p>
+ * Because the order does not matter, a Unit is removed by moving the last Unit into its place, so no Units are shifted.
+ * The Units do not store their index, to keep them small. Instead the Army remembers the index of the last Unit it
+ * gave out through get or getRandom, or took out of a stack, which is the Unit that is removed when it dies in a
+ * battle. That Unit is therefore removed in constant time, while other Units are searched for. The Army is the
+ * UnitOwner of the Units it holds, so no one else can change them as Units of the Army.
+ * <p>
+ * The total stats of the Army are kept up to date when Units are added, removed or damaged. The Army listens to the
+ * Units it holds, so that the totals can be read without going through every Unit.
+ * <p>
+ * Identical Units can also be stored as stacks, which is a prototype and a count. Reading a stacked Unit through get
+ * or getRandom gives the prototype of its stack, which is held by the stack. A stacked Unit is only taken out of its
+ * stack and stored as its own object the first time it is damaged or changes state, so the Units of a stack stay equal.
+ * Stacked Units are placed after the individual Units when indexed. A large army loaded from a file therefore only
+ * needs an object per Unit that has been changed in a fight.
+ * <p>
+ * The individual Units are also indexed by their UnitType, and the number of Units of every type is kept up to date,
+ * so the Units of one type can be found without going through the whole Army. The index stores the indexes of the
+ * Units in int arrays, together with the position of every Unit among the Units of its type. The counts of the
+ * condensed map are kept up to date the same way, so the condensed map is made without going through the Units.
+ * <p>
+ * The Army also keeps a hash of its content, which is the sum of a hash of every Unit. The sum does not depend on the
+ * order of the Units, so it is kept up to date like the totals, and hashCode does not need to sort the Units. Since the
+ * hash follows the Units, an Army that is used as a key in a map must not be changed. The fingerprint is kept the same
+ * way, from a hash of every Unit without its name, and the hash of a Unit is made from its fingerprint and its name.
+ * <p>
+ * The Units can be read through a view, forEach or a stream of their healthpoints without copying them. Only getUnits
+ * and copy copies the Units, and should be used when the copies are going to be changed.
  */
 
-public class Army {
+public class Army extends UnitOwner {
+
+    public static final int CONTENT_FIELDS = 7; // values of every distinct unit in getContent, including the count
 
     private final ArrayList<Unit> units;
-    private final Random random = new Random(); // Used to get a random Unit
+    private final IndexList typeIndexes = new IndexList(); // position of every unit among the units of its type
+    private int lastIndex = -1; // index of the unit last given out, so it is removed without searching
+    private final ArrayList<UnitStack> stacks = new ArrayList<>();
+    private final HashMap<Unit, UnitStack> stacksByUnit = new HashMap<>(); // finds the stack of an equal unit
+    private int stackedCount = 0; // number of units in the stacks
+    private final RandomGenerator random = new SplittableRandom(); // Used to get a random Unit
     private String name;
 
+    // the totals are longs, since a large army can have more than Integer.MAX_VALUE points
+    private long totalHealthPoints = 0;
+    private long totalAttackPoints = 0;
+    private long totalArmorPoints = 0;
+    private long contentHash = 0; // sum of the hashes of the units
+    private long fingerprint = 0; // sum of the fingerprints of the units, which leave out the names
+
+    private static final UnitType[] TYPES = UnitType.values();
+    private final EnumMap<UnitType, IndexList> unitsByType = new EnumMap<>(UnitType.class); // indexes of the units
+    private final int[] countByType = new int[TYPES.length]; // includes the stacked units
+    private final HashMap<UnitTemplate, Condensed> condensedUnits = new HashMap<>(); // counts of getCondensedMap
+    private long unitsVersion = 0; // changes every time units are added or removed
+    private final List<Unit> view = new UnitsView(); // read-only view of the units, nothing is copied
+
     /**
      * Constructs the Army with an empty ArrayList.
      *
@@ -40,15 +95,20 @@ public class Army {
      * @param name  must not be empty.
      * @param units ArrayList of Units.
      * @throws IllegalArgumentException if the name is blank.
+     * @throws IllegalStateException    if one of the Units is held by another Army.
      */
 
-    public Army(String name, ArrayList<Unit> units) throws IllegalArgumentException {
+    public Army(String name, ArrayList<Unit> units) throws IllegalArgumentException, IllegalStateException {
         //check if name is blank
         if (name.isBlank()) {
             throw new IllegalArgumentException("Name can not be empty");
         }
         this.name = name;
         this.units = units;
+
+        for (int i = 0; i < units.size(); i++) {
+            track(i);
+        }
     }
 
     /**
@@ -58,29 +118,239 @@ public class Army {
      */
 
     public void add(Unit unit) {
-        units.add((unit.copy()));
+        units.add(unit.copy());
+        track(units.size() - 1);
     }
 
     /**
-     * Get a specific Unit in the Army by a given index.
+     * Adding multiples of the same Unit as one stack. The Units are only created when they are accessed, so the stack
+     * takes the same memory no matter the count. If an equal Unit is already stacked, the count is added to that stack.
+     *
+     * @param unit  Unit that is added
+     * @param count Amount of Units that should be added, must be greater than 0.
+     * @throws IllegalArgumentException if the count is less than 1
+     */
+
+    public void addStack(Unit unit, int count) throws IllegalArgumentException {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be greater than 0");
+        }
+
+        UnitStack stack = stacksByUnit.get(unit);
+        if (stack != null) {
+            stack.add(count);
+        } else {
+            addStack(new UnitStack(this, unit.copy(), count));
+        }
+
+        stackedCount += count;
+        addToTotals(unit, count);
+    }
+
+    /**
+     * Get a specific Unit in the Army by a given index. If the index points to a stacked Unit, the prototype of its
+     * stack is given, so reading does not change the Army, and every index of the stack gives the same object. The
+     * Unit can still be changed: the first change takes it out of its stack and stores it as its own Unit, at the end
+     * of the individual Units. Its index is therefore not the given index afterwards.
      *
      * @param index in the collection.
      * @return the targeted Unit.
+     * @throws IndexOutOfBoundsException if the index is not in the army
+     */
+
+    public Unit get(int index) throws IndexOutOfBoundsException {
+        if (index >= 0 && index < units.size()) {
+            lastIndex = index;
+        }
+        return view.get(index);
+    }
+
+    /**
+     * Helper method for taking the prototype out of a stack. The Unit is already counted in the totals, so it is only
+     * held by the Army.
+     *
+     * @param stack the stack
+     * @return the Unit that was taken out
+     */
+
+    private Unit unstack(UnitStack stack) {
+        // the prototype is the key of the stack, and is removed before it changes
+        stacksByUnit.remove(stack.getPrototype());
+        Unit unit = stack.split();
+        stackedCount--;
+
+        if (stack.getCount() == 0) {
+            stacks.remove(stack);
+        } else {
+            stacksByUnit.put(stack.getPrototype(), stack);
+        }
+
+        attach(unit);
+        lastIndex = units.size();
+        units.add(unit);
+        typeIndexes.add(-1);
+        addToType(lastIndex);
+        return unit;
+    }
+
+    /**
+     * Called by a stack when its prototype is about to be changed. The prototype is taken out of the stack first, and
+     * the Army is then notified of the change like for any other Unit it holds.
+     *
+     * @param stack the stack of the prototype
+     */
+
+    void onPrototypeChanging(UnitStack stack) {
+        onUnitChanging(unstack(stack));
+    }
+
+    /**
+     * Helper method for adding a new stack.
+     *
+     * @param stack the stack
+     */
+
+    private void addStack(UnitStack stack) {
+        stacks.add(stack);
+        stacksByUnit.put(stack.getPrototype(), stack);
+    }
+
+    /**
+     * Helper method for removing a stack. The order of the other stacks is kept, so the stacked Units after it only
+     * move down by the count of the removed stack. There are only a few stacks, so shifting them is cheap.
+     *
+     * @param stackIndex index of the stack
      */
 
-    public Unit get(int index) {
-        return units.get(index);
+    private void removeStackAt(int stackIndex) {
+        stacksByUnit.remove(stacks.remove(stackIndex).getPrototype());
     }
 
     /**
-     * Get the all specific types of Unit. The method uses generics so that each Unit does not need their own method.
+     * Get the all specific types of Unit. The Units in the list are always the Units held by the Army, so changing them
+     * changes the Army, no matter if the Army was loaded as stacks. Like get, this takes the stacked Units of the type
+     * out of their stacks first. Use forEachOfType to read the Units without taking them out of their stacks.
      *
      * @param type The unit type
-     * @return List of matching Units.
+     * @return unmodifiable List of matching Units.
      */
 
     public List<Unit> getUnitsByType(UnitType type) {
-        return units.stream().filter(e -> UnitType.getUnitType(e.getClass().getSimpleName()).equals(type)).toList();
+        for (int i = stacks.size() - 1; i >= 0; i--) {
+            UnitStack stack = stacks.get(i);
+            if (stack.getPrototype().getUnitType() == type) {
+                // the last unstack removes the stack, which does not move the stacks before it
+                while (stack.getCount() > 0) {
+                    unstack(stack);
+                }
+            }
+        }
+        IndexList indexes = bucket(type);
+        List<Unit> list = new ArrayList<>(indexes.size());
+        for (int i = 0; i < indexes.size(); i++) {
+            list.add(units.get(indexes.get(i)));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Get the number of Units of a type, stacked Units included. The count is kept up to date by the Army.
+     *
+     * @param type the unit type
+     * @return number of Units
+     */
+
+    public int getCount(UnitType type) {
+        return countByType[type.ordinal()];
+    }
+
+    /**
+     * Goes through the Units of a type without copying them. Stacked Units are not taken out of their stacks, they are
+     * given as the prototype of their stack, once for every Unit in it. The Units must therefore not be changed, and the
+     * Army must not be changed while it is gone through.
+     *
+     * @param type   the unit type
+     * @param action action that is done for every Unit
+     */
+
+    public void forEachOfType(UnitType type, Consumer<Unit> action) {
+        IndexList indexes = bucket(type);
+        for (int i = 0; i < indexes.size(); i++) {
+            action.accept(units.get(indexes.get(i)));
+        }
+        for (UnitStack stack : stacks) {
+            Unit prototype = stack.getPrototype();
+            if (prototype.getUnitType() == type) {
+                for (int i = 0; i < stack.getCount(); i++) {
+                    action.accept(prototype);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method for getting the indexes of the individual Units of a type.
+     *
+     * @param type the unit type
+     * @return the indexes, which must not be changed
+     */
+
+    private IndexList bucket(UnitType type) {
+        return unitsByType.computeIfAbsent(type, key -> new IndexList());
+    }
+
+    /**
+     * Helper method for adding an individual Unit to the index of its type. Units that are not one of the unit types
+     * are not indexed.
+     *
+     * @param index index of the Unit
+     */
+
+    private void addToType(int index) {
+        UnitType type = units.get(index).getUnitType();
+        if (type == null) {
+            return;
+        }
+        IndexList bucket = bucket(type);
+        typeIndexes.set(index, bucket.size());
+        bucket.add(index);
+    }
+
+    /**
+     * Helper method for removing an individual Unit from the index of its type. Like the Units of the Army, the last
+     * Unit of the type is moved into its place.
+     *
+     * @param index index of the Unit
+     */
+
+    private void removeFromType(int index) {
+        UnitType type = units.get(index).getUnitType();
+        if (type == null) {
+            return;
+        }
+        IndexList bucket = bucket(type);
+        int position = typeIndexes.get(index);
+        int last = bucket.removeLast();
+
+        if (last != index) {
+            bucket.set(position, last);
+            typeIndexes.set(last, position);
+        }
+    }
+
+    /**
+     * Helper method for updating the index of the type of a Unit that is moved to another index.
+     *
+     * @param from index the Unit is moved from
+     * @param to   index the Unit is moved to
+     */
+
+    private void moveInType(int from, int to) {
+        UnitType type = units.get(from).getUnitType();
+        if (type != null) {
+            bucket(type).set(typeIndexes.get(from), to);
+        }
+        typeIndexes.set(to, typeIndexes.get(from));
     }
 
     /**
@@ -106,7 +376,8 @@ public class Army {
     }
 
     /**
-     * Get a List of the Units. The army is converted to an ArrayList. The units are copied.
+     * Get a List of the Units. The army is converted to an ArrayList. The units are copied, so this is only needed when
+     * the copies are going to be changed. Use getUnitsView or forEach to read the Units.
      *
      * @return List of units.
      */
@@ -115,13 +386,131 @@ public class Army {
     }
 
     /**
-     * Remove a Unit in the Army. Usually done if the Unit is dead.
+     * Get a read-only view of the Units. Nothing is copied, and the view follows the changes of the Army. Stacked Units
+     * are given as the prototype of their stack, once for every Unit in it, in the same order as get. The Army must
+     * not be changed while the view is gone through.
+     *
+     * @return unmodifiable view of the units
+     */
+
+    public List<Unit> getUnitsView() {
+        return view;
+    }
+
+    /**
+     * Goes through every Unit without copying them. Stacked Units are given as the prototype of their stack, once for
+     * every Unit in it. The Units must therefore not be changed, and the Army must not be changed while it is gone
+     * through.
+     *
+     * @param action action that is done for every Unit
+     */
+
+    public void forEach(Consumer<Unit> action) {
+        units.forEach(action);
+        for (UnitStack stack : stacks) {
+            Unit prototype = stack.getPrototype();
+            for (int i = 0; i < stack.getCount(); i++) {
+                action.accept(prototype);
+            }
+        }
+    }
+
+    /**
+     * Get the healthpoints of every Unit as a stream, without copying the Units. The stream is lazy, so the Army must
+     * not be changed before it is used.
+     *
+     * @return stream of healthpoints
+     */
+
+    public IntStream healthPoints() {
+        IntStream stacked = stacks.stream().flatMapToInt(stack ->
+                IntStream.generate(stack.getPrototype()::getHealthPoints).limit(stack.getCount()));
+        return IntStream.concat(units.stream().mapToInt(Unit::getHealthPoints), stacked);
+    }
+
+    /**
+     * Remove a Unit in the Army. Usually done if the Unit is dead. The last Unit given out by get or getRandom is
+     * removed in constant time, other Units held by the Army are searched for, and if the Unit is not held by the Army
+     * an equal Unit is removed. A stacked Unit is removed by lowering the count of its stack, which is also done in
+     * constant time if the Unit is the prototype given by get.
      *
      * @param unit the Unit that is being removed.
      */
 
     public void remove(Unit unit) {
-        units.remove(unit);
+        if (unit.getOwner() instanceof UnitStack stack && stack.isPartOf(this)) {
+            removeFromStack(stack, stack.getPrototype());
+            return;
+        }
+
+        int index = indexOf(unit);
+
+        // the unit is not held by this army, look for an equal unit
+        if (index < 0) {
+            index = units.indexOf(unit);
+            if (index < 0) {
+                removeStacked(unit);
+                return;
+            }
+        }
+
+        removeAt(index);
+    }
+
+    /**
+     * Helper method for finding the index of a Unit held by the Army. The index of the last Unit given out is checked
+     * first, so finding that Unit is done in constant time.
+     *
+     * @param unit the Unit
+     * @return the index, or -1 if the Unit is not held by the Army as an individual Unit
+     */
+
+    private int indexOf(Unit unit) {
+        if (unit.getOwner() != this) {
+            return -1;
+        }
+
+        if (lastIndex >= 0 && lastIndex < units.size() && units.get(lastIndex) == unit) {
+            return lastIndex;
+        }
+
+        // the units that are unstacked last are placed last
+        for (int i = units.size() - 1; i >= 0; i--) {
+            if (units.get(i) == unit) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method for removing one Unit from the stack of an equal Unit, if there is one.
+     *
+     * @param unit the Unit that is being removed
+     */
+
+    private void removeStacked(Unit unit) {
+        UnitStack stack = stacksByUnit.get(unit);
+        if (stack != null) {
+            removeFromStack(stack, unit);
+        }
+    }
+
+    /**
+     * Helper method for removing one Unit from a stack.
+     *
+     * @param stack the stack
+     * @param unit  a Unit equal to the prototype of the stack
+     */
+
+    private void removeFromStack(UnitStack stack, Unit unit) {
+        stack.add(-1);
+        stackedCount--;
+        addToTotals(unit, -1);
+
+        if (stack.getCount() == 0) {
+            removeStackAt(stacks.indexOf(stack));
+        }
     }
 
     /**
@@ -129,7 +518,139 @@ public class Army {
      */
 
     public void removeAllDeadUnits() {
-        shallowCopyUnits().stream().filter(Unit::isDead).forEach(this::remove);
+        // iterate backwards so the unit moved into a removed slot has already been checked
+        for (int i = units.size() - 1; i >= 0; i--) {
+            if (units.get(i).isDead()) {
+                removeAt(i);
+            }
+        }
+
+        for (int i = stacks.size() - 1; i >= 0; i--) {
+            UnitStack stack = stacks.get(i);
+            if (stack.getPrototype().isDead()) {
+                stackedCount -= stack.getCount();
+                addToTotals(stack.getPrototype(), -stack.getCount());
+                removeStackAt(i);
+            }
+        }
+    }
+
+    /**
+     * Helper method for removing the Unit at a given index. The last Unit is moved into the slot of the removed Unit, so
+     * no other Units has to be shifted.
+     *
+     * @param index index of the Unit that is removed
+     */
+
+    private void removeAt(int index) {
+        Unit removed = units.get(index);
+        removeFromType(index);
+        int last = units.size() - 1;
+
+        if (last != index) {
+            moveInType(last, index);
+            units.set(index, units.get(last));
+        }
+        units.remove(last);
+        typeIndexes.removeLast();
+        untrack(removed);
+    }
+
+    /**
+     * Helper method for holding a Unit that has been added to the list, and adding it to the totals.
+     *
+     * @param index index of the unit in the list
+     * @throws IllegalStateException if the unit is held by another Army
+     */
+
+    private void track(int index) throws IllegalStateException {
+        Unit unit = units.get(index);
+        attach(unit);
+        typeIndexes.add(-1);
+        addToTotals(unit, 1);
+        addToType(index);
+    }
+
+    /**
+     * Helper method for removing a Unit from the totals and releasing it.
+     *
+     * @param unit unit that has been removed
+     */
+
+    private void untrack(Unit unit) {
+        addToTotals(unit, -1);
+        detach(unit);
+    }
+
+    /**
+     * Keeps the total healthpoints and the content hash up to date when a Unit is damaged or changes state.
+     *
+     * @param unit the Unit that is about to change
+     */
+
+    @Override
+    protected void onUnitChanging(Unit unit) {
+        long unitFingerprint = fingerprint(unit);
+        totalHealthPoints -= unit.getHealthPoints();
+        fingerprint -= unitFingerprint;
+        contentHash -= hash(unit, unitFingerprint);
+    }
+
+    /**
+     * Keeps the total healthpoints and the content hash up to date when a Unit is damaged or changes state.
+     *
+     * @param unit the Unit that has changed
+     */
+
+    @Override
+    protected void onUnitChanged(Unit unit) {
+        long unitFingerprint = fingerprint(unit);
+        totalHealthPoints += unit.getHealthPoints();
+        fingerprint += unitFingerprint;
+        contentHash += hash(unit, unitFingerprint);
+    }
+
+    /**
+     * Helper method for adding the stats of a number of equal Units to the totals. A negative count subtracts them.
+     *
+     * @param unit  unit whose stats are added
+     * @param count number of units
+     */
+
+    private void addToTotals(Unit unit, int count) {
+        totalHealthPoints += (long) unit.getHealthPoints() * count;
+        totalAttackPoints += (long) unit.getAttackPoints() * count;
+        totalArmorPoints += (long) unit.getArmorPoints() * count;
+        long unitFingerprint = fingerprint(unit);
+        fingerprint += unitFingerprint * count;
+        contentHash += hash(unit, unitFingerprint) * count;
+
+        UnitType type = unit.getUnitType();
+        if (type != null) {
+            countByType[type.ordinal()] += count;
+        }
+
+        // the condensed form only depends on the template, so the units are counted by their template
+        Condensed condensed = condensedUnits.computeIfAbsent(unit.getTemplate(), template -> new Condensed(unit));
+        condensed.count += count;
+        if (condensed.count == 0) {
+            condensedUnits.remove(unit.getTemplate());
+        }
+        unitsVersion++;
+    }
+
+    /**
+     * Helper method for hashing a Unit into 64 bits. Equal Units get the same hash, like in Unit.hashCode, but no
+     * objects are created, since the hash is computed every time a Unit is damaged. The hash is made from the
+     * fingerprint of the Unit, so the stats are only hashed once.
+     *
+     * @param unit        the Unit
+     * @param fingerprint the fingerprint of the Unit
+     * @return the hash
+     */
+
+    private static long hash(Unit unit, long fingerprint) {
+        return Hashing.mix(fingerprint * 31 + unit.getName().hashCode());
     }
 
     /**
@@ -139,59 +660,76 @@ public class Army {
      */
 
     public boolean hasUnits() {
-        return !units.isEmpty();
+        return size() > 0;
     }
 
     /**
-     * Get a random Unit in the Army.
+     * Get a random Unit in the Army. Like get, a stacked Unit is given as the prototype of its stack, which is taken out
+     * of the stack when it is first changed.
      *
      * @return A random Unit.
      */
 
     public Unit getRandom() {
-        return units.get(random.nextInt(units.size()));
+        return getRandom(random);
     }
 
     /**
-     * Get the average healthpoints of the units.
+     * Get a random Unit in the Army by using a given random generator. Used when the simulation should be reproducible,
+     * or when the generator should not be shared between threads. Every Unit is equally likely, so a stack is picked
+     * by its count. Like get, a stacked Unit is given as the prototype of its stack, so reading does not change the
+     * Army.
      *
-     * @return double containing the average healthpoints
+     * @param random the generator that picks the Unit
+     * @return A random Unit.
+     * @throws IllegalArgumentException if the Army has no units
      */
 
-    public int getTotalHealthPoints() {
-        return shallowCopyUnits().stream().mapToInt(Unit::getHealthPoints).sum();
+    public Unit getRandom(RandomGenerator random) throws IllegalArgumentException {
+        return get(random.nextInt(size()));
     }
 
     /**
-     * Get the average healthpoints of the units.
+     * Get the total healthpoints of the units. The total is kept up to date by the Army.
      *
-     * @return double containing the average healthpoints
+     * @return sum of the healthpoints
      */
 
-    public int getTotalAttackPoints() {
-        return shallowCopyUnits().stream().mapToInt(Unit::getAttackPoints).sum();
+    public long getTotalHealthPoints() {
+        return totalHealthPoints;
     }
 
     /**
-     * Get the average healthpoints of the units.
+     * Get the total attackpoints of the units. The total is kept up to date by the Army.
      *
-     * @return double containing the average healthpoints
+     * @return sum of the attackpoints
      */
 
-    public int getTotalArmorPoints() {
-        return shallowCopyUnits().stream().mapToInt(Unit::getArmorPoints).sum();
+    public long getTotalAttackPoints() {
+        return totalAttackPoints;
+    }
+
+    /**
+     * Get the total armorpoints of the units. The total is kept up to date by the Army.
+     *
+     * @return sum of the armorpoints
+     */
+
+    public long getTotalArmorPoints() {
+        return totalArmorPoints;
     }
 
     /**
      * Converts an Army into a map. This allows to get armies in a compact form with an Integer value that represents
-     * count. Used to save armies efficiently in csv files. The units are copied and reset before converting.
+     * count. Used to save armies efficiently in csv files. The units are copied and reset before converting. Equal
+     * Units are counted before they are copied, so only one copy is made of every distinct Unit.
      *
      * @return a hashmap of the army.
      */
 
     public Map<Unit, Integer> getMap() {
         Map<Unit, Integer> army = new HashMap<>();
-        this.shallowCopyUnits().forEach(unit -> army.merge(unit.getResetCopy(), 1, Integer::sum));
+        countEqualUnits().forEach((unit, count) -> army.merge(unit.getResetCopy(), count, Integer::sum));
         return army;
     }
 
@@ -200,19 +738,115 @@ public class Army {
      * compact form with an Integer value that represents
      * count. Unlike a normal map the healthpoints is set the 1,
      * generalizing the map. The units are copied and reset before converting.
+     * The counts are kept up to date when Units are added or removed, so only one copy is made of every kind of Unit,
+     * and the Units of the Army are not read.
      *
      * @return a hashmap of the army.
      */
 
     public Map<Unit, Integer> getCondensedMap() {
         Map<Unit, Integer> army = new HashMap<>();
-        for (Unit unit : this.shallowCopyUnits()) {
-            Unit copy = unit.getResetCopy();
-            copy.setHealthPoints(1);
-            army.merge(copy, 1, Integer::sum);
+        condensedUnits.values().forEach(condensed -> army.merge(condensed.unit.copy(), condensed.count, Integer::sum));
+        return army;
+    }
+
+    /**
+     * Get a counter that changes every time Units are added to or removed from the Army. Damage does not change it,
+     * so the condensed map of the Army is the same as long as the counter is the same.
+     *
+     * @return the counter
+     */
+
+    public long getUnitsVersion() {
+        return unitsVersion;
+    }
+
+    /**
+     * Helper method for counting the equal Units without copying them. The keys are the Units of the Army, so they must
+     * not be changed or leave this class.
+     *
+     * @return map of every distinct Unit and its count
+     */
+
+    private Map<Unit, Integer> countEqualUnits() {
+        Map<Unit, Integer> counts = new HashMap<>();
+        units.forEach(unit -> counts.merge(unit, 1, Integer::sum));
+        stacks.forEach(stack -> counts.merge(stack.getPrototype(), stack.getCount(), Integer::sum));
+        return counts;
+    }
+
+    /**
+     * Get a fingerprint of the content of the Army. The fingerprint is a sum of a hash of every Unit, so it does not
+     * depend on the order of the Units and no sorting is needed. The type, the stats and the bonuses of the Units are
+     * used, since they decide the outcome of a battle, but the names are not. Armies with the same Units therefore get
+     * the same fingerprint, even if the names are different, while a Unit that has lost a bonus in a battle changes
+     * it. The fingerprint is kept up to date like the content hash, so it is read in constant time.
+     * <p>
+     * Two armies with different content may get the same fingerprint, so a fingerprint that is equal should be checked
+     * with getContent.
+     *
+     * @return 64 bit fingerprint
+     */
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Get the content of the Army that the fingerprint is made from. For every distinct combination of type, stats and
+     * bonuses the array holds the values in the order type, healthpoints, attackpoints, armorpoints, attack bonus,
+     * resist bonus and count. The combinations are sorted, so armies with the same Units get equal arrays, even if the
+     * Units are in another order or have other names. The type is the ordinal of the UnitType, or -1 for Units that are
+     * not one of the unit types.
+     *
+     * @return the sorted content
+     */
+
+    public int[] getContent() {
+        // the units are counted by their values, so units with other names are counted together
+        TreeMap<int[], Integer> counts = new TreeMap<>(Arrays::compare);
+        units.forEach(unit -> counts.merge(contentOf(unit), 1, Integer::sum));
+        stacks.forEach(stack -> counts.merge(contentOf(stack.getPrototype()), stack.getCount(), Integer::sum));
+
+        int[] content = new int[counts.size() * CONTENT_FIELDS];
+        int i = 0;
+        for (Map.Entry<int[], Integer> entry : counts.entrySet()) {
+            System.arraycopy(entry.getKey(), 0, content, i, CONTENT_FIELDS - 1);
+            content[i + CONTENT_FIELDS - 1] = entry.getValue();
+            i += CONTENT_FIELDS;
         }
+        return content;
+    }
 
-        return army;
+    /**
+     * Helper method for getting the values of a Unit that is part of the content, without the count.
+     *
+     * @param unit the Unit
+     * @return type, healthpoints, attackpoints, armorpoints, attack bonus and resist bonus
+     */
+
+    private static int[] contentOf(Unit unit) {
+        UnitType type = unit.getUnitType();
+        return new int[]{type == null ? -1 : type.ordinal(), unit.getHealthPoints(), unit.getAttackPoints(),
+                unit.getArmorPoints(), unit.getAttackBonus(), unit.getResistBonus()};
+    }
+
+    /**
+     * Helper method for hashing the type, stats and bonuses of a Unit into 64 bits. The bonuses without a terrain are
+     * used, since they follow the state of the Unit.
+     *
+     * @param unit the Unit
+     * @return the hash
+     */
+
+    private static long fingerprint(Unit unit) {
+        UnitType type = unit.getUnitType();
+        long hash = Hashing.mix(type == null ? unit.getClass().getSimpleName().hashCode() : type.ordinal());
+        hash = Hashing.mix(hash * 31 + unit.getHealthPoints());
+        hash = Hashing.mix(hash * 31 + unit.getAttackPoints());
+        hash = Hashing.mix(hash * 31 + unit.getArmorPoints());
+        hash = Hashing.mix(hash * 31 + unit.getAttackBonus());
+        return Hashing.mix(hash * 31 + unit.getResistBonus());
     }
 
     /**
@@ -223,7 +857,20 @@ public class Army {
      */
 
     public Army copy() {
-        return new Army(getName(), deepCopyUnits());
+        ArrayList<Unit> copy = new ArrayList<>();
+        for (Unit unit : this.units) {
+            copy.add(unit.copy());
+        }
+
+        // the stacks are copied as stacks
+        Army army = new Army(getName(), copy);
+        for (UnitStack stack : stacks) {
+            army.addStack(stack.copy(army));
+            army.addToTotals(stack.getPrototype(), stack.getCount());
+        }
+        army.stackedCount = stackedCount;
+
+        return army;
     }
 
     /**
@@ -239,17 +886,55 @@ public class Army {
         for (Unit unit : this.units) {
             copy.add(unit.copy());
         }
+        addStackedUnits(copy);
         return copy;
     }
 
     /**
-     * Get a shallow copy of the units. The units are the same, put in a new arraylist.
+     * Get a shallow copy of the units. The units are the same, put in a new arraylist. Stacked units are not stored as
+     * objects, so they are added as copies of their stack.
      *
      * @return a shallow copy of the units
      */
 
     public ArrayList<Unit> shallowCopyUnits() {
-        return new ArrayList<>(units);
+        ArrayList<Unit> copy = new ArrayList<>(units);
+        addStackedUnits(copy);
+        return copy;
+    }
+
+    /**
+     * Helper method for adding a copy of every stacked Unit to a list.
+     *
+     * @param list list the units are added to
+     */
+
+    private void addStackedUnits(ArrayList<Unit> list) {
+        for (UnitStack stack : stacks) {
+            for (int i = 0; i < stack.getCount(); i++) {
+                list.add(stack.getUnit());
+            }
+        }
+    }
+
+    /**
+     * Get the stacks of the Army. The Units in the stacks are indexed after the individual Units.
+     *
+     * @return unmodifiable list of the stacks
+     */
+
+    public List<UnitStack> getStacks() {
+        return Collections.unmodifiableList(stacks);
+    }
+
+    /**
+     * Get how many of the units are stored in stacks.
+     *
+     * @return number of stacked units
+     */
+
+    public int getStackedCount() {
+        return stackedCount;
     }
 
     /**
@@ -259,7 +944,7 @@ public class Army {
      */
 
     public List<Unit> sortUnits() {
-        return units.stream().sorted().toList();
+        return view.stream().sorted().toList();
     }
 
     /**
@@ -292,17 +977,17 @@ public class Army {
      */
 
     public int size() {
-        return units.size();
+        return units.size() + stackedCount;
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
 
-        for (Unit unit : this.units) {
+        forEach(unit -> {
             sb.append(unit.toString());
             sb.append("\n");
-        }
+        });
 
         return sb.toString();
     }
@@ -319,17 +1004,103 @@ public class Army {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Army army)) return false;
-        return name.equals(army.name) && Objects.equals(this.sortUnits(), army.sortUnits());
+        // the units are only sorted and compared if the cheap checks pass
+        if (size() != army.size() || contentHash != army.contentHash || !name.equals(army.name)) return false;
+        return Objects.equals(this.sortUnits(), army.sortUnits());
     }
 
     /**
-     * When the army gets hashed, the order of the Army does not matter, therefore the Army is sorted before hashing.
+     * The hash of the Army is made from the name and the content hash, which does not depend on the order of the Units
+     * and is kept up to date by the Army. Hashing is therefore done in constant time.
      *
      * @return hash of the Army.
      */
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, this.sortUnits());
+        return 31 * name.hashCode() + Long.hashCode(contentHash);
+    }
+
+    /**
+     * A read-only view of the Units of the Army, indexed like get. Stacked Units are given as the prototype of their
+     * stack, so nothing is taken out of the stacks.
+     */
+
+    private class UnitsView extends AbstractList<Unit> {
+
+        @Override
+        public Unit get(int index) {
+            if (index < units.size()) {
+                return units.get(index);
+            }
+            Objects.checkIndex(index, size());
+
+            int offset = index - units.size();
+            for (UnitStack stack : stacks) {
+                if (offset < stack.getCount()) {
+                    return stack.getPrototype();
+                }
+                offset -= stack.getCount();
+            }
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        @Override
+        public int size() {
+            return Army.this.size();
+        }
+
+        @Override
+        public void forEach(Consumer<? super Unit> action) {
+            Army.this.forEach(action::accept);
+        }
+    }
+
+    /**
+     * The count of one kind of Unit in the condensed map, together with the reset Unit that is its key.
+     */
+
+    private static final class Condensed {
+
+        private final Unit unit;
+        private int count = 0;
+
+        Condensed(Unit unit) {
+            this.unit = unit.getResetCopy();
+            this.unit.setHealthPoints(1);
+        }
+    }
+
+    /**
+     * A growing list of ints, used for the indexes of the Units so that no Integer objects are made.
+     */
+
+    private static final class IndexList {
+
+        private int[] values = new int[8];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int removeLast() {
+            return values[--size];
+        }
+
+        int size() {
+            return size;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package edu.ntnu.arunang.wargames.model.army;
+
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+
+/**
+ * An ArmySummary describes an Army without holding its Units. It stores the name of the Army, and the number of Units
+ * and their total healthpoints for every UnitType. It is used to show an Army that is not loaded yet, since reading a
+ * summary is much cheaper than building the Army.
+ * <p>
+ * The totals are stored as longs, so the summary of a huge Army does not overflow.
+ */
+
+public class ArmySummary {
+
+    private static final UnitType[] TYPES = UnitType.values();
+
+    private final String name;
+    private final int[] countByType = new int[TYPES.length];
+    private final long[] healthByType = new long[TYPES.length];
+    private long totalAttackPoints = 0;
+    private long totalArmorPoints = 0;
+
+    /**
+     * Constructs an empty summary.
+     *
+     * @param name name of the Army
+     */
+
+    public ArmySummary(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Constructs a summary from totals that are already summed up, for example by an index of the army files.
+     *
+     * @param name              name of the Army
+     * @param countByType       number of Units of every type, indexed by the ordinal of the UnitType
+     * @param healthByType      total healthpoints of every type, indexed by the ordinal of the UnitType
+     * @param totalAttackPoints total attackpoints of the Army
+     * @param totalArmorPoints  total armorpoints of the Army
+     * @throws IllegalArgumentException if the arrays do not have one value per UnitType
+     */
+
+    public ArmySummary(String name, int[] countByType, long[] healthByType, long totalAttackPoints,
+                       long totalArmorPoints) throws IllegalArgumentException {
+        if (countByType.length != TYPES.length || healthByType.length != TYPES.length) {
+            throw new IllegalArgumentException("There must be one count and one health total per unit type");
+        }
+
+        this.name = name;
+        System.arraycopy(countByType, 0, this.countByType, 0, TYPES.length);
+        System.arraycopy(healthByType, 0, this.healthByType, 0, TYPES.length);
+        this.totalAttackPoints = totalAttackPoints;
+        this.totalArmorPoints = totalArmorPoints;
+    }
+
+    /**
+     * Adds a number of equal Units to the summary.
+     *
+     * @param type         type of the Units
+     * @param healthPoints healthpoints of one Unit
+     * @param attackPoints attackpoints of one Unit
+     * @param armorPoints  armorpoints of one Unit
+     * @param count        number of Units, must be greater than 0
+     * @throws IllegalArgumentException if the count is less than 1
+     */
+
+    public void add(UnitType type, int healthPoints, int attackPoints, int armorPoints, int count)
+            throws IllegalArgumentException {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be greater than 0");
+        }
+
+        countByType[type.ordinal()] += count;
+        healthByType[type.ordinal()] += (long) healthPoints * count;
+        totalAttackPoints += (long) attackPoints * count;
+        totalArmorPoints += (long) armorPoints * count;
+    }
+
+    /**
+     * Get the name of the Army.
+     *
+     * @return this.name
+     */
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the number of Units of a type.
+     *
+     * @param type the unit type
+     * @return number of Units
+     */
+
+    public int getCount(UnitType type) {
+        return countByType[type.ordinal()];
+    }
+
+    /**
+     * Get the total healthpoints of the Units of a type.
+     *
+     * @param type the unit type
+     * @return sum of the healthpoints
+     */
+
+    public long getHealthPoints(UnitType type) {
+        return healthByType[type.ordinal()];
+    }
+
+    /**
+     * Get the number of Units in the Army.
+     *
+     * @return number of Units
+     */
+
+    public int size() {
+        int size = 0;
+        for (int count : countByType) {
+            size += count;
+        }
+        return size;
+    }
+
+    /**
+     * Get the total healthpoints of the Army.
+     *
+     * @return sum of the healthpoints
+     */
+
+    public long getTotalHealthPoints() {
+        long sum = 0;
+        for (long health : healthByType) {
+            sum += health;
+        }
+        return sum;
+    }
+
+    /**
+     * Get the total attackpoints of the Army.
+     *
+     * @return sum of the attackpoints
+     */
+
+    public long getTotalAttackPoints() {
+        return totalAttackPoints;
+    }
+
+    /**
+     * Get the total armorpoints of the Army.
+     *
+     * @return sum of the armorpoints
+     */
+
+    public long getTotalArmorPoints() {
+        return totalArmorPoints;
+    }
+
+    @Override
+    public String toString() {
+        return "ArmySummary " + name + " size: " + size();
+    }
+}
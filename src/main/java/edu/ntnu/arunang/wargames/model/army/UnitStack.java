@@ -0,0 +1,144 @@
+package edu.ntnu.arunang.wargames.model.army;
+
+import edu.ntnu.arunang.wargames.model.unit.Unit;
+import edu.ntnu.arunang.wargames.model.unit.UnitOwner;
+
+/**
+ * A UnitStack is a number of identical Units that are stored as one prototype and a count. It is used by the Army to
+ * store Units that have not been touched yet, so that a large army does not need an object per Unit.
+ * <p>
+ * The prototype is given out when a stacked Unit is read, and it is held by the stack. The first time the prototype is
+ * changed, the stack tells its Army, which takes the prototype out of the stack as an individual Unit before the change
+ * is made. The stack keeps a new copy as its prototype, so the other Units in the stack are not changed.
+ */
+
+public final class UnitStack extends UnitOwner {
+
+    private final Army army;
+    private Unit prototype;
+    private int count;
+
+    /**
+     * Constructs a stack of a given unit. The stack holds the prototype.
+     *
+     * @param army      the army the stack is part of
+     * @param prototype the Unit every Unit in the stack is equal to
+     * @param count     number of Units in the stack
+     * @throws IllegalStateException if the prototype is held by someone else
+     */
+
+    UnitStack(Army army, Unit prototype, int count) throws IllegalStateException {
+        this.army = army;
+        this.prototype = prototype;
+        this.count = count;
+        attach(prototype);
+    }
+
+    /**
+     * Creates an identical copy of the stack for another army.
+     *
+     * @param army the army the copy is part of
+     * @return the copy
+     */
+
+    UnitStack copy(Army army) {
+        return new UnitStack(army, prototype.copy(), count);
+    }
+
+    /**
+     * Takes the prototype out of the stack, so that it can be held by the Army as an individual Unit. If there are more
+     * Units in the stack, a copy of the old prototype becomes the new prototype.
+     *
+     * @return the old prototype, which is no longer held by the stack
+     */
+
+    Unit split() {
+        Unit unit = prototype;
+        detach(unit);
+        count--;
+
+        if (count > 0) {
+            prototype = unit.copy();
+            attach(prototype);
+        }
+        return unit;
+    }
+
+    /**
+     * Get the prototype of the stack. Should only be read by the Army.
+     *
+     * @return the prototype
+     */
+
+    Unit getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Checks if the stack is part of an army.
+     *
+     * @param army the army
+     * @return true if the stack is part of the army
+     */
+
+    boolean isPartOf(Army army) {
+        return this.army == army;
+    }
+
+    /**
+     * Get a copy of the Unit the stack is made of.
+     *
+     * @return copy of the prototype
+     */
+
+    public Unit getUnit() {
+        return prototype.copy();
+    }
+
+    /**
+     * Get the number of Units in the stack.
+     *
+     * @return count
+     */
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Adds Units to the stack.
+     *
+     * @param count number of Units that are added
+     */
+
+    void add(int count) {
+        this.count += count;
+    }
+
+    /**
+     * The prototype is about to change, so the Army takes it out of the stack before the change is made. The Army then
+     * holds the prototype, and is notified of the rest of the change.
+     *
+     * @param unit the prototype
+     */
+
+    @Override
+    protected void onUnitChanging(Unit unit) {
+        army.onPrototypeChanging(this);
+    }
+
+    /**
+     * Never called, since the prototype is held by the Army when the change is done.
+     *
+     * @param unit the Unit that has changed
+     */
+
+    @Override
+    protected void onUnitChanged(Unit unit) {
+    }
+
+    @Override
+    public String toString() {
+        return count + " x " + prototype;
+    }
+}
@@ -0,0 +1,184 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An AdaptiveSimulation estimates the win rate of a matchup with as few runs as needed. The battle is simulated in
+ * rounds, and the simulation stops when the Wilson score interval of the win rate is narrower than a target width, or
+ * when a maximum number of runs is reached.
+ * <p>
+ * The rounds are parts of one BatchSimulation of the maximum number of runs, so the armies are copied, and compiled,
+ * once for the whole simulation, and every round is submitted to the same pool.
+ * <p>
+ * A lopsided matchup settles after a few tens of runs, while an even matchup needs a few hundred for the default width
+ * of 0.1. Every round is as large as all the rounds before it, so at most twice the needed runs are simulated.
+ * <p>
+ * The runs are seeded from the seed of the simulation, so a simulation with a given seed gives the same result on any
+ * number of workers.
+ */
+
+public class AdaptiveSimulation {
+
+    public static final double DEFAULT_WIDTH = 0.1;
+    public static final int DEFAULT_MAX_RUNS = 10_000;
+    // 95% confidence
+    public static final double Z = 1.96;
+
+    private static final int FIRST_ROUND = 16;
+
+    private final Army attacker, defender;
+    private final Terrain terrain;
+    private final double width;
+    private final int maxRuns;
+    private final int parallelism;
+    private final long seed;
+    private boolean compiled = false;
+
+    /**
+     * Constructs an AdaptiveSimulation with the default width and maximum number of runs.
+     *
+     * @param attacker attacking army
+     * @param defender defending army
+     * @param terrain  terrain of the battle, may be null
+     */
+
+    public AdaptiveSimulation(Army attacker, Army defender, Terrain terrain) {
+        this(attacker, defender, terrain, DEFAULT_WIDTH, DEFAULT_MAX_RUNS);
+    }
+
+    /**
+     * Constructs an AdaptiveSimulation that uses every available processor.
+     *
+     * @param attacker attacking army
+     * @param defender defending army
+     * @param terrain  terrain of the battle, may be null
+     * @param width    target width of the interval, between 0 and 1
+     * @param maxRuns  maximum number of runs, must be greater than 0
+     * @throws IllegalArgumentException if the width or maxRuns is invalid
+     */
+
+    public AdaptiveSimulation(Army attacker, Army defender, Terrain terrain, double width, int maxRuns)
+            throws IllegalArgumentException {
+        this(attacker, defender, terrain, width, maxRuns, Runtime.getRuntime().availableProcessors(),
+                new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructs a reproducible AdaptiveSimulation with a given number of worker threads.
+     *
+     * @param attacker    attacking army
+     * @param defender    defending army
+     * @param terrain     terrain of the battle, may be null
+     * @param width       target width of the interval, between 0 and 1
+     * @param maxRuns     maximum number of runs, must be greater than 0
+     * @param parallelism number of worker threads, must be greater than 0
+     * @param seed        seed of the simulation
+     * @throws IllegalArgumentException if the width, maxRuns or parallelism is invalid
+     */
+
+    public AdaptiveSimulation(Army attacker, Army defender, Terrain terrain, double width, int maxRuns,
+                              int parallelism, long seed) throws IllegalArgumentException {
+        if (!(width > 0 && width < 1)) {
+            throw new IllegalArgumentException("Width must be between 0 and 1");
+        }
+        if (maxRuns < 1) {
+            throw new IllegalArgumentException("Runs must be greater than 0");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0");
+        }
+        this.attacker = attacker;
+        this.defender = defender;
+        this.terrain = terrain;
+        this.width = width;
+        this.maxRuns = maxRuns;
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+
+    /**
+     * Simulates rounds on the shared pool of the parallelism until the interval of the win rate is narrow enough. The
+     * number of runs that were used is given by BatchResult.getRuns.
+     *
+     * @return the aggregated result of every round
+     * @throws IllegalStateException    if one of the armies has no units
+     * @throws IllegalArgumentException if the armies can not be compiled, when compiled is set
+     */
+
+    public BatchResult run() throws IllegalStateException, IllegalArgumentException {
+        return run(BatchSimulation.sharedPool(parallelism));
+    }
+
+    /**
+     * Simulates rounds on a given pool until the interval of the win rate is narrow enough.
+     *
+     * @param pool the pool every round is simulated on
+     * @return the aggregated result of every round
+     * @throws IllegalStateException    if one of the armies has no units
+     * @throws IllegalArgumentException if the armies can not be compiled, when compiled is set
+     */
+
+    public BatchResult run(ForkJoinPool pool) throws IllegalStateException, IllegalArgumentException {
+        BatchSimulation simulation = new BatchSimulation(attacker, defender, terrain, maxRuns, parallelism, seed);
+        simulation.setCompiled(compiled);
+
+        BatchResult result = new BatchResult();
+        int size = Math.min(FIRST_ROUND, maxRuns);
+
+        while (true) {
+            int done = result.getRuns();
+            result.merge(simulation.run(pool, done, done + size));
+
+            if (isNarrowEnough(result) || result.getRuns() >= maxRuns) {
+                return result;
+            }
+
+            // doubles the total number of runs
+            size = Math.min(result.getRuns(), maxRuns - result.getRuns());
+        }
+    }
+
+    /**
+     * Checks if the interval of a result is narrower than the target width.
+     *
+     * @param result the result
+     * @return true if no more runs are needed
+     */
+
+    public boolean isNarrowEnough(BatchResult result) {
+        return result.getWinRateUpperBound(Z) - result.getWinRateLowerBound(Z) <= width;
+    }
+
+    /**
+     * Choose whether the runs should be simulated by a CompiledBattle.
+     *
+     * @param compiled true to use a CompiledBattle, false to use a Battle
+     */
+
+    public void setCompiled(boolean compiled) {
+        this.compiled = compiled;
+    }
+
+    /**
+     * Get the target width of the interval.
+     *
+     * @return width
+     */
+
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the maximum number of runs.
+     *
+     * @return maximum runs
+     */
+
+    public int getMaxRuns() {
+        return maxRuns;
+    }
+}
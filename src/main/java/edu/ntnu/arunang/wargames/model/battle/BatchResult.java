@@ -0,0 +1,316 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The aggregated outcome of many independent simulations of the same matchup. It stores how many runs each army won,
+ * the total number of attacks and how many units survived in each run.
+ * <p>
+ * The survivor distributions maps a number of surviving units to the number of runs that ended with that many
+ * survivors. An army that lost a run has 0 survivors.
+ * <p>
+ * Results are collected per worker and merged afterwards, so the class is not thread safe.
+ */
+
+public class BatchResult {
+
+    private int runs = 0;
+    private int attackerWins = 0;
+    private int defenderWins = 0;
+    private long totalAttacks = 0;
+    private final TreeMap<Integer, Integer> attackerSurvivors = new TreeMap<>();
+    private final TreeMap<Integer, Integer> defenderSurvivors = new TreeMap<>();
+
+    /**
+     * Constructs an empty result. Results are only created by the simulations in this package.
+     */
+
+    BatchResult() {
+    }
+
+    /**
+     * Constructs a result from stored totals, for example when a result is read from a file.
+     *
+     * @param attackerWins      runs won by the attacker
+     * @param defenderWins      runs won by the defender
+     * @param totalAttacks      sum of the attacks of every run
+     * @param attackerSurvivors surviving attacker units mapped to number of runs
+     * @param defenderSurvivors surviving defender units mapped to number of runs
+     * @throws IllegalArgumentException if a number is negative, or the distributions do not count every run
+     */
+
+    public BatchResult(int attackerWins, int defenderWins, long totalAttacks, Map<Integer, Integer> attackerSurvivors,
+                       Map<Integer, Integer> defenderSurvivors) throws IllegalArgumentException {
+        if (attackerWins < 0 || defenderWins < 0 || totalAttacks < 0) {
+            throw new IllegalArgumentException("The totals can not be negative");
+        }
+
+        this.attackerWins = attackerWins;
+        this.defenderWins = defenderWins;
+        this.runs = attackerWins + defenderWins;
+        this.totalAttacks = totalAttacks;
+        this.attackerSurvivors.putAll(attackerSurvivors);
+        this.defenderSurvivors.putAll(defenderSurvivors);
+
+        if (count(this.attackerSurvivors) != runs || count(this.defenderSurvivors) != runs) {
+            throw new IllegalArgumentException("The survivor distributions must count every run");
+        }
+    }
+
+    /**
+     * Helper method for counting the runs of a distribution.
+     *
+     * @param distribution survivors mapped to number of runs
+     * @return number of runs
+     * @throws IllegalArgumentException if a key or count is negative
+     */
+
+    private static long count(Map<Integer, Integer> distribution) throws IllegalArgumentException {
+        long count = 0;
+        for (Map.Entry<Integer, Integer> entry : distribution.entrySet()) {
+            if (entry.getKey() < 0 || entry.getValue() < 0) {
+                throw new IllegalArgumentException("The survivor distributions can not be negative");
+            }
+            count += entry.getValue();
+        }
+        return count;
+    }
+
+    /**
+     * Adds the outcome of a finished battle to the result.
+     *
+     * @param battle battle that has been simulated
+     */
+
+    void add(Battle battle) {
+        add(battle.getWinner() == battle.getAttacker(), battle.getNumOfAttacks(), battle.getAttacker().size(),
+                battle.getDefender().size());
+    }
+
+    /**
+     * Adds the outcome of a finished compiled battle to the result.
+     *
+     * @param battle battle that has been simulated
+     */
+
+    void add(CompiledBattle battle) {
+        add(battle.getWinner() == battle.getAttacker(), battle.getNumOfAttacks(), battle.getAttacker().size(),
+                battle.getDefender().size());
+    }
+
+    /**
+     * Adds the outcome of a run to the result.
+     *
+     * @param attackerWon  true if the attacker won the run
+     * @param numOfAttacks number of attacks in the run
+     * @param attackerSize surviving attacker units
+     * @param defenderSize surviving defender units
+     */
+
+    private void add(boolean attackerWon, int numOfAttacks, int attackerSize, int defenderSize) {
+        if (attackerWon) {
+            attackerWins++;
+        } else {
+            defenderWins++;
+        }
+
+        runs++;
+        totalAttacks += numOfAttacks;
+        attackerSurvivors.merge(attackerSize, 1, Integer::sum);
+        defenderSurvivors.merge(defenderSize, 1, Integer::sum);
+    }
+
+    /**
+     * Merges another result into this one.
+     *
+     * @param other result that is merged
+     * @return this result
+     */
+
+    BatchResult merge(BatchResult other) {
+        runs += other.runs;
+        attackerWins += other.attackerWins;
+        defenderWins += other.defenderWins;
+        totalAttacks += other.totalAttacks;
+        other.attackerSurvivors.forEach((key, value) -> attackerSurvivors.merge(key, value, Integer::sum));
+        other.defenderSurvivors.forEach((key, value) -> defenderSurvivors.merge(key, value, Integer::sum));
+        return this;
+    }
+
+    /**
+     * Get the number of simulated runs.
+     *
+     * @return number of runs
+     */
+
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Get the number of runs won by the attacker.
+     *
+     * @return attacker wins
+     */
+
+    public int getAttackerWins() {
+        return attackerWins;
+    }
+
+    /**
+     * Get the number of runs won by the defender.
+     *
+     * @return defender wins
+     */
+
+    public int getDefenderWins() {
+        return defenderWins;
+    }
+
+    /**
+     * Get the share of the runs that were won by the attacker.
+     *
+     * @return win rate between 0 and 1, or 0 if no runs has been made
+     */
+
+    public double getAttackerWinRate() {
+        return runs == 0 ? 0 : (double) attackerWins / runs;
+    }
+
+    /**
+     * Get the lower bound of the Wilson score interval of the attacker win rate. The interval holds the true win rate
+     * with the confidence given by z, for example 1.96 for 95%.
+     *
+     * @param z number of standard deviations
+     * @return lower bound between 0 and 1, or 0 if no runs has been made
+     */
+
+    public double getWinRateLowerBound(double z) {
+        return runs == 0 ? 0 : wilsonCenter(z) - wilsonHalfWidth(z);
+    }
+
+    /**
+     * Get the upper bound of the Wilson score interval of the attacker win rate.
+     *
+     * @param z number of standard deviations
+     * @return upper bound between 0 and 1, or 1 if no runs has been made
+     */
+
+    public double getWinRateUpperBound(double z) {
+        return runs == 0 ? 1 : wilsonCenter(z) + wilsonHalfWidth(z);
+    }
+
+    /**
+     * Helper method for the center of the Wilson score interval.
+     *
+     * @param z number of standard deviations
+     * @return center of the interval
+     */
+
+    private double wilsonCenter(double z) {
+        double p = getAttackerWinRate();
+        return (p + z * z / (2.0 * runs)) / (1 + z * z / runs);
+    }
+
+    /**
+     * Helper method for half the width of the Wilson score interval. Unlike the normal interval, it does not shrink to
+     * nothing when every run is won by the same army.
+     *
+     * @param z number of standard deviations
+     * @return half width of the interval
+     */
+
+    private double wilsonHalfWidth(double z) {
+        double p = getAttackerWinRate();
+        return z / (1 + z * z / runs) * Math.sqrt(p * (1 - p) / runs + z * z / (4.0 * runs * runs));
+    }
+
+    /**
+     * Get the sum of the attacks of every run.
+     *
+     * @return total attacks
+     */
+
+    public long getTotalAttacks() {
+        return totalAttacks;
+    }
+
+    /**
+     * Get the average number of attacks needed to finish a run.
+     *
+     * @return mean attack count, or 0 if no runs has been made
+     */
+
+    public double getMeanAttacks() {
+        return runs == 0 ? 0 : (double) totalAttacks / runs;
+    }
+
+    /**
+     * Get the average number of surviving attacker units, counting lost runs as 0.
+     *
+     * @return mean survivors of the attacker
+     */
+
+    public double getMeanAttackerSurvivors() {
+        return mean(attackerSurvivors);
+    }
+
+    /**
+     * Get the average number of surviving defender units, counting lost runs as 0.
+     *
+     * @return mean survivors of the defender
+     */
+
+    public double getMeanDefenderSurvivors() {
+        return mean(defenderSurvivors);
+    }
+
+    /**
+     * Get the distribution of surviving attacker units. The key is the number of survivors, and the value is the number
+     * of runs.
+     *
+     * @return read-only sorted distribution
+     */
+
+    public SortedMap<Integer, Integer> getAttackerSurvivors() {
+        return Collections.unmodifiableSortedMap(attackerSurvivors);
+    }
+
+    /**
+     * Get the distribution of surviving defender units. The key is the number of survivors, and the value is the number
+     * of runs.
+     *
+     * @return read-only sorted distribution
+     */
+
+    public SortedMap<Integer, Integer> getDefenderSurvivors() {
+        return Collections.unmodifiableSortedMap(defenderSurvivors);
+    }
+
+    /**
+     * Helper method for calculating the mean of a distribution.
+     *
+     * @param distribution survivors mapped to number of runs
+     * @return the mean
+     */
+
+    private double mean(SortedMap<Integer, Integer> distribution) {
+        if (runs == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (Map.Entry<Integer, Integer> entry : distribution.entrySet()) {
+            sum += (long) entry.getKey() * entry.getValue();
+        }
+        return (double) sum / runs;
+    }
+
+    @Override
+    public String toString() {
+        return "Runs: " + runs + " Attacker wins: " + attackerWins + " Defender wins: " + defenderWins
+                + " Mean attacks: " + getMeanAttacks();
+    }
+}
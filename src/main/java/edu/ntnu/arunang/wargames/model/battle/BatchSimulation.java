@@ -0,0 +1,277 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.util.Hashing;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A BatchSimulation runs the same Battle many times without a gui, and aggregates the outcome of every run into a
+ * BatchResult. It is used for estimating the win rate of a matchup.
+ * <p>
+ * Every run simulates a copy of the original Battle, so the given armies are never changed. The runs are split into
+ * chunks that are simulated in parallel on a fork-join pool. Each chunk collects its own result, and the results are
+ * merged when the chunks are joined. No state is shared between the workers while simulating.
+ * <p>
+ * Every run gets its own random generator, seeded by a seed that is derived from the seed of the batch and the number
+ * of the run. A batch with a given seed therefore gives the same result no matter how the runs are split between the
+ * workers.
+ * <p>
+ * The runs can be simulated by a CompiledBattle instead of a Battle, which is faster and uses less memory on large
+ * armies.
+ * <p>
+ * The runs are simulated on a given pool, or on a pool that is shared by every batch with the same parallelism. The
+ * workers of a shared pool are daemon threads that stop when they have been idle for a while, so the pools are never
+ * shut down.
+ */
+
+public class BatchSimulation {
+
+    // number of runs a worker simulates before the range is no longer split
+    private static final int MIN_CHUNK_SIZE = 4;
+    // the increment used by SplittableRandom, spreads the seeds of the runs
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    // shared pools by parallelism, so a batch does not start and stop its own threads
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final Battle battle;
+    private final int runs;
+    private final int parallelism;
+    private final long seed;
+    private CompiledBattle compiledBattle = null;
+
+    /**
+     * Constructs a BatchSimulation that uses every available processor.
+     *
+     * @param attacker attacking army
+     * @param defender defending army
+     * @param terrain  terrain of the battle, may be null
+     * @param runs     number of simulations, must be greater than 0
+     * @throws IllegalArgumentException if runs is less than 1
+     */
+
+    public BatchSimulation(Army attacker, Army defender, Terrain terrain, int runs) throws IllegalArgumentException {
+        this(attacker, defender, terrain, runs, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a BatchSimulation with a given number of worker threads.
+     *
+     * @param attacker    attacking army
+     * @param defender    defending army
+     * @param terrain     terrain of the battle, may be null
+     * @param runs        number of simulations, must be greater than 0
+     * @param parallelism number of worker threads, must be greater than 0
+     * @throws IllegalArgumentException if runs or parallelism is less than 1
+     */
+
+    public BatchSimulation(Army attacker, Army defender, Terrain terrain, int runs, int parallelism)
+            throws IllegalArgumentException {
+        this(attacker, defender, terrain, runs, parallelism, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructs a reproducible BatchSimulation. Two batches with the same armies, runs and seed gives the same result.
+     *
+     * @param attacker    attacking army
+     * @param defender    defending army
+     * @param terrain     terrain of the battle, may be null
+     * @param runs        number of simulations, must be greater than 0
+     * @param parallelism number of worker threads, must be greater than 0
+     * @param seed        seed of the batch
+     * @throws IllegalArgumentException if runs or parallelism is less than 1
+     */
+
+    public BatchSimulation(Army attacker, Army defender, Terrain terrain, int runs, int parallelism, long seed)
+            throws IllegalArgumentException {
+        if (runs < 1) {
+            throw new IllegalArgumentException("Runs must be greater than 0");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0");
+        }
+        this.battle = new Battle(attacker.copy(), defender.copy(), terrain);
+        this.runs = runs;
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+
+    /**
+     * Simulates every run on the shared pool of the parallelism, and aggregates the outcomes. The method blocks until
+     * all the runs are finished.
+     *
+     * @return the aggregated result
+     * @throws IllegalStateException if one of the armies has no units
+     */
+
+    public BatchResult run() throws IllegalStateException {
+        return run(sharedPool(parallelism));
+    }
+
+    /**
+     * Simulates every run on a given pool, and aggregates the outcomes. The runs are split for the parallelism of the
+     * pool. The method blocks until all the runs are finished.
+     *
+     * @param pool the pool the runs are simulated on
+     * @return the aggregated result
+     * @throws IllegalStateException if one of the armies has no units
+     */
+
+    public BatchResult run(ForkJoinPool pool) throws IllegalStateException {
+        return run(pool, 0, runs);
+    }
+
+    /**
+     * Simulates a range of the runs on a given pool, and aggregates the outcomes. Every run gets the same seed as it
+     * does when the whole batch is run, so a batch can be simulated in several parts without copying the armies again.
+     *
+     * @param pool the pool the runs are simulated on
+     * @param from first run
+     * @param to   last run, exclusive
+     * @return the aggregated result of the runs in the range
+     * @throws IllegalStateException     if one of the armies has no units
+     * @throws IndexOutOfBoundsException if the range is empty or not within the runs of the batch
+     */
+
+    BatchResult run(ForkJoinPool pool, int from, int to) throws IllegalStateException, IndexOutOfBoundsException {
+        if (from < 0 || to > runs || from >= to) {
+            throw new IndexOutOfBoundsException(String.format("Runs %d to %d are not in the batch", from, to));
+        }
+        // fail early, rather than in every worker
+        battle.prepareBattle();
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (to - from) / (pool.getParallelism() * 8));
+        return pool.invoke(new BatchTask(from, to, chunkSize));
+    }
+
+    /**
+     * Get the pool that is shared by every batch with a given parallelism. The pool is created the first time it is
+     * asked for.
+     *
+     * @param parallelism number of worker threads, must be greater than 0
+     * @return the shared pool
+     * @throws IllegalArgumentException if parallelism is less than 1
+     */
+
+    static ForkJoinPool sharedPool(int parallelism) throws IllegalArgumentException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0");
+        }
+        return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    /**
+     * Choose whether the runs should be simulated by a CompiledBattle. The armies are compiled once, and every run
+     * simulates a copy of the compiled armies.
+     *
+     * @param compiled true to use a CompiledBattle, false to use a Battle
+     * @throws IllegalArgumentException if the armies has Units that can not be compiled
+     */
+
+    public void setCompiled(boolean compiled) throws IllegalArgumentException {
+        if (!compiled) {
+            compiledBattle = null;
+            return;
+        }
+        compiledBattle = new CompiledBattle(new CompiledArmy(battle.getAttacker()),
+                new CompiledArmy(battle.getDefender()), battle.getTerrain(), new SplittableRandom(seed));
+    }
+
+    /**
+     * Get the number of runs that are simulated.
+     *
+     * @return number of runs
+     */
+
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Get the seed of the batch.
+     *
+     * @return seed
+     */
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Derives the seed of a run from the seed of the batch. The seed is mixed, so that the runs do not get overlapping
+     * random sequences.
+     *
+     * @param seed seed of the batch
+     * @param run  number of the run
+     * @return seed of the run
+     */
+
+    static long runSeed(long seed, long run) {
+        return Hashing.mix(seed + (run + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Get the battle every run is copied from.
+     *
+     * @return original battle
+     */
+
+    public Battle getBattle() {
+        return battle;
+    }
+
+    /**
+     * A task that simulates a range of runs. The range is split in two until it is small enough to be simulated by one
+     * worker.
+     */
+
+    private class BatchTask extends RecursiveTask<BatchResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final int chunkSize;
+
+        /**
+         * Constructs the task for the runs from (inclusive) to (exclusive).
+         *
+         * @param from      first run
+         * @param to        last run, exclusive
+         * @param chunkSize number of runs a worker simulates without splitting the range
+         */
+
+        BatchTask(int from, int to, int chunkSize) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected BatchResult compute() {
+            if (to - from <= chunkSize) {
+                BatchResult result = new BatchResult();
+                for (int i = from; i < to; i++) {
+                    if (compiledBattle != null) {
+                        CompiledBattle copy = compiledBattle.copy(runSeed(seed, i));
+                        copy.simulate();
+                        result.add(copy);
+                    } else {
+                        Battle copy = battle.copy(runSeed(seed, i));
+                        copy.simulate(0);
+                        result.add(copy);
+                    }
+                }
+                return result;
+            }
+
+            int middle = (from + to) >>> 1;
+            BatchTask left = new BatchTask(from, middle, chunkSize);
+            left.fork();
+            BatchResult right = new BatchTask(middle, to, chunkSize).compute();
+            return left.join().merge(right);
+        }
+    }
+}
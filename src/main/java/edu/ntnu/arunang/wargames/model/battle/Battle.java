@@ -1,233 +1,551 @@
-package edu.ntnu.arunang.wargames.model.battle;
-
-import edu.ntnu.arunang.wargames.event.EventType;
-import edu.ntnu.arunang.wargames.event.Subject;
-import edu.ntnu.arunang.wargames.model.army.Army;
-import edu.ntnu.arunang.wargames.model.unit.Unit;
-
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.LockSupport;
-
-/**
- * A Battle is a battlefield where two armies can fight. It stores an attacking Army and a defending Army.
- * <p>
- * The battle may also hold a terrain for simulation on terrain.
- * <p>
- * The class extends subject for notifying observers when simulating.
- */
-
-public class Battle extends Subject {
-    private boolean exit = false;
-
-    private final Army attacker, defender;
-
-    private Terrain terrain;
-
-    private boolean isAttackerTurn = true;
-
-    private int numOfAttacks = 0;
-
-    /**
-     * Constructs a Battle with a defending army, and an attacking Army.
-     *
-     * @param attacker attacking Army.
-     * @param defender defending Army.
-     * @param terrain  terrain of the battle
-     */
-
-    public Battle(Army attacker, Army defender, Terrain terrain) {
-        this.attacker = attacker;
-        this.defender = defender;
-        this.terrain = terrain;
-    }
-
-    /**
-     * Copy constructor used to create an identical new Battle.
-     *
-     * @return newly created battle.
-     */
-
-    public Battle copy() {
-        return new Battle(this.attacker.copy(), this.defender.copy(), this.terrain);
-    }
-
-
-    /**
-     * This simulates a fight. A random Unit from each army will attack a random Unit of the opposing Army. This happens
-     * in a loop unit there is an army that has no units left to attack with. The simulation happens on a terrain.
-     * <p>
-     * When an attack has been done, the thread will be slept by 'delay' milliseconds. That can be used for slower
-     * simulations in gui.
-     * <p>
-     * The simulation happens on a terrain. If the terrain is not set, the simulation will simulate without a terrain.
-     *
-     * @param delay the delay on each attack
-     * @return the thread the simulation is running
-     * @throws IllegalStateException    if the armies has no Units.or the terrain is not set
-     * @throws IllegalArgumentException if the delay is less than 0
-     */
-
-    public Army simulate(int delay) throws IllegalStateException, IllegalArgumentException {
-        //check if delay is less than 0
-        if (delay < 0) {
-            throw new IllegalArgumentException("Delay must be positive");
-        }
-        // set exit to false
-        prepareBattle();
-        exit = false;
-
-        while (attacker.hasUnits() && defender.hasUnits() && !exit) {
-            attack();
-
-            // sleep the thread
-            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delay));
-        }
-
-        // notify observers if the simulation finished without interruptions
-        if (!exit) {
-            notifyObservers(EventType.FINISH);
-        }
-
-        return getWinner();
-    }
-
-    /**
-     * Helper method for attacking once. Random unit from attacker army attacks a random defender unit. The armies get
-     * swapped. If the attack is not in a terrain, null can be passed.
-     */
-
-    private void attack() {
-        //Check the turn
-        Unit attackerUnit;
-        Unit defenderUnit;
-        if (isAttackerTurn) {
-            attackerUnit = attacker.getRandom();
-            defenderUnit = defender.getRandom();
-        } else {
-            attackerUnit = defender.getRandom();
-            defenderUnit = attacker.getRandom();
-        }
-
-        // check if the simulation is in a terrain
-        if (terrain == null) {
-            attackerUnit.attack(defenderUnit);
-        } else {
-            attackerUnit.attack(defenderUnit, terrain);
-        }
-
-        // remove the unit if it is dead
-        if (defenderUnit.isDead()) {
-            defender.remove(defenderUnit);
-        }
-
-        numOfAttacks++;
-
-        // swap attacker and defender
-        isAttackerTurn = !isAttackerTurn;
-
-        // notify observers
-        notifyObservers(EventType.UPDATE);
-    }
-
-    /**
-     * Checks if the armies are ready for simulation
-     *
-     * @throws IllegalStateException if the armies has no Units.
-     */
-
-    public void prepareBattle() throws IllegalStateException {
-        // check armies and terrain
-        attacker.removeAllDeadUnits();
-        defender.removeAllDeadUnits();
-
-        if (!attacker.hasUnits() || !defender.hasUnits()) {
-            throw new IllegalStateException("All armies must have at least one unit.");
-        }
-    }
-
-    /**
-     * Stops the simulation.
-     */
-
-    public void stopSimulation() {
-        exit = true;
-    }
-
-    /**
-     * Get attacker army
-     *
-     * @return army
-     */
-
-    public Army getAttacker() {
-        return attacker;
-    }
-
-    /**
-     * Get defender army
-     *
-     * @return defender army
-     */
-
-    public Army getDefender() {
-        return defender;
-    }
-
-    /**
-     * Get the losing army. Army is null if the simulation is not finisher
-     *
-     * @return losing army
-     */
-
-    public Army getLoser() {
-        return getWinner() == attacker ? defender : attacker;
-    }
-
-    /**
-     * Get the winning army. Army is null if the simulation is not finished.
-     *
-     * @return winning army
-     */
-
-    public Army getWinner() {
-        if (attacker.hasUnits() && defender.hasUnits()) {
-            return null;
-        }
-        return attacker.hasUnits() ? attacker : defender;
-    }
-
-    /**
-     * Get the terrain of where the battle is happening.
-     *
-     * @return terrain used for simulation
-     */
-
-    public Terrain getTerrain() {
-        return terrain;
-    }
-
-    /**
-     * Set the terrain.
-     *
-     * @param terrain new terrain.
-     */
-
-    public void setTerrain(Terrain terrain) {
-        this.terrain = terrain;
-    }
-
-    /**
-     * Get the number of attacks in the battle. If noe simulations have been run numOfAttacks will be 0
-     *
-     * @return number of attacks
-     */
-
-    public int getNumOfAttacks() {
-        return numOfAttacks;
-    }
-
-    @Override
-    public String toString() {
-        return "Battle" + " attacker: " + attacker + " defender: " + defender;
-    }
-}
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.event.EventType;
+import edu.ntnu.arunang.wargames.event.Subject;
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.Unit;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+
+/**
+ * A Battle is a battlefield where two armies can fight. It stores an attacking Army and a defending Army.
+ * <p>
+ * The battle may also hold a terrain for simulation on terrain.
+ * <p>
+ * The class extends subject for notifying observers when simulating.
+ * <p>
+ * The Units that fight are picked by the random generator of the battle. A battle that is constructed with a seed will
+ * therefore always be simulated the same way. Copies of a battle get a generator that is split from the original, so
+ * copies can be simulated on different threads without sharing a generator.
+ * <p>
+ * A running simulation is controlled from other threads by cancel, pause, resume and step. A paused simulation parks
+ * its thread until it is resumed or stepped, so paused battles use no CPU.
+ * <p>
+ * A battle can publish a BattleSnapshot after every turn. The snapshot is published through a volatile field, so a gui
+ * can read the latest state on its own schedule, and the speed of the simulation does not depend on how often the gui
+ * repaints. Publishing is turned off by default, so batches of battles do not make a snapshot per turn. The counts of
+ * the units are published the same way, but only when units have been added or removed, and at most once every
+ * UNIT_COUNTS_INTERVAL milliseconds, which is how often a gui repaints them. They are always published before the
+ * battle stops or waits for a step, so a paused or finished battle shows the counts of its last turn.
+ */
+
+public class Battle extends Subject {
+    private static final long RUNNING = -1;
+    // milliseconds between the unit counts that are published while units are added or removed
+    public static final long UNIT_COUNTS_INTERVAL = 40;
+
+    private volatile boolean cancelled = false;
+    // RUNNING, or the number of turns that may be simulated while the battle is paused. The pause and the steps are
+    // one value, so pause, resume, step and the simulation can not overwrite each other
+    private final AtomicLong control = new AtomicLong(RUNNING);
+    // wakes the simulation when it may continue, set by whoever is simulating the battle
+    private volatile Runnable wakeUp = null;
+    // the latest published state, null if snapshots are not published
+    private volatile BattleSnapshot snapshot = null;
+    private volatile boolean publishSnapshots = false;
+    // the latest published unit counts, null if snapshots are not published
+    private volatile BattleSnapshot.UnitCounts unitCounts = null;
+    // held by the SimulationScheduler while it runs turns, so two tasks never simulate the battle at once
+    private final ReentrantLock turnLock = new ReentrantLock();
+
+    private final Army attacker, defender;
+
+    private Terrain terrain;
+
+    private boolean isAttackerTurn = true;
+
+    private int numOfAttacks = 0;
+
+    private final RandomGenerator.SplittableGenerator random;
+
+    /**
+     * Constructs a Battle with a defending army, and an attacking Army.
+     *
+     * @param attacker attacking Army.
+     * @param defender defending Army.
+     * @param terrain  terrain of the battle
+     */
+
+    public Battle(Army attacker, Army defender, Terrain terrain) {
+        this(attacker, defender, terrain, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a Battle with a seed. Simulating two battles with the same armies and seed gives the same result.
+     *
+     * @param attacker attacking Army.
+     * @param defender defending Army.
+     * @param terrain  terrain of the battle
+     * @param seed     seed of the random generator
+     */
+
+    public Battle(Army attacker, Army defender, Terrain terrain, long seed) {
+        this(attacker, defender, terrain, new SplittableRandom(seed));
+    }
+
+    /**
+     * Constructs a Battle with a given random generator. The generator must not be used by other threads while
+     * simulating.
+     *
+     * @param attacker attacking Army.
+     * @param defender defending Army.
+     * @param terrain  terrain of the battle
+     * @param random   generator used to pick the Units that fight
+     */
+
+    public Battle(Army attacker, Army defender, Terrain terrain, RandomGenerator.SplittableGenerator random) {
+        this.attacker = attacker;
+        this.defender = defender;
+        this.terrain = terrain;
+        this.random = random;
+    }
+
+    /**
+     * Copy constructor used to create an identical new Battle. The copy gets a generator that is split from the
+     * generator of this battle. Splitting changes the generator of this battle, so copies should be made from one
+     * thread.
+     *
+     * @return newly created battle.
+     */
+
+    public Battle copy() {
+        return copy(random.split());
+    }
+
+    /**
+     * Copy constructor used to create an identical new Battle with a given seed. Does not change this battle, and can
+     * therefore be called from several threads at once.
+     *
+     * @param seed seed of the random generator of the copy
+     * @return newly created battle.
+     */
+
+    public Battle copy(long seed) {
+        return copy(new SplittableRandom(seed));
+    }
+
+    /**
+     * Helper method for copying the battle with a given generator.
+     *
+     * @param random generator of the copy
+     * @return newly created battle.
+     */
+
+    private Battle copy(RandomGenerator.SplittableGenerator random) {
+        return new Battle(this.attacker.copy(), this.defender.copy(), this.terrain, random);
+    }
+
+
+    /**
+     * This simulates a fight. A random Unit from each army will attack a random Unit of the opposing Army. This happens
+     * in a loop unit there is an army that has no units left to attack with. The simulation happens on a terrain.
+     * <p>
+     * When an attack has been done, the thread will be slept by 'delay' milliseconds. That can be used for slower
+     * simulations in gui.
+     * <p>
+     * The simulation happens on a terrain. If the terrain is not set, the simulation will simulate without a terrain.
+     * <p>
+     * The simulation returns when it is cancelled, also if it was cancelled before it started. The battle keeps its
+     * state, and can be simulated again to continue it after resetCancel. While it is paused the thread is parked.
+     *
+     * @param delay the delay on each attack
+     * @return the thread the simulation is running
+     * @throws IllegalStateException    if the armies has no Units.or the terrain is not set
+     * @throws IllegalArgumentException if the delay is less than 0
+     */
+
+    public Army simulate(int delay) throws IllegalStateException, IllegalArgumentException {
+        //check if delay is less than 0
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay must be positive");
+        }
+        prepareBattle();
+
+        Thread thread = Thread.currentThread();
+        wakeUp = () -> LockSupport.unpark(thread);
+
+        try {
+            while (attacker.hasUnits() && defender.hasUnits() && !cancelled) {
+                if (!acquireTurn()) {
+                    // resume, step and cancel unparks the thread
+                    LockSupport.park(this);
+                    continue;
+                }
+                attack();
+
+                // sleep the thread
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delay));
+            }
+        } finally {
+            wakeUp = null;
+        }
+
+        // notify observers if the simulation finished without interruptions
+        if (!cancelled) {
+            notifyObservers(EventType.FINISH);
+        }
+
+        return getWinner();
+    }
+
+    /**
+     * Cancels the simulation. The simulation stops after the attack that is running, and the battle keeps its state.
+     */
+
+    public void cancel() {
+        cancelled = true;
+        wake();
+    }
+
+    /**
+     * Clears the cancel flag of a cancelled battle, so it can be simulated again to continue it. Simulating does not
+     * clear the flag by itself, so a cancel that comes before the simulation has started is not lost.
+     */
+
+    public void resetCancel() {
+        cancelled = false;
+    }
+
+    /**
+     * Pauses the simulation after the attack that is running.
+     */
+
+    public void pause() {
+        control.set(0);
+    }
+
+    /**
+     * Resumes a paused simulation.
+     */
+
+    public void resume() {
+        control.set(RUNNING);
+        wake();
+    }
+
+    /**
+     * Pauses the simulation after a number of attacks. If the simulation is paused, it simulates the given number of
+     * attacks and pauses again.
+     *
+     * @param turns number of attacks, must be greater than 0
+     * @throws IllegalArgumentException if turns is less than 1
+     */
+
+    public void step(int turns) throws IllegalArgumentException {
+        if (turns < 1) {
+            throw new IllegalArgumentException("Turns must be greater than 0");
+        }
+        control.getAndUpdate(left -> left == RUNNING ? turns : left + turns);
+        wake();
+    }
+
+    /**
+     * Checks if the simulation is paused.
+     *
+     * @return true if paused
+     */
+
+    public boolean isPaused() {
+        return control.get() != RUNNING;
+    }
+
+    /**
+     * Checks if the simulation was cancelled.
+     *
+     * @return true if cancelled
+     */
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Helper method for waking the simulation, so it checks if it may continue.
+     */
+
+    private void wake() {
+        Runnable runnable = wakeUp;
+        if (runnable != null) {
+            runnable.run();
+        }
+    }
+
+    /**
+     * Checks if the next turn may be simulated, and uses one of the steps if the battle is paused. Called by the thread
+     * that simulates the battle, which publishes the unit counts of the last turn if it may not continue.
+     *
+     * @return false if the battle is cancelled, or paused with no steps left
+     */
+
+    boolean acquireTurn() {
+        if (!cancelled && control.getAndUpdate(left -> left > 0 ? left - 1 : left) != 0) {
+            return true;
+        }
+
+        // the battle stops or waits, so the counts of the last turn are published
+        if (publishSnapshots) {
+            publishUnitCounts(true);
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the simulation is waiting for nothing, without using a step.
+     *
+     * @return true if acquireTurn would give a turn or the battle is cancelled
+     */
+
+    boolean canContinue() {
+        return cancelled || control.get() != 0;
+    }
+
+    /**
+     * Prepares the battle for being simulated turn by turn. The cancel flag is kept, so a battle that is cancelled
+     * before its first turn is not simulated.
+     *
+     * @param wakeUp run when the simulation is resumed, stepped or cancelled
+     * @throws IllegalStateException if the armies has no Units.
+     */
+
+    void start(Runnable wakeUp) throws IllegalStateException {
+        prepareBattle();
+        this.wakeUp = wakeUp;
+    }
+
+    /**
+     * Get the lock that is held while the SimulationScheduler runs turns of the battle. The battle is never locked by
+     * the simulation itself, so other threads read the snapshots instead.
+     *
+     * @return the lock
+     */
+
+    ReentrantLock getTurnLock() {
+        return turnLock;
+    }
+
+    /**
+     * Attacks once, like one turn of simulate. The observers are notified with FINISH when the battle is over. Used by
+     * the SimulationScheduler, which runs the turns of a battle as separate tasks. The battle must be prepared first.
+     *
+     * @return true if the battle is not finished
+     */
+
+    boolean simulateTurn() {
+        if (attacker.hasUnits() && defender.hasUnits()) {
+            attack();
+        }
+
+        if (attacker.hasUnits() && defender.hasUnits()) {
+            return true;
+        }
+
+        notifyObservers(EventType.FINISH);
+        return false;
+    }
+
+    /**
+     * Helper method for attacking once. Random unit from attacker army attacks a random defender unit. The armies get
+     * swapped. If the attack is not in a terrain, null can be passed.
+     */
+
+    private void attack() {
+        //Check the turn
+        Army attackingArmy = isAttackerTurn ? attacker : defender;
+        Army defendingArmy = isAttackerTurn ? defender : attacker;
+
+        Unit attackerUnit = attackingArmy.getRandom(random);
+        Unit defenderUnit = defendingArmy.getRandom(random);
+
+        // check if the simulation is in a terrain
+        if (terrain == null) {
+            attackerUnit.attack(defenderUnit);
+        } else {
+            attackerUnit.attack(defenderUnit, terrain);
+        }
+
+        // remove the unit if it is dead
+        if (defenderUnit.isDead()) {
+            defendingArmy.remove(defenderUnit);
+        }
+
+        numOfAttacks++;
+
+        // swap attacker and defender
+        isAttackerTurn = !isAttackerTurn;
+
+        if (publishSnapshots) {
+            snapshot = BattleSnapshot.of(this);
+            publishUnitCounts(!attacker.hasUnits() || !defender.hasUnits());
+        }
+
+        // notify observers
+        notifyObservers(EventType.UPDATE);
+    }
+
+    /**
+     * Checks if the armies are ready for simulation
+     *
+     * @throws IllegalStateException if the armies has no Units.
+     */
+
+    public void prepareBattle() throws IllegalStateException {
+        // check armies and terrain
+        attacker.removeAllDeadUnits();
+        defender.removeAllDeadUnits();
+
+        if (!attacker.hasUnits() || !defender.hasUnits()) {
+            throw new IllegalStateException("All armies must have at least one unit.");
+        }
+
+        if (publishSnapshots) {
+            snapshot = BattleSnapshot.of(this);
+            unitCounts = BattleSnapshot.UnitCounts.of(this, System.nanoTime());
+        }
+    }
+
+    /**
+     * Helper method for publishing the unit counts after a turn. The counts are only made if units have been added or
+     * removed since the last counts, and UNIT_COUNTS_INTERVAL has passed or the battle is about to stop.
+     *
+     * @param stopping true if the battle stops or waits after this turn
+     */
+
+    private void publishUnitCounts(boolean stopping) {
+        BattleSnapshot.UnitCounts counts = unitCounts;
+        if (counts != null && counts.isCurrent(this)) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (counts != null && !stopping && now - counts.time() < TimeUnit.MILLISECONDS.toNanos(UNIT_COUNTS_INTERVAL)) {
+            return;
+        }
+        unitCounts = BattleSnapshot.UnitCounts.of(this, now);
+    }
+
+    /**
+     * Choose whether a snapshot is published after every turn. When publishing is turned on, a snapshot of the current
+     * state is published right away, so it must be turned on before the battle is simulated, or between two turns.
+     *
+     * @param publish true to publish snapshots
+     */
+
+    public void setPublishSnapshots(boolean publish) {
+        publishSnapshots = publish;
+        snapshot = publish ? BattleSnapshot.of(this) : null;
+        unitCounts = publish ? BattleSnapshot.UnitCounts.of(this, System.nanoTime()) : null;
+    }
+
+    /**
+     * Get the latest published snapshot. Can be called from any thread, and never waits for the simulation.
+     *
+     * @return the snapshot, or null if snapshots are not published
+     */
+
+    public BattleSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the latest published unit counts. Can be called from any thread, and never waits for the simulation. The
+     * counts may be older than the latest snapshot, which is the case if their versions are not the units versions of
+     * the snapshot.
+     *
+     * @return the unit counts, or null if snapshots are not published
+     */
+
+    public BattleSnapshot.UnitCounts getUnitCounts() {
+        return unitCounts;
+    }
+
+    /**
+     * Stops the simulation. Same as cancel.
+     */
+
+    public void stopSimulation() {
+        cancel();
+    }
+
+    /**
+     * Get attacker army
+     *
+     * @return army
+     */
+
+    public Army getAttacker() {
+        return attacker;
+    }
+
+    /**
+     * Get defender army
+     *
+     * @return defender army
+     */
+
+    public Army getDefender() {
+        return defender;
+    }
+
+    /**
+     * Get the losing army. Army is null if the simulation is not finisher
+     *
+     * @return losing army
+     */
+
+    public Army getLoser() {
+        return getWinner() == attacker ? defender : attacker;
+    }
+
+    /**
+     * Get the winning army. Army is null if the simulation is not finished.
+     *
+     * @return winning army
+     */
+
+    public Army getWinner() {
+        if (attacker.hasUnits() && defender.hasUnits()) {
+            return null;
+        }
+        return attacker.hasUnits() ? attacker : defender;
+    }
+
+    /**
+     * Get the terrain of where the battle is happening.
+     *
+     * @return terrain used for simulation
+     */
+
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    /**
+     * Set the terrain.
+     *
+     * @param terrain new terrain.
+     */
+
+    public void setTerrain(Terrain terrain) {
+        this.terrain = terrain;
+    }
+
+    /**
+     * Get the number of attacks in the battle. If noe simulations have been run numOfAttacks will be 0
+     *
+     * @return number of attacks
+     */
+
+    public int getNumOfAttacks() {
+        return numOfAttacks;
+    }
+
+    @Override
+    public String toString() {
+        return "Battle" + " attacker: " + attacker + " defender: " + defender;
+    }
+}
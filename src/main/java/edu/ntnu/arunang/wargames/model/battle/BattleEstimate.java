@@ -0,0 +1,102 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+/**
+ * The expected outcome of a battle, as estimated by the BattleSolver. The estimate is either computed analytically or
+ * by simulating the battle many times.
+ */
+
+public class BattleEstimate {
+
+    private final double attackerWinProbability;
+    private final double expectedAttackerSurvivors;
+    private final double expectedDefenderSurvivors;
+    private final double expectedAttacks;
+    private final boolean analytical;
+
+    /**
+     * Constructs an estimate. Estimates are only created by the solver.
+     *
+     * @param attackerWinProbability    probability that the attacker wins
+     * @param expectedAttackerSurvivors expected number of attacking units left at the end
+     * @param expectedDefenderSurvivors expected number of defending units left at the end
+     * @param expectedAttacks           expected number of attacks in the battle
+     * @param analytical                true if the estimate was computed without simulating
+     */
+
+    BattleEstimate(double attackerWinProbability, double expectedAttackerSurvivors, double expectedDefenderSurvivors,
+                   double expectedAttacks, boolean analytical) {
+        this.attackerWinProbability = attackerWinProbability;
+        this.expectedAttackerSurvivors = expectedAttackerSurvivors;
+        this.expectedDefenderSurvivors = expectedDefenderSurvivors;
+        this.expectedAttacks = expectedAttacks;
+        this.analytical = analytical;
+    }
+
+    /**
+     * Constructs an estimate from the result of a batch simulation.
+     *
+     * @param result the result
+     */
+
+    BattleEstimate(BatchResult result) {
+        this(result.getAttackerWinRate(), result.getMeanAttackerSurvivors(), result.getMeanDefenderSurvivors(),
+                result.getMeanAttacks(), false);
+    }
+
+    /**
+     * Get the probability that the attacker wins.
+     *
+     * @return probability between 0 and 1
+     */
+
+    public double getAttackerWinProbability() {
+        return attackerWinProbability;
+    }
+
+    /**
+     * Get the expected number of attacking units that survive.
+     *
+     * @return expected survivors
+     */
+
+    public double getExpectedAttackerSurvivors() {
+        return expectedAttackerSurvivors;
+    }
+
+    /**
+     * Get the expected number of defending units that survive.
+     *
+     * @return expected survivors
+     */
+
+    public double getExpectedDefenderSurvivors() {
+        return expectedDefenderSurvivors;
+    }
+
+    /**
+     * Get the expected number of attacks in the battle.
+     *
+     * @return expected attacks
+     */
+
+    public double getExpectedAttacks() {
+        return expectedAttacks;
+    }
+
+    /**
+     * Checks if the estimate was computed analytically, rather than by simulating.
+     *
+     * @return true if analytical
+     */
+
+    public boolean isAnalytical() {
+        return analytical;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Attacker wins: %.1f%%, survivors: %.1f/%.1f, attacks: %.1f%s",
+                attackerWinProbability * 100, expectedAttackerSurvivors, expectedDefenderSurvivors, expectedAttacks,
+                analytical ? "" : " (simulated)");
+    }
+}
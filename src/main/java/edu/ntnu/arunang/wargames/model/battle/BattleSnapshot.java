@@ -0,0 +1,103 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.Unit;
+
+import java.util.Map;
+
+/**
+ * A BattleSnapshot is the state of a Battle between two turns. It is published by the battle after every turn, so a
+ * gui can read a consistent state from another thread without locking, however often or seldom it reads.
+ * <p>
+ * A snapshot only holds the totals of the armies, which the armies keep up to date, so it is taken in constant time.
+ * The counts of the units are published separately as UnitCounts, which are only made again when the units have
+ * changed, and not more often than a gui repaints them. The units versions of the totals tell whether the latest
+ * UnitCounts are up to date.
+ *
+ * @param numOfAttacks number of attacks when the snapshot was taken
+ * @param attacker     totals of the attacking army
+ * @param defender     totals of the defending army
+ * @param finished     true if one of the armies has no units left
+ */
+
+public record BattleSnapshot(int numOfAttacks, ArmyTotals attacker, ArmyTotals defender, boolean finished) {
+
+    /**
+     * Takes a snapshot of a battle. Must be called by the thread that simulates the battle, between two turns.
+     *
+     * @param battle the battle
+     * @return the snapshot
+     */
+
+    static BattleSnapshot of(Battle battle) {
+        ArmyTotals attacker = ArmyTotals.of(battle.getAttacker());
+        ArmyTotals defender = ArmyTotals.of(battle.getDefender());
+        return new BattleSnapshot(battle.getNumOfAttacks(), attacker, defender,
+                attacker.size() == 0 || defender.size() == 0);
+    }
+
+    /**
+     * The totals of an army in a snapshot.
+     *
+     * @param size         number of units
+     * @param healthPoints total healthpoints
+     * @param attackPoints total attackpoints
+     * @param armorPoints  total armorpoints
+     * @param unitsVersion the units version of the army, see Army.getUnitsVersion
+     */
+
+    public record ArmyTotals(int size, long healthPoints, long attackPoints, long armorPoints, long unitsVersion) {
+
+        /**
+         * Reads the totals of an army. The totals are kept up to date by the army, so nothing is summed up.
+         *
+         * @param army the army
+         * @return the totals
+         */
+
+        static ArmyTotals of(Army army) {
+            return new ArmyTotals(army.size(), army.getTotalHealthPoints(), army.getTotalAttackPoints(),
+                    army.getTotalArmorPoints(), army.getUnitsVersion());
+        }
+    }
+
+    /**
+     * The counts of the units of both armies of a battle, in the condensed form of Army.getCondensedMap.
+     *
+     * @param attackerVersion units version of the attacking army when the counts were made
+     * @param defenderVersion units version of the defending army when the counts were made
+     * @param attacker        unmodifiable count of the units of the attacking army
+     * @param defender        unmodifiable count of the units of the defending army
+     * @param time            time the counts were made, from System.nanoTime
+     */
+
+    public record UnitCounts(long attackerVersion, long defenderVersion, Map<Unit, Integer> attacker,
+                             Map<Unit, Integer> defender, long time) {
+
+        /**
+         * Counts the units of a battle. Must be called by the thread that simulates the battle, between two turns.
+         *
+         * @param battle the battle
+         * @param time   the current time, from System.nanoTime
+         * @return the counts
+         */
+
+        static UnitCounts of(Battle battle, long time) {
+            return new UnitCounts(battle.getAttacker().getUnitsVersion(), battle.getDefender().getUnitsVersion(),
+                    Map.copyOf(battle.getAttacker().getCondensedMap()),
+                    Map.copyOf(battle.getDefender().getCondensedMap()), time);
+        }
+
+        /**
+         * Checks if the counts are up to date with the armies of a battle.
+         *
+         * @param battle the battle
+         * @return true if no units have been added or removed since the counts were made
+         */
+
+        boolean isCurrent(Battle battle) {
+            return attackerVersion == battle.getAttacker().getUnitsVersion()
+                    && defenderVersion == battle.getDefender().getUnitsVersion();
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.army.UnitStack;
+import edu.ntnu.arunang.wargames.model.unit.Unit;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The BattleSolver estimates the outcome of a battle without simulating it, when both armies are made of identical
+ * Units. For other armies it falls back to a BatchSimulation, which simulates the battle with Battle.simulate.
+ * <p>
+ * Every turn deals exactly one hit, no matter how many Units the armies have, and a Unit that has been hit dies after a
+ * fixed number of hits. When the Units of an army are identical and do not change when attacking, every Unit dies
+ * after the same number of hits, so an army is wiped out after exactly count * hitsToKill hits. The winner is
+ * therefore known: the attacker, who attacks first, wins if it needs at most as many hits as the defender.
+ * <p>
+ * Only the number of survivors is random, since the hits are spread randomly over the Units of the winner. It is
+ * computed exactly by a Markov chain over how many Units has taken each number of hits, when the chain is small
+ * enough. For larger armies it is approximated by letting every Unit receive hits as an independent Poisson process,
+ * which is accurate when the army has many Units.
+ * <p>
+ * A CavalryUnit or CommanderUnit that attacks without terrain loses its first attack bonus, so the damage of its army
+ * depends on which Units are picked. Such armies are simulated.
+ */
+
+public class BattleSolver {
+
+    public static final int DEFAULT_RUNS = 1000;
+
+    // largest Markov chain that is solved exactly
+    private static final long MAX_EXACT_STATES = 20_000;
+    private static final long MAX_EXACT_WORK = 200_000_000L;
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final Army attacker, defender;
+    private final Terrain terrain;
+    private int fallbackRuns = DEFAULT_RUNS;
+
+    /**
+     * Constructs a solver for a battle. The armies are not changed.
+     *
+     * @param attacker attacking army
+     * @param defender defending army
+     * @param terrain  terrain of the battle, may be null
+     */
+
+    public BattleSolver(Army attacker, Army defender, Terrain terrain) {
+        this.attacker = attacker;
+        this.defender = defender;
+        this.terrain = terrain;
+    }
+
+    /**
+     * Checks if the battle can be solved analytically.
+     *
+     * @return true if both armies are made of identical Units that does not change when attacking
+     */
+
+    public boolean isAnalytical() {
+        return Side.of(attacker, terrain) != null && Side.of(defender, terrain) != null;
+    }
+
+    /**
+     * Estimates the outcome of the battle. The estimate is analytical if the battle can be solved, otherwise the
+     * battle is simulated.
+     *
+     * @return the estimate
+     * @throws IllegalStateException if one of the armies has no units, or if the battle never ends
+     */
+
+    public BattleEstimate solve() throws IllegalStateException {
+        Side attackerSide = Side.of(attacker, terrain);
+        Side defenderSide = Side.of(defender, terrain);
+
+        if (attackerSide == null || defenderSide == null) {
+            return new BattleEstimate(new BatchSimulation(attacker, defender, terrain, fallbackRuns).run());
+        }
+
+        if (attackerSide.count == 0 || defenderSide.count == 0) {
+            throw new IllegalStateException("All armies must have at least one unit.");
+        }
+
+        int terrainIndex = DamageTable.terrainIndex(terrain);
+        long hitsToKillAttacker = hitsToKill(defenderSide, attackerSide, terrainIndex);
+        long hitsToKillDefender = hitsToKill(attackerSide, defenderSide, terrainIndex);
+
+        if (hitsToKillAttacker == NEVER && hitsToKillDefender == NEVER) {
+            throw new IllegalStateException("The battle never ends, no unit can damage the other army.");
+        }
+
+        long attackerHits = total(attackerSide.count, hitsToKillAttacker);
+        long defenderHits = total(defenderSide.count, hitsToKillDefender);
+
+        // the attacker deals hit number i on turn 2i - 1, the defender on turn 2i
+        if (defenderHits <= attackerHits) {
+            double dead = expectedDead(attackerSide.count, hitsToKillAttacker, defenderHits - 1);
+            return new BattleEstimate(1, attackerSide.count - dead, 0, 2.0 * defenderHits - 1, true);
+        }
+
+        double dead = expectedDead(defenderSide.count, hitsToKillDefender, attackerHits);
+        return new BattleEstimate(0, 0, defenderSide.count - dead, 2.0 * attackerHits, true);
+    }
+
+    /**
+     * Set how many times the battle is simulated when it can not be solved.
+     *
+     * @param fallbackRuns number of runs, must be greater than 0
+     * @throws IllegalArgumentException if runs is less than 1
+     */
+
+    public void setFallbackRuns(int fallbackRuns) throws IllegalArgumentException {
+        if (fallbackRuns < 1) {
+            throw new IllegalArgumentException("Runs must be greater than 0");
+        }
+        this.fallbackRuns = fallbackRuns;
+    }
+
+    /**
+     * Helper method for finding how many hits an attacking Unit needs to kill a defending Unit. The damage can change
+     * between the hits, since a RangedUnit loses resist bonus when it is hit.
+     *
+     * @param attacker     the attacking side
+     * @param defender     the defending side
+     * @param terrainIndex index of the terrain
+     * @return number of hits, or NEVER if the Unit never dies
+     */
+
+    static long hitsToKill(Side attacker, Side defender, int terrainIndex) {
+        long hits = 0;
+        long health = defender.health;
+        int state = defender.state;
+
+        while (true) {
+            int damage = attacker.attack - defender.armor + DamageTable.bonus(DamageTable.index(terrainIndex,
+                    attacker.type, attacker.state, defender.type, state));
+            int next = DamageTable.defenderStateAfter(defender.type, state);
+
+            // the damage does not change anymore
+            if (next == state) {
+                return damage <= 0 ? NEVER : hits + (health + damage - 1) / damage;
+            }
+
+            health = Math.max(0, health - damage);
+            hits++;
+            if (health == 0) {
+                return hits;
+            }
+            state = next;
+        }
+    }
+
+    /**
+     * Helper method for the number of hits that wipes out an army.
+     *
+     * @param count      number of Units
+     * @param hitsToKill hits that kills one Unit
+     * @return total hits, or NEVER
+     */
+
+    private static long total(long count, long hitsToKill) {
+        if (hitsToKill == NEVER || count > NEVER / hitsToKill) {
+            return NEVER;
+        }
+        return count * hitsToKill;
+    }
+
+    /**
+     * Get the expected number of dead Units after a number of hits are spread randomly over an army. Every hit lands on
+     * a random living Unit. The hits must not be enough to kill every Unit.
+     *
+     * @param count      number of Units
+     * @param hitsToKill hits that kills one Unit
+     * @param hits       number of hits
+     * @return expected number of dead Units
+     */
+
+    static double expectedDead(long count, long hitsToKill, long hits) {
+        if (hits <= 0 || hitsToKill == NEVER) {
+            return 0;
+        }
+        if (hitsToKill == 1) {
+            return hits;
+        }
+
+        long states = countStates(count, hitsToKill);
+        if (states <= MAX_EXACT_STATES && hits * states * hitsToKill <= MAX_EXACT_WORK) {
+            return exactDead((int) count, (int) hitsToKill, hits);
+        }
+        return approximateDead(count, hitsToKill, hits);
+    }
+
+    /**
+     * Helper method for counting the states of the Markov chain, which is the number of ways to place the Units in the
+     * hitsToKill levels of damage and dead.
+     *
+     * @param count      number of Units
+     * @param hitsToKill hits that kills one Unit
+     * @return number of states, or more than MAX_EXACT_STATES if there are too many
+     */
+
+    private static long countStates(long count, long hitsToKill) {
+        if (hitsToKill > 64) {
+            return MAX_EXACT_STATES + 1;
+        }
+
+        // binomial(count + hitsToKill, hitsToKill)
+        double states = 1;
+        for (int i = 1; i <= hitsToKill; i++) {
+            states = states * (count + i) / i;
+            if (states > MAX_EXACT_STATES) {
+                return MAX_EXACT_STATES + 1;
+            }
+        }
+        return Math.round(states);
+    }
+
+    /**
+     * Helper method for computing the expected number of dead Units exactly. The state is how many living Units has
+     * taken each number of hits, stored as digits of a number in base count + 1.
+     *
+     * @param count      number of Units
+     * @param hitsToKill hits that kills one Unit
+     * @param hits       number of hits
+     * @return expected number of dead Units
+     */
+
+    private static double exactDead(int count, int hitsToKill, long hits) {
+        long[] weights = new long[hitsToKill];
+        weights[0] = 1;
+        for (int level = 1; level < hitsToKill; level++) {
+            weights[level] = weights[level - 1] * (count + 1);
+        }
+
+        Map<Long, Double> states = new HashMap<>();
+        states.put((long) count, 1.0);
+        int[] levels = new int[hitsToKill];
+
+        for (long hit = 0; hit < hits; hit++) {
+            Map<Long, Double> next = new HashMap<>();
+
+            for (Map.Entry<Long, Double> entry : states.entrySet()) {
+                long key = entry.getKey();
+                int alive = decode(key, count, levels);
+
+                for (int level = 0; level < hitsToKill; level++) {
+                    if (levels[level] == 0) {
+                        continue;
+                    }
+                    // the unit moves one level up, or dies
+                    long nextKey = key - weights[level] + (level + 1 < hitsToKill ? weights[level + 1] : 0);
+                    next.merge(nextKey, entry.getValue() * levels[level] / alive, Double::sum);
+                }
+            }
+            states = next;
+        }
+
+        double dead = 0;
+        for (Map.Entry<Long, Double> entry : states.entrySet()) {
+            dead += entry.getValue() * (count - decode(entry.getKey(), count, levels));
+        }
+        return dead;
+    }
+
+    /**
+     * Helper method for decoding a state of the Markov chain.
+     *
+     * @param key    the encoded state
+     * @param count  number of Units
+     * @param levels array the number of Units on each level is written to
+     * @return number of living Units
+     */
+
+    private static int decode(long key, int count, int[] levels) {
+        int alive = 0;
+        for (int level = 0; level < levels.length; level++) {
+            levels[level] = (int) (key % (count + 1));
+            key /= count + 1;
+            alive += levels[level];
+        }
+        return alive;
+    }
+
+    /**
+     * Helper method for approximating the expected number of dead Units. If every Unit receives hits as a Poisson
+     * process with rate 1 until it dies, the next hit always lands on a random living Unit. At time t every Unit has
+     * then taken min(N, hitsToKill) hits, where N is Poisson distributed with mean t. The time where the expected
+     * number of hits is the given hits is found by bisection.
+     *
+     * @param count      number of Units
+     * @param hitsToKill hits that kills one Unit
+     * @param hits       number of hits
+     * @return expected number of dead Units
+     */
+
+    private static double approximateDead(long count, long hitsToKill, long hits) {
+        double target = (double) hits / count;
+
+        double low = target;
+        double high = Math.max(1, 2 * target);
+        while (expectedHits(high, hitsToKill) < target) {
+            low = high;
+            high *= 2;
+        }
+
+        for (int i = 0; i < 100 && high - low > 1e-12 * high; i++) {
+            double middle = (low + high) / 2;
+            if (expectedHits(middle, hitsToKill) < target) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+
+        return count * deathProbability((low + high) / 2, hitsToKill);
+    }
+
+    /**
+     * Helper method for the expected number of hits a Unit has taken at a given time, E[min(N, hitsToKill)].
+     *
+     * @param time       the time, the mean of N
+     * @param hitsToKill hits that kills one Unit
+     * @return expected hits
+     */
+
+    private static double expectedHits(double time, long hitsToKill) {
+        // E[min(N, k)] = k - sum over j < k of (k - j) * P(N = j)
+        double sum = 0;
+        double logTime = Math.log(time);
+        double logProbability = -time;
+
+        for (long j = 0; j < hitsToKill; j++) {
+            if (j > 0) {
+                logProbability += logTime - Math.log(j);
+            }
+            sum += (hitsToKill - j) * Math.exp(logProbability);
+        }
+        return hitsToKill - sum;
+    }
+
+    /**
+     * Helper method for the probability that a Unit is dead at a given time, P(N >= hitsToKill).
+     *
+     * @param time       the time, the mean of N
+     * @param hitsToKill hits that kills one Unit
+     * @return probability
+     */
+
+    private static double deathProbability(double time, long hitsToKill) {
+        double alive = 0;
+        double logTime = Math.log(time);
+        double logProbability = -time;
+
+        for (long j = 0; j < hitsToKill; j++) {
+            if (j > 0) {
+                logProbability += logTime - Math.log(j);
+            }
+            alive += Math.exp(logProbability);
+        }
+        return Math.max(0, 1 - alive);
+    }
+
+    /**
+     * One of the armies, when every living Unit in it is identical. The state is the state of the Units as defined by
+     * the DamageTable.
+     */
+
+    static final class Side {
+        private Unit first = null;
+        int type;
+        int state;
+        int health;
+        int attack;
+        int armor;
+        long count = 0;
+
+        /**
+         * Creates the side of an army, if the army can be solved.
+         *
+         * @param army    the army
+         * @param terrain terrain of the battle, may be null
+         * @return the side, or null if the Units are not identical or change when they attack
+         */
+
+        static Side of(Army army, Terrain terrain) {
+            Side side = new Side();
+
+            // the stacked units are read from their stacks, so they are not taken out of them
+            List<Unit> units = army.getUnitsView();
+            int individuals = army.size() - army.getStackedCount();
+            for (int i = 0; i < individuals; i++) {
+                if (!side.add(units.get(i), 1)) {
+                    return null;
+                }
+            }
+            for (UnitStack stack : army.getStacks()) {
+                if (!side.add(stack.getUnit(), stack.getCount())) {
+                    return null;
+                }
+            }
+
+            if (side.count > 0
+                    && DamageTable.attackerStateAfter(DamageTable.terrainIndex(terrain), side.type, side.state)
+                    != side.state) {
+                return null;
+            }
+            return side;
+        }
+
+        /**
+         * Helper method for adding Units to the side. Dead Units are skipped, since they are removed when a battle is
+         * prepared.
+         *
+         * @param unit  the Unit
+         * @param count number of identical Units
+         * @return false if the Unit is not identical to the other Units, or has no UnitType
+         */
+
+        private boolean add(Unit unit, int count) {
+            if (unit.isDead()) {
+                return true;
+            }
+
+            if (first == null) {
+                UnitType unitType = unit.getUnitType();
+                if (unitType == null) {
+                    return false;
+                }
+                try {
+                    this.state = DamageTable.stateOf(unit, unitType);
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+                this.type = unitType.ordinal();
+                this.first = unit;
+                this.health = unit.getHealthPoints();
+                this.attack = unit.getAttackPoints();
+                this.armor = unit.getArmorPoints();
+                this.count = count;
+                return true;
+            }
+
+            // the name does not matter in a battle
+            if (unit.getClass() != first.getClass() || unit.getHealthPoints() != health
+                    || unit.getAttackPoints() != attack || unit.getArmorPoints() != armor
+                    || unit.getAttackBonus() != first.getAttackBonus() || unit.getResistBonus() != first.getResistBonus()) {
+                return false;
+            }
+            this.count += count;
+            return true;
+        }
+    }
+}
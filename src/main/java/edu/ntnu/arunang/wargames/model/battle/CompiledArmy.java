@@ -0,0 +1,412 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.army.UnitStack;
+import edu.ntnu.arunang.wargames.model.unit.Unit;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A CompiledArmy is an Army where the Units are stored in primitive arrays rather than as objects. The Unit at a given
+ * index is described by the value at that index in every array. It is used by the CompiledBattle, and takes a fraction
+ * of the memory of an Army with the same Units.
+ * <p>
+ * The state array stores the state of the Unit that changes in a battle, as it is defined by the DamageTable. For a
+ * CavalryUnit or CommanderUnit the state is 1 if it has attacked and 0 if not. For a RangedUnit the state is the
+ * number of hits that has lowered its resist bonus. InfantryUnits has no state.
+ * <p>
+ * The stacks of the Army are not expanded. Every stack is stored once, as the values of its Unit and the number of
+ * Units in it, so a stacked Unit takes no memory until it is first changed. It is then taken out of its stack and gets
+ * its own index in the arrays, which grow when they are full. Copying the army therefore only copies the Units that
+ * have been changed, and the number of Units in every stack. The values of the stacks never change, and are shared by
+ * the copies.
+ * <p>
+ * The Units are kept in the same order as the Army would keep them in a battle, so a seeded CompiledBattle picks the
+ * same Units as a seeded Battle. The individual Units come first, followed by the Units of every stack of the Army.
+ * Like in the Army, a stacked Unit is moved to the end of the individual Units when it is first changed, and an
+ * individual Unit is removed by moving the last individual Unit into its place.
+ */
+
+public class CompiledArmy {
+
+    private static final UnitType[] TYPES = UnitType.values();
+
+    private final String name;
+    byte[] types;
+    int[] health;
+    int[] attack;
+    int[] armor;
+    int[] state;
+    int size;
+    int individuals; // number of units that are not stacked, they are placed first
+
+    // one value per stack, in the order of the stacks of the army, shared by the copies
+    private final byte[] stackTypes;
+    private final int[] stackHealth;
+    private final int[] stackAttack;
+    private final int[] stackArmor;
+    private final int[] stackState;
+    private final int[] stackCounts; // number of units left in every stack, the only stack value that changes
+
+    /**
+     * Compiles an Army. The Army is not changed, and the Units are stored in the same order as in the Army. Stacked Units
+     * are compiled from their stack, so they are not taken out of it.
+     *
+     * @param army army that is compiled
+     * @throws IllegalArgumentException if the army has Units that is not an UnitType, or is in a state that can not be
+     *                                  compiled
+     */
+
+    public CompiledArmy(Army army) throws IllegalArgumentException {
+        this.name = army.getName();
+        this.size = army.size();
+        this.individuals = size - army.getStackedCount();
+        this.types = new byte[individuals];
+        this.health = new int[individuals];
+        this.attack = new int[individuals];
+        this.armor = new int[individuals];
+        this.state = new int[individuals];
+
+        // the view is read, since Army.get would take stacked units out of their stacks
+        List<Unit> units = army.getUnitsView();
+        for (int i = 0; i < individuals; i++) {
+            Unit unit = units.get(i);
+            UnitType type = typeOf(unit);
+            types[i] = (byte) type.ordinal();
+            health[i] = unit.getHealthPoints();
+            attack[i] = unit.getAttackPoints();
+            armor[i] = unit.getArmorPoints();
+            state[i] = DamageTable.stateOf(unit, type);
+        }
+
+        List<UnitStack> stacks = army.getStacks();
+        this.stackTypes = new byte[stacks.size()];
+        this.stackHealth = new int[stacks.size()];
+        this.stackAttack = new int[stacks.size()];
+        this.stackArmor = new int[stacks.size()];
+        this.stackState = new int[stacks.size()];
+        this.stackCounts = new int[stacks.size()];
+        for (int s = 0; s < stacks.size(); s++) {
+            Unit unit = stacks.get(s).getUnit();
+            UnitType type = typeOf(unit);
+            stackTypes[s] = (byte) type.ordinal();
+            stackHealth[s] = unit.getHealthPoints();
+            stackAttack[s] = unit.getAttackPoints();
+            stackArmor[s] = unit.getArmorPoints();
+            stackState[s] = DamageTable.stateOf(unit, type);
+            stackCounts[s] = stacks.get(s).getCount();
+        }
+    }
+
+    /**
+     * Helper method for getting the type of a Unit that is compiled.
+     *
+     * @param unit the Unit
+     * @return the type of the Unit
+     * @throws IllegalArgumentException if the Unit is not an UnitType
+     */
+
+    private static UnitType typeOf(Unit unit) throws IllegalArgumentException {
+        UnitType type = unit.getUnitType();
+        if (type == null) {
+            throw new IllegalArgumentException(String.format("Unittype %s does not exist",
+                    unit.getClass().getSimpleName()));
+        }
+        return type;
+    }
+
+    /**
+     * Copy constructor. The individual Units and the counts of the stacks are copied, so the copy can be simulated
+     * without changing the original.
+     *
+     * @param other army that is copied
+     */
+
+    private CompiledArmy(CompiledArmy other) {
+        this.name = other.name;
+        this.size = other.size;
+        this.individuals = other.individuals;
+        this.types = Arrays.copyOf(other.types, other.individuals);
+        this.health = Arrays.copyOf(other.health, other.individuals);
+        this.attack = Arrays.copyOf(other.attack, other.individuals);
+        this.armor = Arrays.copyOf(other.armor, other.individuals);
+        this.state = Arrays.copyOf(other.state, other.individuals);
+        this.stackTypes = other.stackTypes;
+        this.stackHealth = other.stackHealth;
+        this.stackAttack = other.stackAttack;
+        this.stackArmor = other.stackArmor;
+        this.stackState = other.stackState;
+        this.stackCounts = other.stackCounts.clone();
+    }
+
+    /**
+     * Creates an identical copy of the army.
+     *
+     * @return the copy
+     */
+
+    public CompiledArmy copy() {
+        return new CompiledArmy(this);
+    }
+
+    /**
+     * Resets the army to the army it is a copy of, so it can be simulated again without making a new copy. The arrays
+     * are reused when they are large enough.
+     *
+     * @param original the army this army is a copy of
+     * @throws IllegalArgumentException if this army is not a copy of the original
+     */
+
+    void reset(CompiledArmy original) throws IllegalArgumentException {
+        if (stackTypes != original.stackTypes) {
+            throw new IllegalArgumentException(String.format("%s is not a copy of %s", this, original));
+        }
+
+        if (types.length < original.individuals) {
+            types = new byte[original.individuals];
+            health = new int[original.individuals];
+            attack = new int[original.individuals];
+            armor = new int[original.individuals];
+            state = new int[original.individuals];
+        }
+
+        System.arraycopy(original.types, 0, types, 0, original.individuals);
+        System.arraycopy(original.health, 0, health, 0, original.individuals);
+        System.arraycopy(original.attack, 0, attack, 0, original.individuals);
+        System.arraycopy(original.armor, 0, armor, 0, original.individuals);
+        System.arraycopy(original.state, 0, state, 0, original.individuals);
+        System.arraycopy(original.stackCounts, 0, stackCounts, 0, stackCounts.length);
+        size = original.size;
+        individuals = original.individuals;
+    }
+
+    /**
+     * Get the type of the Unit at an index.
+     *
+     * @param index index of the Unit
+     * @return unit type
+     */
+
+    public UnitType getType(int index) {
+        return TYPES[typeAt(slotOf(index))];
+    }
+
+    /**
+     * Get the healthpoints of the Unit at an index.
+     *
+     * @param index index of the Unit
+     * @return healthpoints
+     */
+
+    public int getHealthPoints(int index) {
+        return healthAt(slotOf(index));
+    }
+
+    /**
+     * Get the total healthpoints of the units.
+     *
+     * @return sum of the healthpoints
+     */
+
+    public long getTotalHealthPoints() {
+        long sum = 0;
+        for (int i = 0; i < individuals; i++) {
+            sum += health[i];
+        }
+        for (int s = 0; s < stackCounts.length; s++) {
+            sum += (long) stackHealth[s] * stackCounts[s];
+        }
+        return sum;
+    }
+
+    /**
+     * Get the slot of the Unit at an index. The slot of an individual Unit is its index, and the slot of a stacked Unit
+     * is the complement of the index of its stack, so it is negative. The values of the Unit are read from the slot.
+     *
+     * @param index index of the Unit
+     * @return the slot of the Unit
+     */
+
+    int slotOf(int index) {
+        if (index < individuals) {
+            return index;
+        }
+
+        int stack = 0;
+        int start = individuals;
+        while (index >= start + stackCounts[stack]) {
+            start += stackCounts[stack++];
+        }
+        return ~stack;
+    }
+
+    /**
+     * Get the type ordinal of the Unit in a slot.
+     *
+     * @param slot slot of the Unit
+     * @return the ordinal of the type
+     */
+
+    int typeAt(int slot) {
+        return slot >= 0 ? types[slot] : stackTypes[~slot];
+    }
+
+    /**
+     * Get the healthpoints of the Unit in a slot.
+     *
+     * @param slot slot of the Unit
+     * @return healthpoints
+     */
+
+    int healthAt(int slot) {
+        return slot >= 0 ? health[slot] : stackHealth[~slot];
+    }
+
+    /**
+     * Get the attack of the Unit in a slot.
+     *
+     * @param slot slot of the Unit
+     * @return attackpoints
+     */
+
+    int attackAt(int slot) {
+        return slot >= 0 ? attack[slot] : stackAttack[~slot];
+    }
+
+    /**
+     * Get the armor of the Unit in a slot.
+     *
+     * @param slot slot of the Unit
+     * @return armorpoints
+     */
+
+    int armorAt(int slot) {
+        return slot >= 0 ? armor[slot] : stackArmor[~slot];
+    }
+
+    /**
+     * Get the state of the Unit in a slot.
+     *
+     * @param slot slot of the Unit
+     * @return state as defined by the DamageTable
+     */
+
+    int stateAt(int slot) {
+        return slot >= 0 ? state[slot] : stackState[~slot];
+    }
+
+    /**
+     * Takes the Unit in a slot out of its stack before it is changed, like the Army does. A stacked Unit is added to
+     * the end of the individual Units, and the stacked Units after it move one index up. An individual Unit is not
+     * moved.
+     *
+     * @param slot slot of the Unit
+     * @return the index of the Unit after it is taken out
+     */
+
+    int take(int slot) {
+        if (slot >= 0) {
+            return slot;
+        }
+
+        int stack = ~slot;
+        if (individuals == types.length) {
+            grow();
+        }
+
+        types[individuals] = stackTypes[stack];
+        health[individuals] = stackHealth[stack];
+        attack[individuals] = stackAttack[stack];
+        armor[individuals] = stackArmor[stack];
+        state[individuals] = stackState[stack];
+        stackCounts[stack]--;
+        return individuals++;
+    }
+
+    /**
+     * Helper method for making room for more individual Units.
+     */
+
+    private void grow() {
+        int length = Math.max(8, types.length * 2);
+        types = Arrays.copyOf(types, length);
+        health = Arrays.copyOf(health, length);
+        attack = Arrays.copyOf(attack, length);
+        armor = Arrays.copyOf(armor, length);
+        state = Arrays.copyOf(state, length);
+    }
+
+    /**
+     * Removes an individual Unit at an index, like Army.remove. The last individual Unit is moved into its place, and
+     * the stacked Units move one index down.
+     *
+     * @param index index of the Unit that is removed, must be an individual Unit
+     */
+
+    void removeAt(int index) {
+        int last = --individuals;
+        types[index] = types[last];
+        health[index] = health[last];
+        attack[index] = attack[last];
+        armor[index] = armor[last];
+        state[index] = state[last];
+        size--;
+    }
+
+    /**
+     * Removes all the dead units, in the same order as Army.removeAllDeadUnits.
+     */
+
+    void removeAllDeadUnits() {
+        for (int i = individuals - 1; i >= 0; i--) {
+            if (health[i] <= 0) {
+                removeAt(i);
+            }
+        }
+
+        // the units of a stack are identical, so the whole stack is dead if its unit is
+        for (int s = 0; s < stackCounts.length; s++) {
+            if (stackHealth[s] <= 0) {
+                size -= stackCounts[s];
+                stackCounts[s] = 0;
+            }
+        }
+    }
+
+    /**
+     * Checks if there are Units in the Army.
+     *
+     * @return false if empty, true if count > 0.
+     */
+
+    public boolean hasUnits() {
+        return size > 0;
+    }
+
+    /**
+     * Get how many units there are in the Army.
+     *
+     * @return int
+     */
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the name of the Army.
+     *
+     * @return name
+     */
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledArmy " + name + " size: " + size;
+    }
+}
@@ -0,0 +1,208 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A CompiledBattle is an alternative to the Battle that simulates on CompiledArmies. It is made for large armies, where
+ * a Unit object per soldier takes too much memory, and where going through the objects is slow.
+ * <p>
+ * The battle follows the same rules as Unit.attack, and picks the fighting Units the same way as the Battle. The bonuses
+ * and the changes of state are looked up in the DamageTable, which is built from the Unit classes, so the rules are
+ * only defined once. The battle does not notify observers and can not be delayed, it is meant for simulations without
+ * a gui.
+ */
+
+public class CompiledBattle {
+
+    private final CompiledArmy attacker, defender;
+    private final Terrain terrain;
+    private final int terrainIndex;
+    private final RandomGenerator.SplittableGenerator random;
+
+    private boolean isAttackerTurn = true;
+    private int numOfAttacks = 0;
+
+    /**
+     * Constructs a CompiledBattle by compiling two armies. The armies are not changed.
+     *
+     * @param attacker attacking Army.
+     * @param defender defending Army.
+     * @param terrain  terrain of the battle, may be null
+     */
+
+    public CompiledBattle(Army attacker, Army defender, Terrain terrain) {
+        this(new CompiledArmy(attacker), new CompiledArmy(defender), terrain, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a CompiledBattle with a seed.
+     *
+     * @param attacker attacking Army.
+     * @param defender defending Army.
+     * @param terrain  terrain of the battle, may be null
+     * @param seed     seed of the random generator
+     */
+
+    public CompiledBattle(Army attacker, Army defender, Terrain terrain, long seed) {
+        this(new CompiledArmy(attacker), new CompiledArmy(defender), terrain, new SplittableRandom(seed));
+    }
+
+    /**
+     * Constructs a CompiledBattle with compiled armies and a given random generator.
+     *
+     * @param attacker attacking army
+     * @param defender defending army
+     * @param terrain  terrain of the battle, may be null
+     * @param random   generator used to pick the Units that fight
+     */
+
+    public CompiledBattle(CompiledArmy attacker, CompiledArmy defender, Terrain terrain,
+                          RandomGenerator.SplittableGenerator random) {
+        this.attacker = attacker;
+        this.defender = defender;
+        this.terrain = terrain;
+        this.terrainIndex = DamageTable.terrainIndex(terrain);
+        this.random = random;
+    }
+
+    /**
+     * Creates an identical new battle with a given seed. Does not change this battle, and can therefore be called from
+     * several threads at once.
+     *
+     * @param seed seed of the random generator of the copy
+     * @return newly created battle.
+     */
+
+    public CompiledBattle copy(long seed) {
+        return new CompiledBattle(attacker.copy(), defender.copy(), terrain, new SplittableRandom(seed));
+    }
+
+    /**
+     * Simulates the battle until one of the armies has no units left.
+     *
+     * @return the winning army
+     * @throws IllegalStateException if the armies has no Units.
+     */
+
+    public CompiledArmy simulate() throws IllegalStateException {
+        prepareBattle();
+
+        while (attacker.hasUnits() && defender.hasUnits()) {
+            attack();
+        }
+
+        return getWinner();
+    }
+
+    /**
+     * Checks if the armies are ready for simulation
+     *
+     * @throws IllegalStateException if the armies has no Units.
+     */
+
+    public void prepareBattle() throws IllegalStateException {
+        attacker.removeAllDeadUnits();
+        defender.removeAllDeadUnits();
+
+        if (!attacker.hasUnits() || !defender.hasUnits()) {
+            throw new IllegalStateException("All armies must have at least one unit.");
+        }
+    }
+
+    /**
+     * Helper method for attacking once. Does the same as Unit.attack on the picked Units, and removes the defending Unit
+     * if it dies.
+     */
+
+    private void attack() {
+        CompiledArmy attackingArmy = isAttackerTurn ? attacker : defender;
+        CompiledArmy defendingArmy = isAttackerTurn ? defender : attacker;
+
+        // a stacked unit is read from its stack, so it does not get its own index unless it changes
+        int a = attackingArmy.slotOf(random.nextInt(attackingArmy.size));
+        int d = defendingArmy.slotOf(random.nextInt(defendingArmy.size));
+
+        int attackerType = attackingArmy.typeAt(a);
+        int defenderType = defendingArmy.typeAt(d);
+        int attackerState = attackingArmy.stateAt(a);
+        int defenderState = defendingArmy.stateAt(d);
+
+        int bonus = DamageTable.bonus(DamageTable.index(terrainIndex, attackerType, attackerState, defenderType,
+                defenderState));
+        int newHealthPoints = defendingArmy.healthAt(d) - attackingArmy.attackAt(a) + defendingArmy.armorAt(d) - bonus;
+
+        // like in the Army, a stacked unit is only taken out of its stack when it changes, and the defender always does
+        d = defendingArmy.take(d);
+        defendingArmy.health[d] = Integer.max(0, newHealthPoints);
+        defendingArmy.state[d] = DamageTable.defenderStateAfter(defenderType, defenderState);
+
+        int newAttackerState = DamageTable.attackerStateAfter(terrainIndex, attackerType, attackerState);
+        if (newAttackerState != attackerState) {
+            a = attackingArmy.take(a);
+            attackingArmy.state[a] = newAttackerState;
+        }
+
+        if (defendingArmy.health[d] == 0) {
+            defendingArmy.removeAt(d);
+        }
+
+        numOfAttacks++;
+        isAttackerTurn = !isAttackerTurn;
+    }
+
+    /**
+     * Get the winning army. Army is null if the simulation is not finished.
+     *
+     * @return winning army
+     */
+
+    public CompiledArmy getWinner() {
+        if (attacker.hasUnits() && defender.hasUnits()) {
+            return null;
+        }
+        return attacker.hasUnits() ? attacker : defender;
+    }
+
+    /**
+     * Get attacker army
+     *
+     * @return army
+     */
+
+    public CompiledArmy getAttacker() {
+        return attacker;
+    }
+
+    /**
+     * Get defender army
+     *
+     * @return defender army
+     */
+
+    public CompiledArmy getDefender() {
+        return defender;
+    }
+
+    /**
+     * Get the terrain of where the battle is happening.
+     *
+     * @return terrain used for simulation
+     */
+
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    /**
+     * Get the number of attacks in the battle.
+     *
+     * @return number of attacks
+     */
+
+    public int getNumOfAttacks() {
+        return numOfAttacks;
+    }
+}
@@ -0,0 +1,266 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.unit.CavalryUnit;
+import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import edu.ntnu.arunang.wargames.model.unit.RangedUnit;
+import edu.ntnu.arunang.wargames.model.unit.Unit;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitFactory;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+
+/**
+ * The DamageTable holds the bonus part of every possible attack, so an attack can be resolved with one array index
+ * rather than by asking both Units for their bonuses. It is used by the CompiledBattle.
+ * <p>
+ * An attack is described by the type and state of the attacker, the type and state of the defender, and the terrain.
+ * The state of a Unit is a small number: 0 or 1 for a CavalryUnit or CommanderUnit that has not or has attacked, the
+ * number of hits a RangedUnit has taken before its resist bonus stops going down, and always 0 for an InfantryUnit.
+ * <p>
+ * The tables are built once, by creating a Unit in every state and asking it for its bonuses, and by attacking with it
+ * and hitting it to find its next state. The tables are therefore always consistent with the rules of the Unit
+ * classes.
+ */
+
+public final class DamageTable {
+
+    // the largest number of states a unit type has
+    static final int STATES = 3;
+
+    private static final UnitType[] TYPES = UnitType.values();
+    private static final int TERRAINS = Terrain.values().length + 1; // index 0 is no terrain
+    private static final int ATTACK_SIZE = TYPES.length * STATES * TYPES.length * STATES;
+
+    private static final int[] RANGED_RESIST_BONUS = new int[STATES]; // resist bonus of a RangedUnit in every state
+    private static final int[] BONUS = new int[TERRAINS * ATTACK_SIZE];
+    private static final byte[] ATTACKER_NEXT = new byte[TERRAINS * TYPES.length * STATES];
+    private static final byte[] DEFENDER_NEXT = new byte[TYPES.length * STATES];
+
+    static {
+        for (int state = 0; state < STATES; state++) {
+            RANGED_RESIST_BONUS[state] = createUnit(UnitType.RangedUnit, state).getResistBonus();
+        }
+
+        for (UnitType type : TYPES) {
+            for (int state = 0; state < stateCount(type); state++) {
+                Unit unit = createUnit(type, state);
+                unit.setHealthPoints(unit.getHealthPoints());
+                DEFENDER_NEXT[type.ordinal() * STATES + state] = (byte) stateOf(unit, type);
+
+                for (int t = 0; t < TERRAINS; t++) {
+                    Terrain terrain = terrain(t);
+                    Unit attacker = createUnit(type, state);
+                    Unit dummy = new InfantryUnit("dummy", Integer.MAX_VALUE);
+
+                    if (terrain == null) {
+                        attacker.attack(dummy);
+                    } else {
+                        attacker.attack(dummy, terrain);
+                    }
+                    ATTACKER_NEXT[(t * TYPES.length + type.ordinal()) * STATES + state] =
+                            (byte) stateOf(attacker, type);
+                }
+            }
+        }
+
+        for (int t = 0; t < TERRAINS; t++) {
+            Terrain terrain = terrain(t);
+
+            for (UnitType attackerType : TYPES) {
+                for (int attackerState = 0; attackerState < stateCount(attackerType); attackerState++) {
+                    Unit attacker = createUnit(attackerType, attackerState);
+                    int attackBonus = terrain == null ? attacker.getAttackBonus() : attacker.getAttackBonus(terrain);
+
+                    for (UnitType defenderType : TYPES) {
+                        for (int defenderState = 0; defenderState < stateCount(defenderType); defenderState++) {
+                            Unit defender = createUnit(defenderType, defenderState);
+                            int resistBonus = terrain == null ? defender.getResistBonus()
+                                    : defender.getResistBonus(terrain);
+
+                            BONUS[index(t, attackerType.ordinal(), attackerState, defenderType.ordinal(),
+                                    defenderState)] = attackBonus - resistBonus;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Private constructor because the class should not be instantiated.
+     */
+
+    private DamageTable() {
+    }
+
+    /**
+     * Get the index of a terrain in the tables.
+     *
+     * @param terrain terrain, or null for no terrain
+     * @return the terrain index
+     */
+
+    public static int terrainIndex(Terrain terrain) {
+        return terrain == null ? 0 : terrain.ordinal() + 1;
+    }
+
+    /**
+     * Get the index of an attack in the bonus table.
+     *
+     * @param terrainIndex  index of the terrain, given by terrainIndex
+     * @param attackerType  ordinal of the attacker's UnitType
+     * @param attackerState state of the attacker
+     * @param defenderType  ordinal of the defender's UnitType
+     * @param defenderState state of the defender
+     * @return index of the attack
+     */
+
+    public static int index(int terrainIndex, int attackerType, int attackerState, int defenderType,
+                            int defenderState) {
+        return terrainIndex * ATTACK_SIZE + ((attackerType * STATES + attackerState) * TYPES.length + defenderType)
+                * STATES + defenderState;
+    }
+
+    /**
+     * Get the bonus of an attack: the attack bonus of the attacker minus the resist bonus of the defender. The new
+     * health of the defender is its health - attackPoints + armorPoints - bonus.
+     *
+     * @param index index of the attack, given by index
+     * @return the bonus
+     */
+
+    public static int bonus(int index) {
+        return BONUS[index];
+    }
+
+    /**
+     * Get the state of an attacker after it has attacked.
+     *
+     * @param terrainIndex index of the terrain
+     * @param type         ordinal of the UnitType
+     * @param state        state before the attack
+     * @return state after the attack
+     */
+
+    public static int attackerStateAfter(int terrainIndex, int type, int state) {
+        return ATTACKER_NEXT[(terrainIndex * TYPES.length + type) * STATES + state];
+    }
+
+    /**
+     * Get the state of a defender after it has been hit.
+     *
+     * @param type  ordinal of the UnitType
+     * @param state state before the hit
+     * @return state after the hit
+     */
+
+    public static int defenderStateAfter(int type, int state) {
+        return DEFENDER_NEXT[type * STATES + state];
+    }
+
+    /**
+     * Get the state of a Unit.
+     *
+     * @param unit the Unit
+     * @param type type of the Unit
+     * @return the state
+     * @throws IllegalArgumentException if the resist bonus of a RangedUnit is not one a RangedUnit can have
+     */
+
+    public static int stateOf(Unit unit, UnitType type) throws IllegalArgumentException {
+        return switch (type) {
+            case CavalryUnit, CommanderUnit -> ((CavalryUnit) unit).hasAttacked() ? 1 : 0;
+            case RangedUnit -> rangedState(unit.getResistBonus());
+            case InfantryUnit -> 0;
+        };
+    }
+
+    /**
+     * Puts a Unit in a state, as it is defined by the table. Used when a Unit in a given state is restored, so the state
+     * is stored the same way everywhere.
+     *
+     * @param unit  the Unit
+     * @param type  type of the Unit
+     * @param state the state
+     * @throws IllegalArgumentException if the type has no such state
+     */
+
+    public static void setState(Unit unit, UnitType type, int state) throws IllegalArgumentException {
+        if (state < 0 || state >= stateCount(type)) {
+            throw new IllegalArgumentException(String.format("A %s can not have the state %d", type, state));
+        }
+
+        switch (type) {
+            case CavalryUnit, CommanderUnit -> ((CavalryUnit) unit).setHasAttacked(state == 1);
+            case RangedUnit -> ((RangedUnit) unit).setResistBonus(RANGED_RESIST_BONUS[state]);
+            case InfantryUnit -> {
+            }
+        }
+    }
+
+    /**
+     * Helper method for getting the state of a RangedUnit from its resist bonus.
+     *
+     * @param resistBonus the resist bonus
+     * @return the state
+     * @throws IllegalArgumentException if no state has the resist bonus
+     */
+
+    private static int rangedState(int resistBonus) throws IllegalArgumentException {
+        for (int state = 0; state < STATES; state++) {
+            if (RANGED_RESIST_BONUS[state] == resistBonus) {
+                return state;
+            }
+        }
+        throw new IllegalArgumentException("A RangedUnit can not have the resist bonus " + resistBonus);
+    }
+
+    /**
+     * Helper method for getting the number of states of a unit type.
+     *
+     * @param type unit type
+     * @return number of states
+     */
+
+    private static int stateCount(UnitType type) {
+        return switch (type) {
+            case CavalryUnit, CommanderUnit -> 2;
+            case RangedUnit -> 3;
+            case InfantryUnit -> 1;
+        };
+    }
+
+    /**
+     * Helper method for creating a Unit in a given state.
+     *
+     * @param type  unit type
+     * @param state state of the unit
+     * @return the unit
+     */
+
+    private static Unit createUnit(UnitType type, int state) {
+        Unit unit = UnitFactory.constructUnit(type, type.name(), 1000);
+
+        switch (type) {
+            case CavalryUnit, CommanderUnit -> ((CavalryUnit) unit).setHasAttacked(state == 1);
+            case RangedUnit -> {
+                // a RangedUnit reaches a state by being hit
+                for (int i = 0; i < state; i++) {
+                    unit.setHealthPoints(unit.getHealthPoints());
+                }
+            }
+            case InfantryUnit -> {
+            }
+        }
+        return unit;
+    }
+
+    /**
+     * Helper method for getting the terrain of a terrain index.
+     *
+     * @param terrainIndex index of the terrain
+     * @return the terrain, or null for no terrain
+     */
+
+    private static Terrain terrain(int terrainIndex) {
+        return terrainIndex == 0 ? null : Terrain.values()[terrainIndex - 1];
+    }
+}
@@ -0,0 +1,236 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A MatchupCache stores the results of batch simulations, so a matchup that is simulated again is not simulated twice.
+ * <p>
+ * A matchup is keyed by the armies, the terrain and the number of runs. An army is part of the key as its fingerprint
+ * and its content, which are built from the type, stats and bonuses of its Units. Two armies with the same Units
+ * therefore share results even if their Units are in a different order or have other names. The key is hashed by the
+ * fingerprints, and the contents are compared when the fingerprints are equal, so two armies whose fingerprints
+ * collide do not share a result.
+ * <p>
+ * The cache holds a limited number of results. When it is full, the result that was used least recently is removed.
+ * The cache can be used from several threads.
+ */
+
+public class MatchupCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final LinkedHashMap<Key, BatchResult> results;
+
+    /**
+     * Constructs a cache with the default capacity.
+     */
+
+    public MatchupCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a cache that holds a given number of results.
+     *
+     * @param capacity maximum number of results, must be greater than 0
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+
+    public MatchupCache(int capacity) throws IllegalArgumentException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+
+        // the map is kept in access order, so the eldest entry is the least recently used
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, BatchResult> eldest) {
+                return size() > MatchupCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the stored result of a matchup, or simulate it if it is not stored. The armies are not changed.
+     *
+     * @param attacker attacking army
+     * @param defender defending army
+     * @param terrain  terrain of the battle, may be null
+     * @param runs     number of simulations, must be greater than 0
+     * @return the result
+     * @throws IllegalStateException    if one of the armies has no units
+     * @throws IllegalArgumentException if runs is less than 1
+     */
+
+    public BatchResult simulate(Army attacker, Army defender, Terrain terrain, int runs)
+            throws IllegalStateException, IllegalArgumentException {
+        Key key = Key.of(attacker, defender, terrain, runs);
+
+        BatchResult result = get(key);
+        if (result == null) {
+            // simulated outside the lock, two threads may simulate the same matchup, but only one result is kept
+            result = new BatchSimulation(attacker, defender, terrain, runs).run();
+            put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the stored result of a matchup.
+     *
+     * @param key the matchup
+     * @return the result, or null if it is not stored
+     */
+
+    public synchronized BatchResult get(Key key) {
+        return results.get(key);
+    }
+
+    /**
+     * Stores the result of a matchup. The least recently used result is removed if the cache is full.
+     *
+     * @param key    the matchup
+     * @param result the result
+     */
+
+    public synchronized void put(Key key, BatchResult result) {
+        results.putIfAbsent(key, result);
+    }
+
+    /**
+     * Get a copy of the stored results, from the least to the most recently used.
+     *
+     * @return the results
+     */
+
+    public synchronized Map<Key, BatchResult> getResults() {
+        return new LinkedHashMap<>(results);
+    }
+
+    /**
+     * Removes every stored result.
+     */
+
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    /**
+     * Get the number of stored results.
+     *
+     * @return number of results
+     */
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * Get the maximum number of results.
+     *
+     * @return capacity
+     */
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The key of a matchup. The contents are copied, so the key can not be changed.
+     *
+     * @param attacker        fingerprint of the attacking army
+     * @param defender        fingerprint of the defending army
+     * @param terrain         terrain of the battle, may be null
+     * @param runs            number of simulations
+     * @param attackerContent content of the attacking army, as given by Army.getContent
+     * @param defenderContent content of the defending army, as given by Army.getContent
+     */
+
+    public record Key(long attacker, long defender, Terrain terrain, int runs, int[] attackerContent,
+                      int[] defenderContent) {
+
+        /**
+         * Checks and copies the contents.
+         *
+         * @throws IllegalArgumentException if a content is null, or does not have a whole number of Units
+         */
+
+        public Key {
+            if (attackerContent == null || defenderContent == null) {
+                throw new IllegalArgumentException("Content can not be null");
+            }
+            if (attackerContent.length % Army.CONTENT_FIELDS != 0
+                    || defenderContent.length % Army.CONTENT_FIELDS != 0) {
+                throw new IllegalArgumentException(String.format("Content must have %d values for every unit",
+                        Army.CONTENT_FIELDS));
+            }
+            attackerContent = attackerContent.clone();
+            defenderContent = defenderContent.clone();
+        }
+
+        /**
+         * Creates the key of a matchup.
+         *
+         * @param attacker attacking army
+         * @param defender defending army
+         * @param terrain  terrain of the battle, may be null
+         * @param runs     number of simulations
+         * @return the key
+         */
+
+        public static Key of(Army attacker, Army defender, Terrain terrain, int runs) {
+            return new Key(attacker.getFingerprint(), defender.getFingerprint(), terrain, runs, attacker.getContent(),
+                    defender.getContent());
+        }
+
+        /**
+         * Get a copy of the content of the attacking army.
+         *
+         * @return the content
+         */
+
+        @Override
+        public int[] attackerContent() {
+            return attackerContent.clone();
+        }
+
+        /**
+         * Get a copy of the content of the defending army.
+         *
+         * @return the content
+         */
+
+        @Override
+        public int[] defenderContent() {
+            return defenderContent.clone();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            // the contents are only compared if the fingerprints are equal
+            return attacker == key.attacker && defender == key.defender && terrain == key.terrain && runs == key.runs
+                    && Arrays.equals(attackerContent, key.attackerContent)
+                    && Arrays.equals(defenderContent, key.defenderContent);
+        }
+
+        /**
+         * The hash is made from the fingerprints, so the contents are not hashed.
+         *
+         * @return hash of the key
+         */
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(attacker, defender, terrain, runs);
+        }
+    }
+}
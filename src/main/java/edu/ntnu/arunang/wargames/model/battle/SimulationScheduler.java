@@ -0,0 +1,270 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A SimulationScheduler runs battles on a fixed number of threads, and gives a Future for every battle.
+ * <p>
+ * A Battle that is simulated with a delay spends almost all its time waiting, so it does not get a thread of its own.
+ * Every turn is run as a task that schedules the next turn after the delay, the same way simulate sleeps between the
+ * turns. A thread is therefore only busy while attacking, and many slow simulations can run at once on a few threads.
+ * A battle without delay is simulated turn by turn in one task.
+ * <p>
+ * A simulation is stopped by cancelling its Future. The turn that is running is finished, and no more turns are run.
+ * The battle keeps its state, so it can be submitted again to resume it. The turns of one battle never run at the same
+ * time, even if it is submitted again before the last turn has finished.
+ * <p>
+ * The battles can also be controlled through Battle.cancel, pause, resume and step. A paused battle has no turn in the
+ * queue, its next turn is scheduled when it is resumed or stepped. Cancelling the battle cancels its Future.
+ * <p>
+ * The scheduler does not stop by itself. Whoever creates it owns it, and must shut it down when it is no longer used.
+ */
+
+public class SimulationScheduler {
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Set<CompletableFuture<Army>> running = ConcurrentHashMap.newKeySet();
+    private boolean shutdown = false;
+
+    /**
+     * Constructs a scheduler with one thread per available processor.
+     */
+
+    public SimulationScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a scheduler with a given number of threads. The threads are daemon threads, so they do not keep the
+     * application running.
+     *
+     * @param threads number of threads, must be greater than 0
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+
+    public SimulationScheduler(int threads) throws IllegalArgumentException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be greater than 0");
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "simulation-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // cancelled turns are removed from the queue, instead of waiting there until their delay is over
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Starts simulating a battle. The battle is prepared before this method returns, and the turns are run on the
+     * threads of the scheduler.
+     *
+     * @param battle the battle
+     * @param delay  milliseconds between every attack
+     * @return future that completes with the winner, or exceptionally if a turn fails
+     * @throws IllegalStateException      if the armies has no Units
+     * @throws IllegalArgumentException   if the delay is less than 0
+     * @throws RejectedExecutionException if the scheduler is shut down
+     */
+
+    public synchronized Future<Army> submit(Battle battle, int delay)
+            throws IllegalStateException, IllegalArgumentException, RejectedExecutionException {
+        if (shutdown) {
+            throw new RejectedExecutionException("The scheduler is shut down");
+        }
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay must be positive");
+        }
+        BattleTask task = new BattleTask(battle, delay);
+        battle.start(task::wakeUp);
+
+        running.add(task.future);
+        task.future.whenComplete((winner, e) -> {
+            task.cancelNext();
+            finished(task.future);
+        });
+
+        task.schedule(0);
+        return task.future;
+    }
+
+    /**
+     * Helper method for removing a battle that is done. The threads are stopped when the last battle is done after
+     * shutdown, since a running battle schedules its own turns.
+     *
+     * @param future future of the battle
+     */
+
+    private synchronized void finished(CompletableFuture<Army> future) {
+        running.remove(future);
+        if (shutdown && running.isEmpty()) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Cancels every battle that is running. The battles can be submitted again to resume them.
+     */
+
+    public void cancelAll() {
+        for (CompletableFuture<Army> future : running) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Get the number of battles that are running.
+     *
+     * @return number of battles
+     */
+
+    public int getRunningCount() {
+        return running.size();
+    }
+
+    /**
+     * Stops accepting battles. The battles that are running are finished.
+     */
+
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (running.isEmpty()) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Cancels every battle that is running, and stops accepting battles.
+     */
+
+    public void shutdownNow() {
+        shutdown();
+        cancelAll();
+    }
+
+    /**
+     * Blocks until the scheduler is shut down and every battle has finished, or the timeout runs out.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return true if the scheduler terminated, false if the timeout ran out
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * The turns of one submitted battle. The task runs one turn, or every turn if there is no delay, and schedules the
+     * next.
+     */
+
+    private class BattleTask implements Runnable {
+        private final Battle battle;
+        private final int delay;
+        private final CompletableFuture<Army> future = new CompletableFuture<>();
+        private volatile ScheduledFuture<?> next = null;
+        private final AtomicBoolean paused = new AtomicBoolean(false);
+
+        /**
+         * Constructs the task of a prepared battle.
+         *
+         * @param battle the battle
+         * @param delay  milliseconds between every attack
+         */
+
+        BattleTask(Battle battle, int delay) {
+            this.battle = battle;
+            this.delay = delay;
+        }
+
+        @Override
+        public void run() {
+            try {
+                boolean continues;
+
+                // a battle that is submitted again may have a turn of the old task running
+                ReentrantLock turnLock = battle.getTurnLock();
+                turnLock.lock();
+                try {
+                    do {
+                        if (future.isDone()) {
+                            return;
+                        }
+                        if (battle.isCancelled()) {
+                            future.cancel(false);
+                            return;
+                        }
+                        if (!battle.acquireTurn()) {
+                            pause();
+                            return;
+                        }
+                        continues = battle.simulateTurn();
+                    } while (continues && delay == 0);
+                } finally {
+                    turnLock.unlock();
+                }
+
+                if (continues) {
+                    schedule(delay);
+                } else {
+                    future.complete(battle.getWinner());
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Helper method for pausing the task. No turn is scheduled until the battle wakes it up. The battle is checked
+         * again after the task is paused, in case it was resumed in between.
+         */
+
+        private void pause() {
+            paused.set(true);
+            if (battle.canContinue()) {
+                wakeUp();
+            }
+        }
+
+        /**
+         * Schedules the next turn of a paused task. Called by the battle when it is resumed, stepped or cancelled.
+         */
+
+        void wakeUp() {
+            if (paused.compareAndSet(true, false)) {
+                schedule(0);
+            }
+        }
+
+        /**
+         * Helper method for scheduling the next turn.
+         *
+         * @param delay milliseconds until the turn
+         */
+
+        void schedule(long delay) {
+            next = executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Helper method for removing the next turn from the queue, when the battle is done.
+         */
+
+        void cancelNext() {
+            ScheduledFuture<?> scheduled = next;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A Tournament plays every ordered pair of armies against each other on every Terrain, a given number of times. Every
+ * army is therefore both attacker and defender against every other army. The outcome is a TournamentResult with a win
+ * matrix and a ranking.
+ * <p>
+ * The armies are compiled when a match is played, so only the armies of the matches that are being played are held as
+ * CompiledArmies. Every run simulates a CompiledBattle on copies of the two compiled armies, and the copies are reset
+ * in place between the runs, so no arrays are made for a run. The armies are read while the tournament is run, and
+ * must not be changed until it is finished.
+ * <p>
+ * The matches are split between workers on a fork-join pool. Each match writes its number of wins to its own slot, so
+ * no state is shared between the workers. Like the BatchSimulation, every run has its own seed derived from the seed of
+ * the tournament, so a tournament with a given seed gives the same result no matter how many workers are used.
+ */
+
+public class Tournament {
+
+    // number of matches a worker plays before the range is no longer split
+    private static final int MIN_CHUNK_SIZE = 4;
+
+    private final List<Army> armies;
+    private final Terrain[] terrains = Terrain.values();
+    private final int runs;
+    private final int parallelism;
+    private final long seed;
+
+    /**
+     * Constructs a Tournament that uses every available processor.
+     *
+     * @param armies armies that take part, at least two
+     * @param runs   number of runs for every pair of armies on every terrain
+     * @throws IllegalArgumentException if there are less than two armies, an army has no units, or runs is less than 1
+     */
+
+    public Tournament(List<Army> armies, int runs) throws IllegalArgumentException {
+        this(armies, runs, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a Tournament with a given number of worker threads.
+     *
+     * @param armies      armies that take part, at least two
+     * @param runs        number of runs for every pair of armies on every terrain
+     * @param parallelism number of worker threads, must be greater than 0
+     * @throws IllegalArgumentException if there are less than two armies, an army has no units, or runs or parallelism
+     *                                  is less than 1
+     */
+
+    public Tournament(List<Army> armies, int runs, int parallelism) throws IllegalArgumentException {
+        this(armies, runs, parallelism, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructs a reproducible Tournament.
+     *
+     * @param armies      armies that take part, at least two
+     * @param runs        number of runs for every pair of armies on every terrain
+     * @param parallelism number of worker threads, must be greater than 0
+     * @param seed        seed of the tournament
+     * @throws IllegalArgumentException if there are less than two armies, an army has no units or can not be compiled,
+     *                                  or runs or parallelism is less than 1
+     */
+
+    public Tournament(List<Army> armies, int runs, int parallelism, long seed) throws IllegalArgumentException {
+        if (armies.size() < 2) {
+            throw new IllegalArgumentException("A tournament must have at least two armies");
+        }
+        if (runs < 1) {
+            throw new IllegalArgumentException("Runs must be greater than 0");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0");
+        }
+
+        // every army is compiled once to check it, but is not kept
+        for (Army army : armies) {
+            if (!compile(army).hasUnits()) {
+                throw new IllegalArgumentException(String.format("Army %s has no units", army.getName()));
+            }
+        }
+
+        this.armies = List.copyOf(armies);
+        this.runs = runs;
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays every match. The method blocks until the tournament is finished.
+     *
+     * @return the result of the tournament
+     */
+
+    public TournamentResult run() {
+        int[] attackerWins = new int[getNumOfMatches()];
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new MatchTask(attackerWins, 0, attackerWins.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        List<String> names = armies.stream().map(Army::getName).toList();
+        TournamentResult result = new TournamentResult(names);
+
+        // the matches are added in a fixed order, so the ratings do not depend on the order they were played
+        for (int match = 0; match < attackerWins.length; match++) {
+            int pair = match / terrains.length;
+            result.add(attackerOf(pair), defenderOf(pair), attackerWins[match], runs);
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the number of matches. A match is every run of one ordered pair on one terrain.
+     *
+     * @return number of matches
+     */
+
+    public int getNumOfMatches() {
+        return armies.size() * (armies.size() - 1) * terrains.length;
+    }
+
+    /**
+     * Get the number of runs for every match.
+     *
+     * @return number of runs
+     */
+
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Get the seed of the tournament.
+     *
+     * @return seed
+     */
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Helper method for compiling an army without its dead units.
+     *
+     * @param army the army
+     * @return the compiled army
+     * @throws IllegalArgumentException if the army can not be compiled
+     */
+
+    private static CompiledArmy compile(Army army) throws IllegalArgumentException {
+        CompiledArmy compiled = new CompiledArmy(army);
+        compiled.removeAllDeadUnits();
+        return compiled;
+    }
+
+    /**
+     * Helper method for playing every run of a match. The armies are compiled once for the match, and the copies that
+     * are simulated are reset after every run.
+     *
+     * @param match index of the match
+     * @return number of runs the attacker won
+     */
+
+    private int play(int match) {
+        int pair = match / terrains.length;
+        CompiledArmy attacker = compile(armies.get(attackerOf(pair)));
+        CompiledArmy defender = compile(armies.get(defenderOf(pair)));
+        CompiledArmy attackerCopy = attacker.copy();
+        CompiledArmy defenderCopy = defender.copy();
+        Terrain terrain = terrains[match % terrains.length];
+
+        int wins = 0;
+        for (int run = 0; run < runs; run++) {
+            if (run > 0) {
+                attackerCopy.reset(attacker);
+                defenderCopy.reset(defender);
+            }
+
+            CompiledBattle battle = new CompiledBattle(attackerCopy, defenderCopy, terrain,
+                    new SplittableRandom(BatchSimulation.runSeed(seed, (long) match * runs + run)));
+
+            if (battle.simulate() == battle.getAttacker()) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * Helper method for getting the attacker of an ordered pair. The pairs are ordered by attacker, then by defender.
+     *
+     * @param pair index of the pair
+     * @return index of the attacking army
+     */
+
+    private int attackerOf(int pair) {
+        return pair / (armies.size() - 1);
+    }
+
+    /**
+     * Helper method for getting the defender of an ordered pair. An army does not fight itself, so the attacker is
+     * skipped.
+     *
+     * @param pair index of the pair
+     * @return index of the defending army
+     */
+
+    private int defenderOf(int pair) {
+        int defender = pair % (armies.size() - 1);
+        return defender < attackerOf(pair) ? defender : defender + 1;
+    }
+
+    /**
+     * A task that plays a range of matches. The range is split in two until it is small enough to be played by one
+     * worker.
+     */
+
+    private class MatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] attackerWins;
+        private final int from, to;
+
+        /**
+         * Constructs the task for the matches from (inclusive) to (exclusive).
+         *
+         * @param attackerWins array the number of attacker wins of every match is written to
+         * @param from         first match
+         * @param to           last match, exclusive
+         */
+
+        MatchTask(int[] attackerWins, int from, int to) {
+            this.attackerWins = attackerWins;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= Math.max(MIN_CHUNK_SIZE, attackerWins.length / (parallelism * 8))) {
+                for (int match = from; match < to; match++) {
+                    attackerWins[match] = play(match);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new MatchTask(attackerWins, from, middle), new MatchTask(attackerWins, middle, to));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The result of a Tournament. It stores a win matrix, where the value at [i][j] is the number of runs army i won against
+ * army j, either as attacker or defender. The armies are also given an Elo rating, which is used for the ranking.
+ * <p>
+ * Every match updates the ratings of its two armies once, with the share of the runs the attacker won as the score. The
+ * matches are added in a fixed order, so the ratings of a seeded tournament are reproducible.
+ */
+
+public class TournamentResult {
+
+    public static final double INITIAL_RATING = 1500;
+    public static final double K_FACTOR = 32;
+
+    private final List<String> names;
+    private final int[][] wins;
+    private final int[][] games;
+    private final double[] ratings;
+
+    /**
+     * Constructs an empty result. Results are only created by the tournament.
+     *
+     * @param names names of the armies, in the order of the tournament
+     */
+
+    TournamentResult(List<String> names) {
+        this.names = List.copyOf(names);
+        this.wins = new int[names.size()][names.size()];
+        this.games = new int[names.size()][names.size()];
+        this.ratings = new double[names.size()];
+        Arrays.fill(ratings, INITIAL_RATING);
+    }
+
+    /**
+     * Adds the outcome of a match.
+     *
+     * @param attacker     index of the attacking army
+     * @param defender     index of the defending army
+     * @param attackerWins number of runs the attacker won
+     * @param runs         number of runs in the match
+     */
+
+    void add(int attacker, int defender, int attackerWins, int runs) {
+        wins[attacker][defender] += attackerWins;
+        wins[defender][attacker] += runs - attackerWins;
+        games[attacker][defender] += runs;
+        games[defender][attacker] += runs;
+
+        double expected = 1 / (1 + Math.pow(10, (ratings[defender] - ratings[attacker]) / 400));
+        double change = K_FACTOR * ((double) attackerWins / runs - expected);
+        ratings[attacker] += change;
+        ratings[defender] -= change;
+    }
+
+    /**
+     * Get the names of the armies, in the order of the tournament.
+     *
+     * @return names
+     */
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Get the number of runs an army won against another army.
+     *
+     * @param army     index of the army
+     * @param opponent index of the opponent
+     * @return number of wins
+     */
+
+    public int getWins(int army, int opponent) {
+        return wins[army][opponent];
+    }
+
+    /**
+     * Get the number of runs two armies played against each other.
+     *
+     * @param army     index of the army
+     * @param opponent index of the opponent
+     * @return number of runs
+     */
+
+    public int getGames(int army, int opponent) {
+        return games[army][opponent];
+    }
+
+    /**
+     * Get the total number of runs an army won.
+     *
+     * @param army index of the army
+     * @return number of wins
+     */
+
+    public int getTotalWins(int army) {
+        int sum = 0;
+        for (int win : wins[army]) {
+            sum += win;
+        }
+        return sum;
+    }
+
+    /**
+     * Get the share of its runs an army won.
+     *
+     * @param army index of the army
+     * @return win rate between 0 and 1
+     */
+
+    public double getWinRate(int army) {
+        int total = 0;
+        for (int game : games[army]) {
+            total += game;
+        }
+        return total == 0 ? 0 : (double) getTotalWins(army) / total;
+    }
+
+    /**
+     * Get the Elo rating of an army.
+     *
+     * @param army index of the army
+     * @return rating
+     */
+
+    public double getRating(int army) {
+        return ratings[army];
+    }
+
+    /**
+     * Get the armies ranked by their rating, best first.
+     *
+     * @return indices of the armies
+     */
+
+    public List<Integer> getRanking() {
+        List<Integer> ranking = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            ranking.add(i);
+        }
+        ranking.sort(Comparator.comparingDouble((Integer army) -> ratings[army]).reversed());
+        return ranking;
+    }
+
+    /**
+     * Creates a ranking table with the rating, win rate and wins of every army.
+     *
+     * @return the table
+     */
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-5s %-30s %8s %9s %10s%n", "Rank", "Army", "Rating", "Win rate", "Wins"));
+
+        int rank = 1;
+        for (int army : getRanking()) {
+            sb.append(String.format("%-5d %-30s %8.1f %8.1f%% %10d%n", rank++, names.get(army), ratings[army],
+                    getWinRate(army) * 100, getTotalWins(army)));
+        }
+        return sb.toString();
+    }
+}
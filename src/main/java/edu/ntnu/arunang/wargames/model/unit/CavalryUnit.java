@@ -1,6 +1,7 @@
 package edu.ntnu.arunang.wargames.model.unit;
 
 import edu.ntnu.arunang.wargames.model.battle.Terrain;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
 
 /**
  * A CavalryUnit is a specialized melee unit, that does not have great defense. CavalryUnit has a special ability where
@@ -32,6 +33,18 @@ public class CavalryUnit extends Unit {
         super(name, health, ATTACK_POINTS, ARMOR_POINTS);
     }
 
+    /**
+     * Constructs the CavalryUnit from a shared template. Used when many Units of the same kind are made.
+     *
+     * @param template template of a CavalryUnit, see UnitTemplate.of
+     * @param health   must be greater than 0
+     * @throws IllegalArgumentException if the template is not made for a CavalryUnit
+     */
+
+    public CavalryUnit(UnitTemplate template, int health) throws IllegalArgumentException {
+        super(template, health);
+    }
+
     /**
      * Constructor designed for objects in the same package that needs to change the Units stats.
      *
@@ -54,7 +67,36 @@ public class CavalryUnit extends Unit {
     @Override
     public void attack(Unit opponent) {
         super.attack(opponent);
-        hasAttacked = true;
+        if (!hasAttacked) {
+            setHasAttacked(true);
+        }
+    }
+
+    /**
+     * Checks if the Unit has attacked, and therefore has lost its first attack bonus.
+     *
+     * @return true if the unit has attacked
+     */
+
+    public boolean hasAttacked() {
+        return hasAttacked;
+    }
+
+    /**
+     * Set if the Unit has attacked. Used when a Unit in the middle of a battle is restored.
+     *
+     * @param hasAttacked true if the unit has lost its first attack bonus
+     */
+
+    public void setHasAttacked(boolean hasAttacked) {
+        notifyChanging();
+        this.hasAttacked = hasAttacked;
+        notifyChanged();
+    }
+
+    @Override
+    public UnitType getUnitType() {
+        return UnitType.CavalryUnit;
     }
 
     @Override
@@ -66,18 +108,12 @@ public class CavalryUnit extends Unit {
 
     @Override
     public CavalryUnit getResetCopy() {
-        return new CavalryUnit(getName(), getHealthPoints(), getAttackPoints(), getArmorPoints());
+        return new CavalryUnit(getTemplate(), getHealthPoints());
     }
 
     @Override
     public int getAttackBonus(Terrain terrain) {
-        int bonus = getAttackBonus();
-
-        if (terrain.equals(Terrain.PLAINS)) {
-            bonus += PLAINS_ATTACK_BONUS;
-        }
-
-        return bonus;
+        return attackBonus(hasAttacked, terrain);
     }
 
     @Override
@@ -87,11 +123,42 @@ public class CavalryUnit extends Unit {
 
     @Override
     public int getResistBonus(Terrain terrain) {
-        return terrain.equals(Terrain.FOREST) ? 0 : getResistBonus();
+        return resistBonus(terrain);
     }
 
     @Override
     public int getResistBonus() {
         return RESIST_BONUS;
     }
+
+    /**
+     * The attack bonus of a CavalryUnit on a terrain. Used by the Unit, and by simulations that do not work on Unit
+     * objects.
+     *
+     * @param hasAttacked whether the Unit has attacked before
+     * @param terrain     terrain of the attack, or null if the attack is not on a terrain
+     * @return the attack bonus
+     */
+
+    public static int attackBonus(boolean hasAttacked, Terrain terrain) {
+        int bonus = hasAttacked ? BASE_ATTACK_BONUS : FIRST_ATTACK_BONUS;
+
+        if (terrain == Terrain.PLAINS) {
+            bonus += PLAINS_ATTACK_BONUS;
+        }
+
+        return bonus;
+    }
+
+    /**
+     * The resist bonus of a CavalryUnit on a terrain. Used by the Unit, and by simulations that do not work on Unit
+     * objects.
+     *
+     * @param terrain terrain of the attack, or null if the attack is not on a terrain
+     * @return the resist bonus
+     */
+
+    public static int resistBonus(Terrain terrain) {
+        return terrain == Terrain.FOREST ? 0 : RESIST_BONUS;
+    }
 }
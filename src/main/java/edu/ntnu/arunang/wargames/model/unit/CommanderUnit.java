@@ -1,5 +1,7 @@
 package edu.ntnu.arunang.wargames.model.unit;
 
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+
 /**
  * The CommanderUnit is a more capable CavalryUnit. It has the same special ability aswell.
  * <p>
@@ -22,6 +24,18 @@ public class CommanderUnit extends CavalryUnit {
         super(name, health, ATTACK_POINTS, ARMOR_POINTS);
     }
 
+    /**
+     * Constructs the CommanderUnit from a shared template. Used when many Units of the same kind are made.
+     *
+     * @param template template of a CommanderUnit, see UnitTemplate.of
+     * @param health   must be greater than 0
+     * @throws IllegalArgumentException if the template is not made for a CommanderUnit
+     */
+
+    public CommanderUnit(UnitTemplate template, int health) throws IllegalArgumentException {
+        super(template, health);
+    }
+
     /**
      * Constructor designed for objects in the same package that needs access to change the stats of the Unit.
      *
@@ -35,6 +49,11 @@ public class CommanderUnit extends CavalryUnit {
         super(name, health, attackPoints, armorPoints);
     }
 
+    @Override
+    public UnitType getUnitType() {
+        return UnitType.CommanderUnit;
+    }
+
     @Override
     public CommanderUnit copy() {
         CommanderUnit copy = getResetCopy();
@@ -44,7 +63,7 @@ public class CommanderUnit extends CavalryUnit {
 
     @Override
     public CommanderUnit getResetCopy() {
-        return new CommanderUnit(getName(), getHealthPoints(), getAttackPoints(), getArmorPoints());
+        return new CommanderUnit(getTemplate(), getHealthPoints());
     }
 
 }
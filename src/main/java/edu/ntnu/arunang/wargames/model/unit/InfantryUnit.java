@@ -1,6 +1,7 @@
 package edu.ntnu.arunang.wargames.model.unit;
 
 import edu.ntnu.arunang.wargames.model.battle.Terrain;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
 
 /**
  * An InfantryUnit is a specialized melee unit that does not have a great defense.
@@ -30,6 +31,18 @@ public class InfantryUnit extends Unit {
         super(name, health, ATTACK_POINTS, ARMOR_POINTS);
     }
 
+    /**
+     * Constructs the InfantryUnit from a shared template. Used when many Units of the same kind are made.
+     *
+     * @param template template of a InfantryUnit, see UnitTemplate.of
+     * @param health   must be greater than 0
+     * @throws IllegalArgumentException if the template is not made for a InfantryUnit
+     */
+
+    public InfantryUnit(UnitTemplate template, int health) throws IllegalArgumentException {
+        super(template, health);
+    }
+
     /**
      * Constructor designed for Unit classes that needs to change the stats for the Unit.
      *
@@ -43,9 +56,14 @@ public class InfantryUnit extends Unit {
         super(name, health, attackPoints, armorPoints);
     }
 
+    @Override
+    public UnitType getUnitType() {
+        return UnitType.InfantryUnit;
+    }
+
     @Override
     public InfantryUnit copy() {
-        return new InfantryUnit(getName(), getHealthPoints(), getAttackPoints(), getArmorPoints());
+        return new InfantryUnit(getTemplate(), getHealthPoints());
     }
 
     @Override
@@ -65,11 +83,35 @@ public class InfantryUnit extends Unit {
 
     @Override
     public int getAttackBonus(Terrain terrain) {
-        return terrain.equals(Terrain.FOREST) ? getAttackBonus() : getAttackBonus()+ FOREST_BONUS;
+        return attackBonus(terrain);
     }
 
     @Override
     public int getResistBonus(Terrain terrain) {
-        return terrain.equals(Terrain.FOREST) ? getResistBonus() : getResistBonus()+ FOREST_BONUS;
+        return resistBonus(terrain);
+    }
+
+    /**
+     * The attack bonus of an InfantryUnit on a terrain. Used by the Unit, and by simulations that do not work on Unit
+     * objects.
+     *
+     * @param terrain terrain of the attack, or null if the attack is not on a terrain
+     * @return the attack bonus
+     */
+
+    public static int attackBonus(Terrain terrain) {
+        return terrain == null || terrain == Terrain.FOREST ? ATTACK_BONUS : ATTACK_BONUS + FOREST_BONUS;
+    }
+
+    /**
+     * The resist bonus of an InfantryUnit on a terrain. Used by the Unit, and by simulations that do not work on Unit
+     * objects.
+     *
+     * @param terrain terrain of the attack, or null if the attack is not on a terrain
+     * @return the resist bonus
+     */
+
+    public static int resistBonus(Terrain terrain) {
+        return terrain == null || terrain == Terrain.FOREST ? RESIST_BONUS : RESIST_BONUS + FOREST_BONUS;
     }
 }
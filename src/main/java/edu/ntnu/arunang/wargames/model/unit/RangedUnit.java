@@ -1,6 +1,7 @@
 package edu.ntnu.arunang.wargames.model.unit;
 
 import edu.ntnu.arunang.wargames.model.battle.Terrain;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
 
 /**
  * A RangedUnit is a Unit that has a ranged speciality. It has a special ability where it receives less damage with
@@ -35,6 +36,18 @@ public class RangedUnit extends Unit {
         super(name, health, ATTACK_POINTS, ARMOR_POINTS);
     }
 
+    /**
+     * Constructs the RangedUnit from a shared template. Used when many Units of the same kind are made.
+     *
+     * @param template template of a RangedUnit, see UnitTemplate.of
+     * @param health   must be greater than 0
+     * @throws IllegalArgumentException if the template is not made for a RangedUnit
+     */
+
+    public RangedUnit(UnitTemplate template, int health) throws IllegalArgumentException {
+        super(template, health);
+    }
+
     /**
      * Constructor for objects in the same package that needs access to all fields.
      *
@@ -48,6 +61,11 @@ public class RangedUnit extends Unit {
         super(name, health, attackPoints, armorPoints);
     }
 
+    @Override
+    public UnitType getUnitType() {
+        return UnitType.RangedUnit;
+    }
+
     @Override
     public RangedUnit copy() {
         RangedUnit copy = getResetCopy();
@@ -57,7 +75,7 @@ public class RangedUnit extends Unit {
 
     @Override
     public RangedUnit getResetCopy() {
-        return new RangedUnit(getName(), getHealthPoints(), getAttackPoints(), getArmorPoints());
+        return new RangedUnit(getTemplate(), getHealthPoints());
     }
 
     @Override
@@ -70,15 +88,21 @@ public class RangedUnit extends Unit {
         return resistBonus;
     }
 
+    /**
+     * Set the current resist bonus. Used when a Unit in the middle of a battle is restored.
+     *
+     * @param resistBonus the resist bonus
+     */
+
+    public void setResistBonus(int resistBonus) {
+        notifyChanging();
+        this.resistBonus = resistBonus;
+        notifyChanged();
+    }
+
     @Override
     public int getAttackBonus(Terrain terrain) {
-        int bonus = getAttackBonus();
-        if (terrain.equals(Terrain.HILL)) {
-            bonus += HILL_ATTACK_BONUS;
-        } else if (terrain.equals(Terrain.FOREST)) {
-            bonus += FOREST_ATTACK_BONUS;
-        }
-        return bonus;
+        return attackBonus(terrain);
     }
 
     @Override
@@ -87,16 +111,42 @@ public class RangedUnit extends Unit {
     }
 
     /**
-     * When the RangedUnit is hit the resistBonus will go down in BASE_RESIST_INCREMENT till it is equal to
+     * When the RangedUnit is hit the resistBonus will go down in RESIST_INTERVAL till it is equal to
      * BASE_RESIST_BONUS
-     *
-     * @param newHealthPoints the newHealthPoints of the Unit
      */
 
     @Override
-    public void setHealthPoints(int newHealthPoints) {
-        super.setHealthPoints(newHealthPoints);
+    protected void onHit() {
+        resistBonus = resistBonusAfterHit(resistBonus);
+    }
+
+    /**
+     * The attack bonus of a RangedUnit on a terrain. Used by the Unit, and by simulations that do not work on Unit
+     * objects.
+     *
+     * @param terrain terrain of the attack, or null if the attack is not on a terrain
+     * @return the attack bonus
+     */
+
+    public static int attackBonus(Terrain terrain) {
+        int bonus = ATTACK_BONUS;
+        if (terrain == Terrain.HILL) {
+            bonus += HILL_ATTACK_BONUS;
+        } else if (terrain == Terrain.FOREST) {
+            bonus += FOREST_ATTACK_BONUS;
+        }
+        return bonus;
+    }
+
+    /**
+     * The resist bonus of a RangedUnit after it has been hit. The bonus does not go below BASE_RESIST_BONUS. Used by the
+     * Unit, and by simulations that do not work on Unit objects.
+     *
+     * @param resistBonus the resist bonus before the hit
+     * @return the resist bonus after the hit
+     */
 
-        Integer.max(BASE_RESIST_BONUS, resistBonus -= RESIST_INTERVAL);
+    public static int resistBonusAfterHit(int resistBonus) {
+        return Integer.max(BASE_RESIST_BONUS, resistBonus - RESIST_INTERVAL);
     }
 }
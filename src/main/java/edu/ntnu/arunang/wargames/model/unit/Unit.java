@@ -1,6 +1,7 @@
 package edu.ntnu.arunang.wargames.model.unit;
 
 import edu.ntnu.arunang.wargames.model.battle.Terrain;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
 
 import java.util.Objects;
 
@@ -14,13 +15,16 @@ import java.util.Objects;
  * AttackPoints represents the base-attack of a Unit.
  * <p>
  * ArmorPoints is a layer of protection over the healthPoints.
+ * <p>
+ * The name and the base stats never change, so they are stored in a UnitTemplate that is shared by every Unit with the
+ * same type, name and stats. The Unit itself only stores the state that changes. The owner of the Unit is found
+ * through the template, and the owner keeps the position of the Unit, so a Unit is only a template and its
+ * healthpoints, and the state of its subclass.
  */
 
 public abstract class Unit implements Comparable<Unit> {
 
-    private final String name;
-    private final int attackPoints;
-    private final int armorPoints;
+    UnitTemplate template; // shared name and base stats, only changed by the UnitOwner holding the unit
     private int healthPoints;
 
     /**
@@ -38,14 +42,32 @@ public abstract class Unit implements Comparable<Unit> {
             throw new IllegalArgumentException("Health-points can not be less than 0");
         }
 
-        if (attackPoints < 0 || armorPoints < 0) {
-            throw new IllegalArgumentException("Attack-points and armor-points must be greater than 0");
+        // getUnitType only returns a constant, so it can be called before the subclass is constructed
+        this.template = UnitTemplate.of(getUnitType(), name, attackPoints, armorPoints);
+        this.healthPoints = healthPoints;
+    }
+
+    /**
+     * Constructs the Unit from a shared template. No name or stats are copied, so this is the cheapest way to make
+     * many Units of the same kind.
+     *
+     * @param template     template of the Unit, must be made for the type of the Unit
+     * @param healthPoints must be greater than 0
+     * @throws IllegalArgumentException if the healthpoints are less than 0, or the template is made for another type
+     */
+
+    protected Unit(UnitTemplate template, int healthPoints) throws IllegalArgumentException {
+        if (healthPoints < 0) {
+            throw new IllegalArgumentException("Health-points can not be less than 0");
+        }
+
+        if (template.getType() != getUnitType()) {
+            throw new IllegalArgumentException(String.format("Template of %s can not be used for %s",
+                    template.getType(), getUnitType()));
         }
 
-        this.name = name;
+        this.template = template.getShared();
         this.healthPoints = healthPoints;
-        this.attackPoints = attackPoints;
-        this.armorPoints = armorPoints;
     }
 
     /**
@@ -116,7 +138,17 @@ public abstract class Unit implements Comparable<Unit> {
      */
 
     public String getName() {
-        return name;
+        return template.getName();
+    }
+
+    /**
+     * Get the shared template that holds the name and the base stats of the Unit.
+     *
+     * @return the interned template
+     */
+
+    public UnitTemplate getTemplate() {
+        return template.getShared();
     }
 
     /**
@@ -137,7 +169,18 @@ public abstract class Unit implements Comparable<Unit> {
      */
 
     public void setHealthPoints(int newHealthPoints) {
+        notifyChanging();
         this.healthPoints = Integer.max(0, newHealthPoints);
+        onHit();
+        notifyChanged();
+    }
+
+    /**
+     * Called when the Unit is hit, after the healthpoints are set and before the owner is notified. Units whose
+     * state changes when they are hit override this, so the owner sees the whole change at once.
+     */
+
+    protected void onHit() {
     }
 
     /**
@@ -147,7 +190,7 @@ public abstract class Unit implements Comparable<Unit> {
      */
 
     public int getAttackPoints() {
-        return attackPoints;
+        return template.getAttackPoints();
     }
 
     /**
@@ -157,7 +200,50 @@ public abstract class Unit implements Comparable<Unit> {
      */
 
     public int getArmorPoints() {
-        return armorPoints;
+        return template.getArmorPoints();
+    }
+
+    /**
+     * Get the type of the Unit. Unlike UnitType.getUnitType, no strings are parsed.
+     *
+     * @return the type, or null if the Unit is not one of the unit types
+     */
+
+    public UnitType getUnitType() {
+        return null;
+    }
+
+    /**
+     * Get the owner of the Unit, which is usually the army holding it.
+     *
+     * @return the owner, or null if the Unit is not held by anyone
+     */
+
+    public UnitOwner getOwner() {
+        return template.getOwner();
+    }
+
+    /**
+     * Notifies the owner that the state of the Unit is about to change. Must be followed by notifyChanged.
+     */
+
+    protected void notifyChanging() {
+        UnitOwner owner = template.getOwner();
+        if (owner != null) {
+            owner.onUnitChanging(this);
+        }
+    }
+
+    /**
+     * Notifies the owner that the state of the Unit has changed. The owner is looked up again, since it may have
+     * changed when the owner was notified that the Unit is changing.
+     */
+
+    protected void notifyChanged() {
+        UnitOwner owner = template.getOwner();
+        if (owner != null) {
+            owner.onUnitChanged(this);
+        }
     }
 
     /**
@@ -196,7 +282,8 @@ public abstract class Unit implements Comparable<Unit> {
 
     @Override
     public String toString() {
-        return "Name: " + name + " HP: " + healthPoints + " Attack: " + attackPoints + " Armor: " + armorPoints
+        return "Name: " + getName() + " HP: " + healthPoints + " Attack: " + getAttackPoints() + " Armor: "
+                + getArmorPoints()
                 + " Bonus(Attack/Resist): " + this.getAttackBonus() + "/" + this.getResistBonus();
     }
 
@@ -239,12 +326,16 @@ public abstract class Unit implements Comparable<Unit> {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Unit unit)) return false;
-        return healthPoints == unit.healthPoints && attackPoints == unit.attackPoints && armorPoints == unit.armorPoints && name.equals(unit.name) && this.getAttackBonus() == unit.getAttackBonus() && this.getResistBonus() == unit.getResistBonus();
+        // templates are interned, so equal templates are usually the same object
+        boolean sameStats = getTemplate() == unit.getTemplate() || (getAttackPoints() == unit.getAttackPoints()
+                && getArmorPoints() == unit.getArmorPoints() && getName().equals(unit.getName()));
+        return healthPoints == unit.healthPoints && sameStats && this.getAttackBonus() == unit.getAttackBonus()
+                && this.getResistBonus() == unit.getResistBonus();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, healthPoints, attackPoints, armorPoints, this.getAttackBonus(),
+        return Objects.hash(getName(), healthPoints, getAttackPoints(), getArmorPoints(), this.getAttackBonus(),
                 this.getResistBonus());
     }
 }
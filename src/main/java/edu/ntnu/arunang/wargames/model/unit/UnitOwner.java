@@ -0,0 +1,72 @@
+package edu.ntnu.arunang.wargames.model.unit;
+
+import java.util.HashMap;
+
+/**
+ * A UnitOwner is what holds a Unit, usually an army. The owner is notified when the state of a Unit it holds changes,
+ * so it can keep its aggregated stats up to date.
+ * <p>
+ * A Unit can only be held by one owner. The Unit does not store its owner, it uses a copy of its template that points
+ * to the owner instead. The owner keeps one such template for every kind of Unit it holds, and gives it to the Unit
+ * when it is attached, so holding a Unit does not make the Unit any larger. The positions of the Units are kept by the
+ * owner itself.
+ * <p>
+ * onUnitChanging is called right before the state changes, and onUnitChanged right after. The owner can therefore
+ * read the old state in the first call and the new state in the second.
+ */
+
+public abstract class UnitOwner {
+
+    private final HashMap<UnitTemplate, UnitTemplate> templates = new HashMap<>(); // interned template to own copy
+
+    /**
+     * Constructs an owner that holds no Units.
+     */
+
+    protected UnitOwner() {
+    }
+
+    /**
+     * Makes this the owner of a Unit.
+     *
+     * @param unit the Unit
+     * @throws IllegalStateException if the Unit already has an owner
+     */
+
+    protected final void attach(Unit unit) throws IllegalStateException {
+        if (unit.template.getOwner() != null) {
+            throw new IllegalStateException("The unit is already held by another owner");
+        }
+        unit.template = templates.computeIfAbsent(unit.template, template -> template.ownedBy(this));
+    }
+
+    /**
+     * Releases a Unit held by this owner.
+     *
+     * @param unit the Unit
+     * @throws IllegalStateException if the Unit is not held by this owner
+     */
+
+    protected final void detach(Unit unit) throws IllegalStateException {
+        if (unit.template.getOwner() != this) {
+            throw new IllegalStateException("The unit is not held by this owner");
+        }
+        unit.template = unit.template.getShared();
+    }
+
+    /**
+     * Called before the state of a Unit held by this owner is changed.
+     *
+     * @param unit the Unit that is about to change
+     */
+
+    protected abstract void onUnitChanging(Unit unit);
+
+    /**
+     * Called after the state of a Unit held by this owner has changed.
+     *
+     * @param unit the Unit that has changed
+     */
+
+    protected abstract void onUnitChanged(Unit unit);
+}
@@ -0,0 +1,211 @@
+package edu.ntnu.arunang.wargames.model.unit;
+
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * A UnitTemplate holds the part of a Unit that never changes, which is the type, the name and the base stats. Units
+ * with the same type, name and stats share the same template, so a Unit only needs to store the state that changes in
+ * a battle. An army with thousands of Units of the same kind therefore only stores the name and the stats once.
+ * <p>
+ * Templates are interned, every template is made through UnitTemplate.of, and two equal templates are always the same
+ * object as long as one of them is in use. The templates are only weakly referenced by the intern table, so a template
+ * is removed when no Unit uses it anymore.
+ * <p>
+ * A Unit held by a UnitOwner uses a copy of its template that points to the owner, so the Unit does not need a field
+ * for its owner. These copies are made and kept by the owner, one for every kind of Unit it holds, and are equal to the
+ * interned template they are made from.
+ */
+
+public final class UnitTemplate {
+
+    // the values are weak as well, since they point to the keys
+    private static final Map<UnitTemplate, WeakReference<UnitTemplate>> TEMPLATES = new WeakHashMap<>();
+
+    private final UnitType type;
+    private final String name;
+    private final int attackPoints;
+    private final int armorPoints;
+    private final UnitTemplate shared; // the interned template, this if the template is not held by an owner
+    private final UnitOwner owner;
+
+    /**
+     * Constructs a template. Only used by UnitTemplate.of, so that the templates are interned.
+     *
+     * @param type         unit type, may be null
+     * @param name         name of the Unit
+     * @param attackPoints base attack of the Unit
+     * @param armorPoints  base armor of the Unit
+     */
+
+    private UnitTemplate(UnitType type, String name, int attackPoints, int armorPoints) {
+        this.type = type;
+        this.name = name;
+        this.attackPoints = attackPoints;
+        this.armorPoints = armorPoints;
+        this.shared = this;
+        this.owner = null;
+    }
+
+    /**
+     * Constructs the template of an owner from an interned template.
+     *
+     * @param shared the interned template
+     * @param owner  the owner of the Units that use the template
+     */
+
+    private UnitTemplate(UnitTemplate shared, UnitOwner owner) {
+        this.type = shared.type;
+        this.name = shared.name;
+        this.attackPoints = shared.attackPoints;
+        this.armorPoints = shared.armorPoints;
+        this.shared = shared;
+        this.owner = owner;
+    }
+
+    /**
+     * Get the shared template with the given type, name and stats. The template is made the first time it is asked
+     * for.
+     *
+     * @param type         unit type, null for Units that are not one of the unit types
+     * @param name         name of the Unit
+     * @param attackPoints must be greater than or equal to 0
+     * @param armorPoints  must be greater than or equal to 0
+     * @return the interned template
+     * @throws IllegalArgumentException if the name is null, or the stats are less than 0
+     */
+
+    public static UnitTemplate of(UnitType type, String name, int attackPoints, int armorPoints)
+            throws IllegalArgumentException {
+        if (name == null) {
+            throw new IllegalArgumentException("Name can not be null");
+        }
+
+        if (attackPoints < 0 || armorPoints < 0) {
+            throw new IllegalArgumentException("Attack-points and armor-points must be greater than 0");
+        }
+
+        UnitTemplate template = new UnitTemplate(type, name, attackPoints, armorPoints);
+        synchronized (TEMPLATES) {
+            WeakReference<UnitTemplate> reference = TEMPLATES.get(template);
+            UnitTemplate interned = reference == null ? null : reference.get();
+            if (interned != null) {
+                return interned;
+            }
+
+            TEMPLATES.put(template, new WeakReference<>(template));
+            return template;
+        }
+    }
+
+    /**
+     * Get the shared template of a unit type with a given name and the base stats of the type.
+     *
+     * @param type unit type
+     * @param name name of the Unit
+     * @return the interned template
+     * @throws IllegalArgumentException if the name is null
+     */
+
+    public static UnitTemplate of(UnitType type, String name) throws IllegalArgumentException {
+        return switch (type) {
+            case CavalryUnit -> of(type, name, CavalryUnit.ATTACK_POINTS, CavalryUnit.ARMOR_POINTS);
+            case CommanderUnit -> of(type, name, CommanderUnit.ATTACK_POINTS, CommanderUnit.ARMOR_POINTS);
+            case InfantryUnit -> of(type, name, InfantryUnit.ATTACK_POINTS, InfantryUnit.ARMOR_POINTS);
+            case RangedUnit -> of(type, name, RangedUnit.ATTACK_POINTS, RangedUnit.ARMOR_POINTS);
+        };
+    }
+
+    /**
+     * Makes a copy of the template for an owner. Only used by UnitOwner, which keeps the copy.
+     *
+     * @param owner the owner
+     * @return the template of the owner
+     */
+
+    UnitTemplate ownedBy(UnitOwner owner) {
+        return new UnitTemplate(shared, owner);
+    }
+
+    /**
+     * Get the interned template this template is made from.
+     *
+     * @return the interned template
+     */
+
+    UnitTemplate getShared() {
+        return shared;
+    }
+
+    /**
+     * Get the owner of the Units that use the template.
+     *
+     * @return the owner, or null if the template is not held by an owner
+     */
+
+    UnitOwner getOwner() {
+        return owner;
+    }
+
+    /**
+     * Get the type of the Units made from the template.
+     *
+     * @return the type, or null if the Units are not one of the unit types
+     */
+
+    public UnitType getType() {
+        return type;
+    }
+
+    /**
+     * Get the name of the Units made from the template.
+     *
+     * @return this.name
+     */
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the base attack of the Units made from the template.
+     *
+     * @return this.attackPoints
+     */
+
+    public int getAttackPoints() {
+        return attackPoints;
+    }
+
+    /**
+     * Get the base armor of the Units made from the template.
+     *
+     * @return this.armorPoints
+     */
+
+    public int getArmorPoints() {
+        return armorPoints;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UnitTemplate template)) return false;
+        return type == template.type && attackPoints == template.attackPoints
+                && armorPoints == template.armorPoints && name.equals(template.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, name, attackPoints, armorPoints);
+    }
+
+    @Override
+    public String toString() {
+        return "UnitTemplate " + type + " " + name + " Attack: " + attackPoints + " Armor: " + armorPoints;
+    }
+}
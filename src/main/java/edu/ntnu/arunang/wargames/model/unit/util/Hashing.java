@@ -0,0 +1,31 @@
+package edu.ntnu.arunang.wargames.model.unit.util;
+
+/**
+ * Hashing holds the bit mixing that is shared by the content hashes of an Army and the seeds of the runs of a batch
+ * simulation. This class is private because it only has static methods, and there is therefore no point to it being
+ * instantiated.
+ */
+
+public class Hashing {
+
+    /**
+     * Private constructor because the class should not be instantiated.
+     */
+
+    private Hashing() {
+    }
+
+    /**
+     * Spreads the bits of a value, so that similar values get very different results. This is the finalizer of the
+     * 64 bit MurmurHash3, which is also used by SplittableRandom.
+     *
+     * @param z the value
+     * @return the mixed value
+     */
+
+    public static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -47,10 +47,10 @@ public class UnitFactory {
 
     public static List<Unit> constructUnitsFromString(String type, String name, int health, int count) {
         List<Unit> units = new ArrayList<>();
-        UnitType unitType = UnitType.getUnitType(type);
+        UnitTemplate template = UnitTemplate.of(UnitType.getUnitType(type), name);
 
         for (int i = 0; i < count; i++) {
-            units.add(constructUnit(unitType, name, health));
+            units.add(constructUnit(template, health));
         }
 
         return units;
@@ -67,11 +67,28 @@ public class UnitFactory {
      */
 
     public static Unit constructUnit(UnitType type, String name, int health) throws IllegalArgumentException {
-        return switch (type) {
-            case CavalryUnit -> new CavalryUnit(name, health);
-            case CommanderUnit -> new CommanderUnit(name, health);
-            case InfantryUnit -> new InfantryUnit(name, health);
-            case RangedUnit -> new RangedUnit(name, health);
+        return constructUnit(UnitTemplate.of(type, name), health);
+    }
+
+    /**
+     * Constructs a unit from a shared template. The name and the stats are not copied, so no strings are made.
+     *
+     * @param template template of the unit, made by UnitTemplate.of
+     * @param health   unit health
+     * @return A constructed Unit
+     * @throws IllegalArgumentException if the template has no unit type
+     */
+
+    public static Unit constructUnit(UnitTemplate template, int health) throws IllegalArgumentException {
+        if (template.getType() == null) {
+            throw new IllegalArgumentException("The template has no unit type");
+        }
+
+        return switch (template.getType()) {
+            case CavalryUnit -> new CavalryUnit(template, health);
+            case CommanderUnit -> new CommanderUnit(template, health);
+            case InfantryUnit -> new InfantryUnit(template, health);
+            case RangedUnit -> new RangedUnit(template, health);
         };
     }
 }
@@ -0,0 +1,148 @@
+package edu.ntnu.arunang.wargames.event;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubjectTest {
+
+    /**
+     * Helper method for creating a subject.
+     *
+     * @return the subject
+     */
+
+    private Subject createSubject() {
+        return new Subject() {
+        };
+    }
+
+    /**
+     * Helper method for running every task that has been given to an executor, in order.
+     *
+     * @param tasks the tasks of the executor
+     */
+
+    private void runAll(Queue<Runnable> tasks) {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    @Test
+    @DisplayName("Test that every event is delivered in order on the notifying thread when the dispatch is synchronous")
+    void testSyncDispatch() {
+        Subject subject = createSubject();
+        List<EventType> events = new ArrayList<>();
+        subject.attach(events::add);
+
+        subject.notifyObservers(EventType.UPDATE);
+        subject.notifyObservers(EventType.UPDATE);
+        subject.notifyObservers(EventType.FINISH);
+
+        assertEquals(List.of(EventType.UPDATE, EventType.UPDATE, EventType.FINISH), events);
+
+        // the subject can be switched back from asynchronous dispatch
+        subject.setAsyncDispatch(task -> fail("The executor must not be used"), 0, TimeUnit.MILLISECONDS);
+        subject.setSyncDispatch();
+        subject.notifyObservers(EventType.UPDATE);
+
+        assertEquals(4, events.size());
+    }
+
+    @Test
+    @DisplayName("Test that a burst of updates is delivered as one on the executor, and finish is delivered last")
+    void testAsyncDispatchCoalesces() {
+        Subject subject = createSubject();
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        List<EventType> events = new ArrayList<>();
+
+        // the interval is long, so only the first update is delivered before the finish
+        subject.setAsyncDispatch(tasks::add, 1, TimeUnit.HOURS);
+        subject.attach(events::add);
+
+        for (int i = 0; i < 100000; i++) {
+            subject.notifyObservers(EventType.UPDATE);
+        }
+        assertTrue(events.isEmpty());
+        assertEquals(1, tasks.size());
+
+        runAll(tasks);
+        assertEquals(List.of(EventType.UPDATE), events);
+
+        // the next burst waits for the interval, but is delivered before the finish
+        for (int i = 0; i < 100000; i++) {
+            subject.notifyObservers(EventType.UPDATE);
+        }
+        subject.notifyObservers(EventType.FINISH);
+        runAll(tasks);
+
+        assertEquals(List.of(EventType.UPDATE, EventType.UPDATE, EventType.FINISH), events);
+    }
+
+    @Test
+    @DisplayName("Test that the notifying thread does not wait for the listeners")
+    void testAsyncDispatchDoesNotBlock() throws InterruptedException {
+        Subject subject = createSubject();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        subject.setAsyncDispatch(executor, 0, TimeUnit.MILLISECONDS);
+        subject.attach(type -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (type == EventType.FINISH) {
+                finished.countDown();
+            }
+        });
+
+        // the listener is blocked until the events have been sent, so a waiting notifier would never return
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 1000; i++) {
+                subject.notifyObservers(EventType.UPDATE);
+            }
+            subject.notifyObservers(EventType.FINISH);
+        });
+
+        release.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Test async dispatch with a negative interval")
+    void testNegativeInterval() {
+        Subject subject = createSubject();
+
+        assertThrows(IllegalArgumentException.class, () -> subject.setAsyncDispatch(Runnable::run, -1,
+                TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Test that a detached listener is no longer notified")
+    void testDetach() {
+        Subject subject = createSubject();
+        List<EventType> events = new ArrayList<>();
+        EventListener listener = events::add;
+
+        subject.attach(listener);
+        subject.notifyObservers(EventType.UPDATE);
+        subject.detach(listener);
+        subject.notifyObservers(EventType.FINISH);
+
+        assertEquals(List.of(EventType.UPDATE), events);
+    }
+}
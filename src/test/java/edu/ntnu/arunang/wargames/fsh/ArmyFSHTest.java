@@ -1,9 +1,11 @@
 package edu.ntnu.arunang.wargames.fsh;
 
 import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.army.ArmySummary;
 import edu.ntnu.arunang.wargames.model.unit.CavalryUnit;
 import edu.ntnu.arunang.wargames.model.unit.CommanderUnit;
 import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -11,6 +13,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -148,4 +151,136 @@ public class ArmyFSHTest {
 
         assertEquals("NotCSV", armyFSH.getFileNameWithoutExtension(file) );
     }
+
+    @Test
+    @DisplayName("Test that a large army is loaded as stacks")
+    void testLoadLargeArmyAsStacks() throws FileFormatException, IOException {
+        Army army = new Army("large");
+        ArmyFSH armyFSH = new ArmyFSH();
+        File file = Files.createTempFile("large", ".csv").toFile();
+        file.deleteOnExit();
+
+        army.addStack(infUnit, 10000000);
+        army.addStack(cavUnit, 5);
+        armyFSH.writeArmyTo(file, army);
+        Army armyFromFile = armyFSH.loadFromFile(file);
+
+        assertEquals(10000005, armyFromFile.size());
+        assertEquals(10000005, armyFromFile.getStackedCount());
+        assertEquals(army.getMap(), armyFromFile.getMap());
+    }
+
+    @Test
+    @DisplayName("Test reading a file with windows line endings and whitespace in the fields")
+    void testReadingWithWhitespaceAndLineEndings() throws FileFormatException, IOException {
+        ArmyFSH armyFSH = new ArmyFSH();
+        File file = Files.createTempFile("whitespace", ".csv").toFile();
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), "whitespace\r\n Infantry Unit ,infUnit, 4 0 ,2,\r\nCavalryUnit,cavUnit,+20,\t1\r");
+
+        Army expected = new Army("whitespace");
+        expected.add(infUnit, 2);
+        expected.add(cavUnit);
+
+        assertEquals(expected, armyFSH.loadFromFile(file));
+    }
+
+    @Test
+    @DisplayName("Test that parse errors report the line number")
+    void testParseErrorLineNumbers() throws IOException {
+        ArmyFSH armyFSH = new ArmyFSH();
+        File file = Files.createTempFile("errors", ".csv").toFile();
+        file.deleteOnExit();
+
+        Files.writeString(file.toPath(), "errors\nInfantryUnit,infUnit,40,2\nInfantryUnit,infUnit,4x,2\n");
+        Throwable exception = assertThrows(FileFormatException.class, () -> armyFSH.loadFromFile(file));
+        assertEquals("Could not parse integers on line :2", exception.getMessage());
+
+        Files.writeString(file.toPath(), "errors\nInfantryUnit,infUnit,,,\n");
+        exception = assertThrows(FileFormatException.class, () -> armyFSH.loadFromFile(file));
+        assertEquals("Too few fields on line: 1", exception.getMessage());
+
+        Files.writeString(file.toPath(), "errors\nInfantryUnit,infUnit,40,2\n\n");
+        exception = assertThrows(FileFormatException.class, () -> armyFSH.loadFromFile(file));
+        assertEquals("Too few fields on line: 2", exception.getMessage());
+
+        Files.writeString(file.toPath(), "errors\nInfantryUnit,infUnit,40,2\nWizard,wizard,40,2");
+        exception = assertThrows(FileFormatException.class, () -> armyFSH.loadFromFile(file));
+        assertEquals("Unittype Wizard does not exist on Line: 2", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test that lines with a count less than 1 are skipped")
+    void testLinesWithoutUnits() throws FileFormatException, IOException {
+        ArmyFSH armyFSH = new ArmyFSH();
+        File file = Files.createTempFile("empty lines", ".csv").toFile();
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), "empty lines\nInfantryUnit,infUnit,40,2\nCavalryUnit,cavUnit,20,0\n"
+                + "RangedUnit,ranged,30,-1\n");
+
+        Army expected = new Army("empty lines");
+        expected.add(infUnit, 2);
+
+        assertEquals(expected, armyFSH.loadFromFile(file));
+        assertEquals(2, armyFSH.loadSummary(file).size());
+
+        Files.writeString(file.toPath(), "errors\nInfantryUnit,infUnit,40,2\nWizard,wizard,40,0");
+        Throwable exception = assertThrows(FileFormatException.class, () -> armyFSH.loadFromFile(file));
+        assertEquals("Unittype Wizard does not exist on Line: 2", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test that the summary of a file has the same totals as the army")
+    void testLoadSummary() throws FileFormatException, IOException {
+        ArmyFSH armyFSH = new ArmyFSH();
+        File file = Files.createTempFile("summary", ".csv").toFile();
+        file.deleteOnExit();
+
+        Army army = new Army("summary");
+        army.addStack(infUnit, 3000000);
+        army.add(cavUnit, 2);
+        army.add(comUnit);
+        armyFSH.writeArmyTo(file, army);
+
+        ArmySummary summary = armyFSH.loadSummary(file);
+
+        assertEquals("summary", summary.getName());
+        assertEquals(army.size(), summary.size());
+        assertEquals(3000000, summary.getCount(UnitType.InfantryUnit));
+        assertEquals(120000000L, summary.getHealthPoints(UnitType.InfantryUnit));
+        assertEquals(0, summary.getCount(UnitType.RangedUnit));
+        assertEquals(army.getTotalHealthPoints(), summary.getTotalHealthPoints());
+        assertEquals(army.getTotalAttackPoints(), summary.getTotalAttackPoints());
+        assertEquals(army.getTotalArmorPoints(), summary.getTotalArmorPoints());
+
+        Files.writeString(file.toPath(), "errors\nInfantryUnit,infUnit,40,2\nWizard,wizard,40,2");
+        Throwable exception = assertThrows(FileFormatException.class, () -> armyFSH.loadSummary(file));
+        assertEquals("Unittype Wizard does not exist on Line: 2", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test loading every army in a directory")
+    void testLoadAllArmies() throws FileFormatException, IOException {
+        ArmyFSH armyFSH = new ArmyFSH();
+        File dir = Files.createTempDirectory("armies").toFile();
+        Army first = new Army("first");
+        Army second = new Army("second");
+        first.add(infUnit, 3);
+        second.add(cavUnit, 2);
+
+        armyFSH.writeArmyTo(new File(dir, "first.csv"), first);
+        armyFSH.writeArmyTo(new File(dir, "second.csv"), second);
+        Files.writeString(new File(dir, "notes.txt").toPath(), "not an army");
+
+        assertEquals(List.of(first, second), armyFSH.loadAllArmies(dir));
+
+        Files.writeString(new File(dir, "third.csv").toPath(), "third\nInfantryUnit,inf\n");
+        Throwable exception = assertThrows(FileFormatException.class, () -> armyFSH.loadAllArmies(dir));
+        assertEquals("third.csv: Too few fields on line: 1", exception.getMessage());
+
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
 }
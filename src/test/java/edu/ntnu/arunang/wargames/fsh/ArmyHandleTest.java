@@ -0,0 +1,63 @@
+package edu.ntnu.arunang.wargames.fsh;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArmyHandleTest {
+
+    InfantryUnit infUnit = new InfantryUnit("infUnit", 40);
+
+    File createArmyFile(Army army) throws IOException {
+        File file = Files.createTempFile(army.getName(), "." + ArmyFSH.FILETYPE).toFile();
+        file.deleteOnExit();
+        new ArmyFSH().writeArmyTo(file, army);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Test that the summary is read once and the army is built on every load")
+    void testSummaryAndLoad() throws IOException {
+        Army army = new Army("handle");
+        army.add(infUnit, 5);
+        ArmyHandle handle = new ArmyHandle(createArmyFile(army));
+
+        assertSame(handle.getSummary(), handle.getSummary());
+        assertEquals(5, handle.getSummary().join().getCount(UnitType.InfantryUnit));
+
+        Army first = handle.load().join();
+        Army second = handle.load().join();
+        assertEquals(army, first);
+        assertNotSame(first, second);
+        assertEquals(handle, new ArmyHandle(handle.getFile(), Runnable::run));
+    }
+
+    @Test
+    @DisplayName("Test that nothing is read before it is asked for, and that errors complete the future")
+    void testLazyAndErrors() throws IOException {
+        File file = Files.createTempFile("broken", "." + ArmyFSH.FILETYPE).toFile();
+        file.deleteOnExit();
+        ArmyHandle handle = new ArmyHandle(file, Runnable::run);
+
+        // the file is still empty when the handle is made
+        Files.writeString(file.toPath(), "broken\nInfantryUnit,inf\n");
+        assertEquals(file.getName().replace(".csv", ""), handle.getName());
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> handle.getSummary().join());
+        assertTrue(exception.getCause() instanceof FileFormatException);
+        assertThrows(CompletionException.class, () -> handle.load().join());
+
+        // a failed summary is read again
+        Files.writeString(file.toPath(), "fixed\nInfantryUnit,inf,10,2\n");
+        assertEquals("fixed", handle.getSummary().join().getName());
+    }
+}
@@ -0,0 +1,132 @@
+package edu.ntnu.arunang.wargames.fsh;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.CavalryUnit;
+import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArmyIndexTest {
+
+    CavalryUnit cavUnit = new CavalryUnit("cavUnit", 20);
+    InfantryUnit infUnit = new InfantryUnit("infUnit", 40);
+
+    File dir;
+
+    @BeforeEach
+    void createDir() throws IOException {
+        dir = Files.createTempDirectory("index").toFile();
+    }
+
+    @AfterEach
+    void deleteDir() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    File writeArmy(String fileName, Army army) throws IOException {
+        File file = new File(dir, fileName + "." + ArmyFSH.FILETYPE);
+        new ArmyFSH().writeArmyTo(file, army);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Test that refresh reads new and changed files, and removes deleted files")
+    void testRefresh() throws IOException {
+        Army first = new Army("First, army");
+        first.add(infUnit, 3);
+        first.add(cavUnit);
+        File firstFile = writeArmy("first", first);
+        File secondFile = writeArmy("second", new Army("second"));
+        Files.writeString(new File(dir, "broken.csv").toPath(), "broken\nInfantryUnit,inf\n");
+
+        ArmyIndex index = new ArmyIndex(dir);
+        assertTrue(index.refresh());
+        assertFalse(index.refresh());
+
+        assertEquals(List.of("broken.csv", "first.csv", "second.csv"),
+                index.getEntries().stream().map(entry -> entry.file().getName()).toList());
+        assertNull(index.get(new File(dir, "broken.csv")).summary());
+        assertEquals(3, index.get(firstFile).summary().getCount(UnitType.InfantryUnit));
+        assertEquals(first.getTotalHealthPoints(), index.get(firstFile).summary().getTotalHealthPoints());
+        assertEquals(firstFile.length(), index.get(firstFile).size());
+        assertEquals(List.of(index.get(firstFile)), index.search("first, ARMY"));
+
+        first.add(infUnit, 2);
+        writeArmy("first", first);
+        firstFile.setLastModified(firstFile.lastModified() + 2000);
+        secondFile.delete();
+
+        assertTrue(index.refresh());
+        assertEquals(5, index.get(firstFile).summary().getCount(UnitType.InfantryUnit));
+        assertNull(index.get(secondFile));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Test that the stored index is loaded without reading the army files")
+    void testLoadStoredIndex() throws IOException {
+        Army army = new Army("stored");
+        army.add(cavUnit, 4);
+        File file = writeArmy("stored", army);
+
+        new ArmyIndex(dir).refresh();
+        assertTrue(new File(dir, ArmyIndexFSH.FILENAME + "." + ArmyIndexFSH.FILETYPE).exists());
+
+        ArmyIndex index = new ArmyIndex(dir);
+        index.load();
+
+        ArmyIndex.Entry entry = index.get(file);
+        assertEquals("stored", entry.summary().getName());
+        assertEquals(4, entry.summary().getCount(UnitType.CavalryUnit));
+        assertEquals(army.getTotalArmorPoints(), entry.summary().getTotalArmorPoints());
+        assertFalse(index.refresh());
+
+        // a broken index is rebuilt
+        Files.writeString(new File(dir, ArmyIndexFSH.FILENAME + "." + ArmyIndexFSH.FILETYPE).toPath(), "x,1\n");
+        index.load();
+        assertEquals(0, index.size());
+        assertTrue(index.refresh());
+    }
+
+    @Test
+    @DisplayName("Test that the index follows the directory while it is watching")
+    void testWatching() throws IOException, InterruptedException {
+        ArmyIndex index = new ArmyIndex(dir);
+        index.open();
+        assertTrue(index.isWatching());
+
+        Army army = new Army("watched");
+        army.add(infUnit, 2);
+        File file = writeArmy("watched", army);
+        waitFor(() -> index.get(file) != null && index.get(file).summary() != null);
+        assertEquals(2, index.get(file).summary().size());
+
+        file.delete();
+        waitFor(() -> index.get(file) == null);
+
+        index.stopWatching();
+        assertFalse(index.isWatching());
+    }
+
+    void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "The index was not updated");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package edu.ntnu.arunang.wargames.fsh;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.*;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryArmyFSHTest {
+
+    CavalryUnit cavUnit = new CavalryUnit("cavUnit", 20);
+    InfantryUnit infUnit = new InfantryUnit("infUnit", 40);
+    RangedUnit rangedUnit = new RangedUnit("rangedUnit", 30);
+    CommanderUnit comUnit = new CommanderUnit("comUnit", 100);
+
+    File createFile(String name) throws IOException {
+        File file = Files.createTempFile(name, "." + BinaryArmyFSH.FILETYPE).toFile();
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    @DisplayName("Test that an army in the middle of a battle is restored exactly")
+    void testRestoreBattleState() throws IOException, FileFormatException {
+        BinaryArmyFSH fsh = new BinaryArmyFSH();
+        File file = createFile("battle");
+        Army army = new Army("battle");
+
+        army.add(cavUnit, 3);
+        army.add(rangedUnit, 2);
+        army.addStack(infUnit, 5);
+        army.addStack(comUnit, 2);
+
+        army.get(0).attack(army.get(3));
+        army.get(1).attack(army.get(3));
+        army.get(5).setHealthPoints(7);
+
+        fsh.writeArmyTo(file, army);
+        Army restored = fsh.loadFromFile(file);
+
+        assertEquals(army, restored);
+        assertEquals(army.getTotalHealthPoints(), restored.getTotalHealthPoints());
+        assertTrue(restored.getUnitsByType(UnitType.RangedUnit).stream().anyMatch(unit -> unit.getResistBonus() == 2));
+        assertEquals(2, restored.getUnitsByType(UnitType.CavalryUnit).stream()
+                .filter(unit -> ((CavalryUnit) unit).hasAttacked()).count());
+    }
+
+    @Test
+    @DisplayName("Test that equal units are stored as one record")
+    void testCompactFile() throws IOException, FileFormatException {
+        BinaryArmyFSH fsh = new BinaryArmyFSH();
+        File file = createFile("large");
+        Army army = new Army("large");
+
+        army.addStack(infUnit, 10000000);
+        army.addStack(cavUnit, 10000000);
+        fsh.writeArmyTo(file, army);
+
+        assertTrue(file.length() < 100);
+        Army restored = fsh.loadFromFile(file);
+        assertEquals(20000000, restored.size());
+        assertEquals(army.getMap(), restored.getMap());
+    }
+
+    @Test
+    @DisplayName("Test reading a file that is not a binary army")
+    void testWrongMagic() throws IOException {
+        BinaryArmyFSH fsh = new BinaryArmyFSH();
+        File file = createFile("wrong");
+        Files.writeString(file.toPath(), "wrong\nInfantryUnit,infUnit,40,2\n");
+
+        assertThrows(FileFormatException.class, () -> fsh.loadFromFile(file));
+    }
+
+    @Test
+    @DisplayName("Test reading an empty and a truncated file")
+    void testTruncatedFile() throws IOException, FileFormatException {
+        BinaryArmyFSH fsh = new BinaryArmyFSH();
+        File file = createFile("truncated");
+        Army army = new Army("truncated");
+        army.add(infUnit, 2);
+
+        assertThrows(FileFormatException.class, () -> fsh.loadFromFile(file));
+
+        fsh.writeArmyTo(file, army);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+
+        Throwable exception = assertThrows(FileFormatException.class, () -> fsh.loadFromFile(file));
+        assertEquals("File '" + file.getName() + "' is truncated", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test reading a record with a negative count")
+    void testNegativeCount() throws IOException {
+        BinaryArmyFSH fsh = new BinaryArmyFSH();
+        File file = createFile("negative");
+        Army army = new Army("negative");
+        army.addStack(infUnit, 5);
+        fsh.writeArmyTo(file, army);
+
+        // the count is the last field of the last record
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ByteBuffer.wrap(bytes).putInt(bytes.length - 4, -5);
+        Files.write(file.toPath(), bytes);
+
+        Throwable exception = assertThrows(FileFormatException.class, () -> fsh.loadFromFile(file));
+        assertEquals("Count must be greater than 0 in record: 1", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test reading a record with a state the unit type can not have")
+    void testInvalidState() throws IOException {
+        BinaryArmyFSH fsh = new BinaryArmyFSH();
+        File file = createFile("state");
+        Army army = new Army("state");
+        army.addStack(rangedUnit, 5);
+        fsh.writeArmyTo(file, army);
+
+        // the state is the field before the count, and is the number of hits that has lowered the resist bonus
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        assertEquals(0, ByteBuffer.wrap(bytes).getInt(bytes.length - 8));
+        ByteBuffer.wrap(bytes).putInt(bytes.length - 8, 4);
+        Files.write(file.toPath(), bytes);
+
+        Throwable exception = assertThrows(FileFormatException.class, () -> fsh.loadFromFile(file));
+        assertEquals("A RangedUnit can not have the state 4 in record: 1", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test that the binary and the csv armies in a directory are told apart")
+    void testGetAllArmyFiles() throws IOException {
+        File dir = Files.createTempDirectory("armies").toFile();
+        dir.deleteOnExit();
+        File binary = new File(dir, "binary." + BinaryArmyFSH.FILETYPE);
+        File csv = new File(dir, "csv." + ArmyFSH.FILETYPE);
+        new BinaryArmyFSH().writeArmyTo(binary, new Army("binary"));
+        Files.writeString(csv.toPath(), "csv\n");
+        binary.deleteOnExit();
+        csv.deleteOnExit();
+
+        assertArrayEquals(new File[]{binary}, new BinaryArmyFSH().getAllArmyFiles(dir));
+        assertArrayEquals(new File[]{csv}, new ArmyFSH().getAllArmyFiles(dir));
+    }
+
+    @Test
+    @DisplayName("Test reading an unsupported version")
+    void testUnsupportedVersion() throws IOException {
+        BinaryArmyFSH fsh = new BinaryArmyFSH();
+        File file = createFile("version");
+        fsh.writeArmyTo(file, new Army("version"));
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[5] = 9;
+        Files.write(file.toPath(), bytes);
+
+        Throwable exception = assertThrows(FileFormatException.class, () -> fsh.loadFromFile(file));
+        assertEquals("Version 9 of the binary format is not supported", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test writing to a file that is not a binary army file")
+    void testWrongFiletype() {
+        BinaryArmyFSH fsh = new BinaryArmyFSH();
+
+        assertThrows(IllegalArgumentException.class, () -> fsh.writeArmyTo(new File("army.csv"), new Army("army")));
+        assertThrows(FileFormatException.class, () -> fsh.loadFromFile(new File("army.csv")));
+    }
+}
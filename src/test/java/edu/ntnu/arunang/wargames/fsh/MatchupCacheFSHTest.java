@@ -0,0 +1,70 @@
+package edu.ntnu.arunang.wargames.fsh;
+
+import edu.ntnu.arunang.wargames.model.battle.BatchResult;
+import edu.ntnu.arunang.wargames.model.battle.MatchupCache;
+import edu.ntnu.arunang.wargames.model.battle.Terrain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MatchupCacheFSHTest {
+
+    File createFile(String name) throws IOException {
+        File file = Files.createTempFile(name, "." + MatchupCacheFSH.FILETYPE).toFile();
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    @DisplayName("Test that the results and their order are restored")
+    void testWriteAndLoad() throws IOException, FileFormatException {
+        MatchupCacheFSH fsh = new MatchupCacheFSH();
+        File file = createFile("matchups");
+        MatchupCache cache = new MatchupCache();
+
+        MatchupCache.Key first = new MatchupCache.Key(-5, 42, null, 3, new int[]{0, 100, 15, 10, 2, 1, 20},
+                new int[0]);
+        MatchupCache.Key second = new MatchupCache.Key(7, 8, Terrain.FOREST, 2, new int[0],
+                new int[]{1, 5, 4, 3, 2, 1, 3});
+        cache.put(first, new BatchResult(2, 1, 120, Map.of(0, 1, 4, 2), Map.of(0, 2, 1, 1)));
+        cache.put(second, new BatchResult(0, 2, 30, Map.of(0, 2), Map.of(5, 2)));
+
+        fsh.writeCacheTo(file, cache);
+        MatchupCache restored = new MatchupCache();
+        fsh.loadFromFile(file, restored);
+
+        assertEquals(cache.getResults().keySet().stream().toList(), restored.getResults().keySet().stream().toList());
+        BatchResult result = restored.get(first);
+        assertEquals(3, result.getRuns());
+        assertEquals(2, result.getAttackerWins());
+        assertEquals(40, result.getMeanAttacks());
+        assertEquals(Map.of(0, 1, 4, 2), result.getAttackerSurvivors());
+        assertEquals(Map.of(5, 2), restored.get(second).getDefenderSurvivors());
+    }
+
+    @Test
+    @DisplayName("Test loading wrongly formatted files")
+    void testWronglyFormatted() throws IOException {
+        MatchupCacheFSH fsh = new MatchupCacheFSH();
+        File fewFields = createFile("fields");
+        File badNumber = createFile("number");
+        File badRuns = createFile("runs");
+        File badContent = createFile("content");
+
+        Files.writeString(fewFields.toPath(), "1,2,,3,2,1\n");
+        Files.writeString(badNumber.toPath(), "1,2,,3,,,x,1,10,0:3,0:3\n");
+        Files.writeString(badRuns.toPath(), "1,2,HILL,3,,,2,1,10,0:3,0:2\n");
+        Files.writeString(badContent.toPath(), "1,2,HILL,3,1 2 3,,2,1,10,0:3,0:3\n");
+
+        assertThrows(FileFormatException.class, () -> fsh.loadFromFile(fewFields, new MatchupCache()));
+        assertThrows(FileFormatException.class, () -> fsh.loadFromFile(badNumber, new MatchupCache()));
+        assertThrows(FileFormatException.class, () -> fsh.loadFromFile(badRuns, new MatchupCache()));
+        assertThrows(FileFormatException.class, () -> fsh.loadFromFile(badContent, new MatchupCache()));
+    }
+}
@@ -0,0 +1,75 @@
+package edu.ntnu.arunang.wargames.gui.factory;
+
+import edu.ntnu.arunang.wargames.gui.util.SampleBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChartFactoryTest {
+
+    /**
+     * Helper method for creating a buffer with a sawtooth series, which has many local peaks.
+     *
+     * @param size number of samples
+     * @return the buffer
+     */
+
+    private SampleBuffer createSamples(int size) {
+        SampleBuffer samples = new SampleBuffer(size);
+        for (int i = 0; i < size; i++) {
+            samples.add(i, i % 17);
+        }
+        return samples;
+    }
+
+    @Test
+    @DisplayName("Test that downsampling keeps the first and the last sample, and picks at most maxPoints samples")
+    void testDownsample() {
+        SampleBuffer samples = createSamples(10000);
+        int[] picked = ChartFactory.downsample(samples, 200);
+
+        assertEquals(200, picked.length);
+        assertEquals(0, picked[0]);
+        assertEquals(samples.size() - 1, picked[picked.length - 1]);
+    }
+
+    @Test
+    @DisplayName("Test that the picked indices are increasing for different sizes")
+    void testIndicesAreIncreasing() {
+        for (int size : new int[]{4, 7, 201, 1000, 9999}) {
+            SampleBuffer samples = createSamples(size);
+            for (int maxPoints : new int[]{3, 5, 200}) {
+                int[] picked = ChartFactory.downsample(samples, maxPoints);
+
+                assertTrue(picked.length <= maxPoints);
+                for (int i = 1; i < picked.length; i++) {
+                    assertTrue(picked[i - 1] < picked[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test that a series with no more than maxPoints samples is not downsampled")
+    void testSmallSeriesIsUnchanged() {
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, ChartFactory.downsample(createSamples(5), 5));
+        assertArrayEquals(new int[]{0, 1, 2}, ChartFactory.downsample(createSamples(3), 200));
+        assertArrayEquals(new int[]{0}, ChartFactory.downsample(createSamples(1), 3));
+    }
+
+    @Test
+    @DisplayName("Test downsampling a wrapped buffer and with too few points")
+    void testWrappedBufferAndInvalidPoints() {
+        SampleBuffer samples = new SampleBuffer(500);
+        for (int i = 0; i < 1200; i++) {
+            samples.add(i, i % 17);
+        }
+        int[] picked = ChartFactory.downsample(samples, 50);
+
+        assertEquals(50, picked.length);
+        assertEquals(700, samples.getX(picked[0]));
+        assertEquals(1199, samples.getX(picked[picked.length - 1]));
+        assertThrows(IllegalArgumentException.class, () -> ChartFactory.downsample(samples, 2));
+    }
+}
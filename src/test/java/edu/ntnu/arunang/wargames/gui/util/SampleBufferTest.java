@@ -0,0 +1,69 @@
+package edu.ntnu.arunang.wargames.gui.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SampleBufferTest {
+
+    @Test
+    @DisplayName("Test that samples are kept from the oldest to the newest")
+    void testAdd() {
+        SampleBuffer buffer = new SampleBuffer(4);
+        buffer.add(1, 10);
+        buffer.add(2, 20);
+
+        assertEquals(2, buffer.size());
+        assertEquals(4, buffer.getCapacity());
+        assertEquals(1, buffer.getX(0));
+        assertEquals(10, buffer.getY(0));
+        assertEquals(2, buffer.getX(1));
+        assertEquals(20, buffer.getY(1));
+    }
+
+    @Test
+    @DisplayName("Test that a full buffer overwrites the oldest samples and wraps around")
+    void testWrapAround() {
+        SampleBuffer buffer = new SampleBuffer(3);
+        for (int i = 0; i < 7; i++) {
+            buffer.add(i, i * 10);
+        }
+
+        // samples 0 to 3 are overwritten, and the newest sample has wrapped around to the start of the arrays
+        assertEquals(3, buffer.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(4 + i, buffer.getX(i));
+            assertEquals((4 + i) * 10, buffer.getY(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Test that a cleared buffer is empty and can be filled again")
+    void testClear() {
+        SampleBuffer buffer = new SampleBuffer(2);
+        buffer.add(1, 1);
+        buffer.add(2, 2);
+        buffer.add(3, 3);
+        buffer.clear();
+
+        assertEquals(0, buffer.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.getX(0));
+
+        buffer.add(4, 40);
+        assertEquals(1, buffer.size());
+        assertEquals(4, buffer.getX(0));
+        assertEquals(40, buffer.getY(0));
+    }
+
+    @Test
+    @DisplayName("Test invalid capacity and indices")
+    void testInvalid() {
+        SampleBuffer buffer = new SampleBuffer(2);
+        buffer.add(1, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> new SampleBuffer(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.getX(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.getY(1));
+    }
+}
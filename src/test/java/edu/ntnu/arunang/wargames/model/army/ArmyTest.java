@@ -6,6 +6,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
@@ -325,6 +326,16 @@ public class ArmyTest {
         expectedMap.put(infantryUnit, 10);
 
         assertEquals(expectedMap, army.getCondensedMap());
+
+        // the counts follow removed units, while damage does not change them or the version
+        long version = army.getUnitsVersion();
+        army.get(0).attack(army.get(25));
+        assertEquals(version, army.getUnitsVersion());
+        army.remove(army.get(25));
+        army.removeAllDeadUnits();
+        expectedMap.put(infantryUnit, 9);
+        assertEquals(expectedMap, army.getCondensedMap());
+        assertNotEquals(version, army.getUnitsVersion());
     }
 
     @Test
@@ -335,4 +346,375 @@ public class ArmyTest {
 
         assertEquals(expectedMap, army.getCondensedMap());
     }
+
+    @Test
+    @DisplayName("Test that removing a held unit removes that exact unit")
+    void testRemoveHeldUnit() {
+        Army army = new Army("test");
+        army.add(infUnit, 5);
+
+        Unit target = army.get(1);
+        army.remove(target);
+
+        assertEquals(4, army.size());
+        assertNull(target.getOwner());
+        for (int i = 0; i < army.size(); i++) {
+            assertNotSame(target, army.get(i));
+        }
+
+        // a held unit that was not the last one given out is searched for
+        Unit first = army.get(0);
+        army.get(3);
+        army.remove(first);
+        assertEquals(3, army.size());
+        assertEquals(army.getTotalHealthPoints(), army.healthPoints().sum());
+        assertTrue(army.getUnitsView().stream().noneMatch(unit -> unit == first));
+    }
+
+    @Test
+    @DisplayName("Test that a unit can only be held by one army")
+    void testUnitIsHeldByOneArmy() {
+        Army army = new Army("test");
+        army.add(infUnit, 2);
+        Unit held = army.get(0);
+
+        assertSame(army, held.getOwner());
+        // the owner is found through the template, which is still the shared template of the unit
+        assertSame(infUnit.getTemplate(), held.getTemplate());
+        assertThrows(IllegalStateException.class, () -> new Army("other", new ArrayList<>(List.of(held))));
+
+        army.remove(held);
+        assertNull(held.getOwner());
+        assertEquals(1, new Army("other", new ArrayList<>(List.of(held))).size());
+    }
+
+    @Test
+    @DisplayName("Test removing all dead units keeps the alive units")
+    void testRemoveAllDeadUnits() {
+        Army army = new Army("test");
+        army.add(infUnit, 6);
+
+        army.get(0).setHealthPoints(0);
+        army.get(3).setHealthPoints(0);
+        army.get(5).setHealthPoints(0);
+        army.removeAllDeadUnits();
+
+        assertEquals(3, army.size());
+        for (int i = 0; i < army.size(); i++) {
+            assertFalse(army.get(i).isDead());
+            assertSame(army, army.get(i).getOwner());
+        }
+        assertEquals(3, army.getUnitsByType(UnitType.InfantryUnit).size());
+    }
+
+    @Test
+    @DisplayName("Test that the totals follow added, damaged and removed units")
+    void testTotalsAreUpdated() {
+        Army army = new Army("test");
+        army.add(new InfantryUnit("inf", 40), 3);
+        army.add(new CavalryUnit("cav", 20));
+
+        assertEquals(140, army.getTotalHealthPoints());
+        assertEquals(65, army.getTotalAttackPoints());
+        assertEquals(42, army.getTotalArmorPoints());
+
+        Unit target = army.get(0);
+        new CommanderUnit("com", 50).attack(target);
+        assertEquals(140 - 40 + target.getHealthPoints(), army.getTotalHealthPoints());
+
+        army.remove(target);
+        assertEquals(100, army.getTotalHealthPoints());
+        assertEquals(50, army.getTotalAttackPoints());
+        assertEquals(32, army.getTotalArmorPoints());
+
+        // a removed unit no longer changes the totals
+        target.setHealthPoints(0);
+        assertEquals(100, army.getTotalHealthPoints());
+    }
+
+    @Test
+    @DisplayName("Test the totals of a copied army")
+    void testTotalsOnCopy() {
+        Army army = new Army("test");
+        army.add(new RangedUnit("ranged", 30), 4);
+        army.get(2).setHealthPoints(10);
+
+        Army copy = army.copy();
+
+        assertEquals(100, copy.getTotalHealthPoints());
+        assertEquals(army.getTotalAttackPoints(), copy.getTotalAttackPoints());
+        assertEquals(army.getTotalArmorPoints(), copy.getTotalArmorPoints());
+    }
+
+    @Test
+    @DisplayName("Test that a stacked army acts like an army of individual units")
+    void testStackedArmy() {
+        Army stacked = new Army("test");
+        Army individual = new Army("test");
+        stacked.addStack(infUnit, 3);
+        stacked.addStack(cavUnit, 2);
+        stacked.addStack(infUnit, 1);
+        individual.add(infUnit, 4);
+        individual.add(cavUnit, 2);
+
+        assertEquals(6, stacked.size());
+        assertEquals(2, stacked.getStacks().size());
+        assertEquals(individual, stacked);
+        assertEquals(individual.getMap(), stacked.getMap());
+        assertEquals(individual.getTotalHealthPoints(), stacked.getTotalHealthPoints());
+        assertEquals(individual.getTotalAttackPoints(), stacked.getTotalAttackPoints());
+    }
+
+    @Test
+    @DisplayName("Test that a stacked unit is read as its prototype and taken out of its stack when it is changed")
+    void testUnstackOnChange() {
+        Army army = new Army("test");
+        army.addStack(infUnit, 1000000);
+
+        Unit unit = army.getRandom();
+        assertSame(unit, army.get(0));
+        assertEquals(1000000, army.getStackedCount());
+
+        unit.setHealthPoints(10);
+
+        assertEquals(1000000, army.size());
+        assertEquals(999999, army.getStackedCount());
+        assertSame(unit, army.get(0));
+        assertEquals(999999 * 40 + 10, army.getTotalHealthPoints());
+
+        army.remove(unit);
+        army.remove(infUnit);
+
+        assertEquals(999998, army.size());
+        assertEquals(999998 * 40, army.getTotalHealthPoints());
+
+        // removing the prototype lowers the count of its stack
+        army.remove(army.getRandom());
+        assertEquals(999997, army.getStackedCount());
+        assertEquals(999997 * 40, army.getTotalHealthPoints());
+    }
+
+    @Test
+    @DisplayName("Test that an attack takes both the attacker and the defender out of their stacks")
+    void testAttackBetweenStackedUnits() {
+        Army army = new Army("test");
+        army.addStack(cavUnit, 3);
+        army.addStack(P8, 2);
+
+        Unit attacker = army.get(0);
+        Unit defender = army.get(4);
+        attacker.attack(defender);
+
+        assertEquals(3, army.getStackedCount());
+        assertEquals(2, army.getStacks().get(0).getCount());
+        assertEquals(1, army.getStacks().get(1).getCount());
+        assertSame(defender, army.get(0));
+        assertSame(attacker, army.get(1));
+        assertNotEquals(attacker, army.get(2));
+        assertNotEquals(defender, army.get(4));
+
+        Army expected = new Army("test");
+        expected.add(defender);
+        expected.add(attacker);
+        expected.add(cavUnit, 2);
+        expected.add(P8);
+        assertEquals(expected, army);
+        assertEquals(expected.getTotalHealthPoints(), army.getTotalHealthPoints());
+    }
+
+    @Test
+    @DisplayName("Test that the totals of a very large army do not overflow")
+    void testTotalsOfLargeArmy() {
+        Army army = new Army("test");
+        army.addStack(new InfantryUnit("inf", 500), 10000000);
+
+        assertEquals(5000000000L, army.getTotalHealthPoints());
+        assertEquals(150000000L, army.getTotalAttackPoints());
+        assertEquals(100000000L, army.getTotalArmorPoints());
+    }
+
+    @Test
+    @DisplayName("Test adding a stack with a count less than 1")
+    void testAddStackWithInvalidCount() {
+        Army army = new Army("test");
+
+        assertThrows(IllegalArgumentException.class, () -> army.addStack(infUnit, 0));
+        assertThrows(IllegalArgumentException.class, () -> army.addStack(infUnit, -5));
+        assertEquals(0, army.size());
+    }
+
+    @Test
+    @DisplayName("Test that copying a stacked army keeps the stacks")
+    void testCopyStackedArmy() {
+        Army army = new Army("test");
+        army.addStack(cavUnit, 500);
+        army.get(0).setHealthPoints(0);
+
+        Army copy = army.copy();
+        copy.removeAllDeadUnits();
+
+        assertEquals(499, copy.getStackedCount());
+        assertEquals(499, copy.size());
+        assertEquals(499 * 20, copy.getTotalHealthPoints());
+        assertEquals(500, army.size());
+    }
+
+    @Test
+    @DisplayName("Test that the fingerprint depends on the units, not their order, names or stacking")
+    void testFingerprint() {
+        Army army = new Army("army");
+        army.add(cavUnit, 3);
+        army.add(infUnit, 2);
+
+        Army other = new Army("other");
+        other.addStack(new InfantryUnit("other name", 40), 2);
+        other.add(new CavalryUnit("cav", 20), 3);
+
+        Army stronger = new Army("army");
+        stronger.add(cavUnit, 3);
+        stronger.add(new InfantryUnit("infUnit", 41), 2);
+
+        assertEquals(army.getFingerprint(), other.getFingerprint());
+        assertNotEquals(army.getFingerprint(), stronger.getFingerprint());
+        assertNotEquals(army.getFingerprint(), new Army("empty").getFingerprint());
+        assertArrayEquals(army.getContent(), other.getContent());
+        assertFalse(Arrays.equals(army.getContent(), stronger.getContent()));
+        assertEquals(2 * Army.CONTENT_FIELDS, army.getContent().length);
+    }
+
+    @Test
+    @DisplayName("Test that the fingerprint follows the bonuses the units have lost")
+    void testFingerprintFollowsBonuses() {
+        Army fresh = new Army("army");
+        fresh.add(P7, 2);
+        fresh.add(cavUnit);
+
+        Army hit = fresh.copy();
+        long before = hit.getFingerprint();
+        int health = hit.get(0).getHealthPoints();
+        // the ranged unit loses resist bonus, but ends with the same healthpoints
+        hit.get(0).setHealthPoints(health);
+
+        Army attacked = fresh.copy();
+        attacked.get(2).attack(new InfantryUnit("dummy", 1000));
+
+        assertEquals(fresh.getFingerprint(), before);
+        assertNotEquals(fresh.getFingerprint(), hit.getFingerprint());
+        assertNotEquals(fresh.getFingerprint(), attacked.getFingerprint());
+        assertEquals(fresh.getMap(), hit.getMap());
+
+        // the fingerprint that is kept up to date is the same as the one of a new army with the same units
+        assertEquals(new Army("copy", hit.getUnits()).getFingerprint(), hit.getFingerprint());
+    }
+
+    @Test
+    @DisplayName("Test that the hash follows the units, no matter their order or if they are stacked")
+    void testHashFollowsChanges() {
+        Army army = new Army("army");
+        army.add(P7, 2);
+        army.add(cavUnit, 2);
+        army.add(infUnit);
+
+        Army other = new Army("army");
+        other.add(infUnit);
+        other.addStack(cavUnit, 2);
+        other.addStack(P7, 2);
+
+        assertEquals(army, other);
+        assertEquals(army.hashCode(), other.hashCode());
+
+        // a hit lowers the resist bonus of the ranged unit, and the cavalry unit loses its first attack bonus
+        army.get(3).attack(army.get(0));
+        assertNotEquals(army, other);
+        assertNotEquals(army.hashCode(), other.hashCode());
+
+        Unit ranged = other.get(other.size() - 1);
+        other.get(1).attack(ranged);
+        assertEquals(army, other);
+        assertEquals(army.hashCode(), other.hashCode());
+
+        army.remove(army.get(0));
+        other.remove(ranged);
+        assertEquals(army, other);
+        assertEquals(army.hashCode(), other.hashCode());
+    }
+
+    @Test
+    @DisplayName("Test that the units of a type are counted and indexed when units are added, removed and unstacked")
+    void testTypeIndex() {
+        Army army = new Army("army");
+        army.add(cavUnit, 3);
+        army.add(infUnit, 2);
+        army.addStack(P8, 4);
+        army.add(P3);
+
+        assertEquals(3, army.getCount(UnitType.CavalryUnit));
+        assertEquals(1, army.getCount(UnitType.CommanderUnit));
+        assertEquals(4, army.getCount(UnitType.RangedUnit));
+
+        army.remove(army.get(0));
+        army.get(army.size() - 1).setHealthPoints(0);
+        army.removeAllDeadUnits();
+
+        assertEquals(2, army.getCount(UnitType.CavalryUnit));
+        assertEquals(3, army.getCount(UnitType.RangedUnit));
+        assertEquals(2, army.getUnitsByType(UnitType.CavalryUnit).size());
+        assertTrue(army.getUnitsByType(UnitType.CavalryUnit).stream().allMatch(unit -> unit instanceof CavalryUnit));
+
+        // reading a ranged unit does not take it out of its stack
+        List<Unit> ranged = new ArrayList<>();
+        army.get(army.size() - 1);
+        army.forEachOfType(UnitType.RangedUnit, ranged::add);
+
+        assertEquals(3, ranged.size());
+        assertEquals(3, army.getStackedCount());
+        assertTrue(ranged.stream().allMatch(unit -> unit.getUnitType() == UnitType.RangedUnit));
+        assertEquals(0, new Army("empty").getUnitsByType(UnitType.InfantryUnit).size());
+    }
+
+    @Test
+    @DisplayName("Test that the units of a type are the units of the army, also when they are stacked")
+    void testUnitsByTypeAreHeld() {
+        Army army = new Army("army");
+        army.add(P8);
+        army.addStack(P7, 3);
+        army.addStack(cavUnit, 2);
+
+        List<Unit> ranged = army.getUnitsByType(UnitType.RangedUnit);
+
+        assertEquals(4, ranged.size());
+        assertEquals(2, army.getStackedCount());
+        assertTrue(ranged.stream().allMatch(unit -> unit.getOwner() == army));
+        assertThrows(UnsupportedOperationException.class, () -> ranged.remove(0));
+
+        ranged.get(3).setHealthPoints(0);
+        assertEquals(4 * 40 + 2 * 20 - 40, army.getTotalHealthPoints());
+    }
+
+    @Test
+    @DisplayName("Test that the view, forEach and the healthpoints read the units without copying or unstacking them")
+    void testReadOnlyViews() {
+        Army army = new Army("army");
+        army.add(cavUnit, 2);
+        army.addStack(P8, 3);
+
+        List<Unit> view = army.getUnitsView();
+        assertEquals(5, view.size());
+        assertSame(army.getStacks().get(0).getPrototype(), view.get(4));
+        assertEquals(3, army.getStackedCount());
+        assertThrows(UnsupportedOperationException.class, () -> view.add(infUnit));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(5));
+
+        List<Unit> visited = new ArrayList<>();
+        army.forEach(visited::add);
+        assertEquals(view, visited);
+        assertEquals(army.getTotalHealthPoints(), army.healthPoints().sum());
+        assertEquals(3, army.getStackedCount());
+
+        // the view follows the army
+        army.add(infUnit);
+        assertEquals(6, view.size());
+        assertEquals(army.getTotalHealthPoints(), army.healthPoints().sum());
+        assertEquals(army.sortUnits(), army.copy().sortUnits());
+    }
 }
\ No newline at end of file
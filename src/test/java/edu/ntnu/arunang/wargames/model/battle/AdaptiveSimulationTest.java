@@ -0,0 +1,105 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.CavalryUnit;
+import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveSimulationTest {
+
+    CavalryUnit opUnit = new CavalryUnit("opUnit", 10000);
+    InfantryUnit infUnit = new InfantryUnit("infUnit", 60);
+
+    @Test
+    @DisplayName("Test that a lopsided matchup settles in tens of runs")
+    void testLopsidedMatchup() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(opUnit);
+        defender.add(infUnit, 3);
+
+        BatchResult result = new AdaptiveSimulation(attacker, defender, null, 0.1, 10000, 1, 5).run();
+
+        assertTrue(result.getRuns() < 100);
+        assertEquals(1.0, result.getAttackerWinRate());
+        assertTrue(result.getWinRateUpperBound(AdaptiveSimulation.Z) - result.getWinRateLowerBound(
+                AdaptiveSimulation.Z) <= 0.1);
+    }
+
+    @Test
+    @DisplayName("Test that an even matchup needs more runs, and stops at the maximum")
+    void testEvenMatchup() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        // homogeneous armies always give the same winner, so both armies are mixed
+        attacker.add(infUnit, 10);
+        attacker.add(new CavalryUnit("cav", 60), 5);
+        defender.add(infUnit, 11);
+        defender.add(new CavalryUnit("cav", 60), 5);
+
+        AdaptiveSimulation simulation = new AdaptiveSimulation(attacker, defender, Terrain.HILL, 0.1, 10000, 2, 5);
+        BatchResult result = simulation.run();
+        BatchResult limited = new AdaptiveSimulation(attacker, defender, Terrain.HILL, 0.01, 300, 2, 5).run();
+
+        assertTrue(result.getRuns() > 100);
+        assertTrue(simulation.isNarrowEnough(result));
+        assertEquals(300, limited.getRuns());
+    }
+
+    @Test
+    @DisplayName("Test that a seeded simulation gives the same result on any number of workers")
+    void testSeeded() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 15);
+        defender.add(new CavalryUnit("cav", 30), 12);
+
+        BatchResult first = new AdaptiveSimulation(attacker, defender, null, 0.2, 1000, 1, 42).run();
+        BatchResult second = new AdaptiveSimulation(attacker, defender, null, 0.2, 1000, 4, 42).run();
+
+        assertEquals(first.getRuns(), second.getRuns());
+        assertEquals(first.getAttackerWins(), second.getAttackerWins());
+    }
+
+    @Test
+    @DisplayName("Test that the rounds are the first runs of one batch, simulated on the given pool")
+    void testRoundsArePartsOfOneBatch() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 15);
+        defender.add(new CavalryUnit("cav", 30), 12);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        AdaptiveSimulation simulation = new AdaptiveSimulation(attacker, defender, null, 0.2, 1000, 1, 42);
+        simulation.setCompiled(true);
+        BatchResult result = simulation.run(pool);
+
+        BatchSimulation batch = new BatchSimulation(attacker, defender, null, result.getRuns(), 1, 42);
+        batch.setCompiled(true);
+        BatchResult expected = batch.run(pool);
+
+        assertFalse(pool.isShutdown());
+        assertEquals(expected.getAttackerWins(), result.getAttackerWins());
+        assertEquals(expected.getMeanAttacks(), result.getMeanAttacks());
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test invalid widths and runs")
+    void testInvalidArguments() {
+        Army army = new Army("Army");
+
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveSimulation(army, army, null, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveSimulation(army, army, null, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveSimulation(army, army, null, 0.1, 0));
+    }
+}
@@ -0,0 +1,126 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.CavalryUnit;
+import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSimulationTest {
+
+    CavalryUnit opUnit = new CavalryUnit("opUnit", 10000);
+    InfantryUnit infUnit = new InfantryUnit("infUnit", 60);
+
+    @Test
+    @DisplayName("Test that every run is counted")
+    void testAllRunsCounted() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 20);
+        defender.add(infUnit, 20);
+
+        BatchResult result = new BatchSimulation(attacker, defender, Terrain.HILL, 200, 4).run();
+
+        assertEquals(200, result.getRuns());
+        assertEquals(200, result.getAttackerWins() + result.getDefenderWins());
+        assertEquals(200, result.getAttackerSurvivors().values().stream().mapToInt(Integer::intValue).sum());
+        assertTrue(result.getMeanAttacks() > 0);
+    }
+
+    @Test
+    @DisplayName("Test that an unfavorable match is always won by the stronger army")
+    void testUnfavorableMatch() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(opUnit);
+        defender.add(infUnit, 3);
+
+        BatchResult result = new BatchSimulation(attacker, defender, null, 50).run();
+
+        assertEquals(1.0, result.getAttackerWinRate());
+        assertEquals(1.0, result.getMeanAttackerSurvivors());
+        assertEquals(0.0, result.getMeanDefenderSurvivors());
+    }
+
+    @Test
+    @DisplayName("Test that the original armies are not changed")
+    void testArmiesUnchanged() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 10);
+        defender.add(infUnit, 10);
+        Army attackerCopy = attacker.copy();
+
+        new BatchSimulation(attacker, defender, Terrain.FOREST, 20).run();
+
+        assertEquals(attackerCopy, attacker);
+        assertEquals(10, defender.size());
+    }
+
+    @Test
+    @DisplayName("Test batch simulation on an empty army")
+    void testEmptyArmy() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit);
+
+        assertThrows(IllegalStateException.class, () -> new BatchSimulation(attacker, defender, null, 10).run());
+    }
+
+    @Test
+    @DisplayName("Test batch simulation with less than one run")
+    void testNoRuns() {
+        Army attacker = new Army("Attacker");
+
+        assertThrows(IllegalArgumentException.class, () -> new BatchSimulation(attacker, attacker, null, 0));
+    }
+
+    @Test
+    @DisplayName("Test that a seeded batch gives the same result on any number of workers")
+    void testSeededBatch() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 15);
+        defender.add(new CavalryUnit("cav", 30), 12);
+
+        BatchResult first = new BatchSimulation(attacker, defender, null, 100, 1, 1234).run();
+        BatchResult second = new BatchSimulation(attacker, defender, null, 100, 4, 1234).run();
+
+        assertEquals(first.getAttackerWins(), second.getAttackerWins());
+        assertEquals(first.getMeanAttacks(), second.getMeanAttacks());
+        assertEquals(first.getAttackerSurvivors(), second.getAttackerSurvivors());
+        assertEquals(first.getDefenderSurvivors(), second.getDefenderSurvivors());
+    }
+
+    @Test
+    @DisplayName("Test that a batch can run on a given pool, which is left running")
+    void testRunOnPool() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 15);
+        defender.add(new CavalryUnit("cav", 30), 12);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        BatchResult first = new BatchSimulation(attacker, defender, null, 100, 1, 1234).run(pool);
+        BatchResult second = new BatchSimulation(attacker, defender, null, 100, 1, 1234).run();
+
+        assertFalse(pool.isShutdown());
+        assertEquals(100, first.getRuns());
+        assertEquals(first.getAttackerWins(), second.getAttackerWins());
+        assertEquals(first.getMeanAttacks(), second.getMeanAttacks());
+        pool.shutdown();
+
+        assertSame(BatchSimulation.sharedPool(3), BatchSimulation.sharedPool(3));
+        assertThrows(IllegalArgumentException.class, () -> BatchSimulation.sharedPool(0));
+    }
+}
@@ -0,0 +1,127 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.CavalryUnit;
+import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import edu.ntnu.arunang.wargames.model.unit.RangedUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BattleSolverTest {
+
+    CavalryUnit opUnit = new CavalryUnit("opUnit", 10000);
+    InfantryUnit infUnit = new InfantryUnit("infUnit", 60);
+    RangedUnit rangedUnit = new RangedUnit("rangedUnit", 50);
+
+    @Test
+    @DisplayName("Test that an unfavorable match is solved exactly")
+    void testUnfavorableMatch() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(opUnit);
+        defender.add(new InfantryUnit("weak", 5), 3);
+
+        BattleEstimate estimate = new BattleSolver(attacker, defender, Terrain.FOREST).solve();
+
+        assertTrue(estimate.isAnalytical());
+        assertEquals(1.0, estimate.getAttackerWinProbability());
+        assertEquals(1.0, estimate.getExpectedAttackerSurvivors());
+        assertEquals(0.0, estimate.getExpectedDefenderSurvivors());
+        assertEquals(5.0, estimate.getExpectedAttacks());
+    }
+
+    @Test
+    @DisplayName("Test that solving does not change the armies")
+    void testSolveStackedArmies() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit);
+        attacker.addStack(infUnit, 100);
+        defender.addStack(infUnit, 100);
+
+        assertTrue(new BattleSolver(attacker, defender, null).solve().isAnalytical());
+        assertEquals(100, attacker.getStackedCount());
+        assertEquals(100, defender.getStackedCount());
+    }
+
+    @Test
+    @DisplayName("Test that the solved winner always wins the simulated battles")
+    void testSameWinnerAsBattle() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 10);
+        defender.add(infUnit, 10);
+
+        for (Terrain terrain : new Terrain[]{null, Terrain.PLAINS, Terrain.FOREST, Terrain.HILL}) {
+            BattleEstimate estimate = new BattleSolver(attacker, defender, terrain).solve();
+            BatchResult result = new BatchSimulation(attacker, defender, terrain, 50, 1, 3).run();
+
+            assertTrue(estimate.isAnalytical());
+            assertEquals(result.getAttackerWinRate(), estimate.getAttackerWinProbability());
+            assertEquals(result.getMeanAttacks(), estimate.getExpectedAttacks(), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the expected survivors are close to the mean of a batch simulation")
+    void testSurvivorsCloseToSimulation() {
+        Army small = new Army("Small");
+        Army large = new Army("Large");
+
+        small.add(rangedUnit, 12);
+        large.add(new RangedUnit("rangedUnit", 50), 150);
+
+        // the small armies are solved exactly, the large ones are approximated
+        for (Army army : new Army[]{small, large}) {
+            Army defender = new Army("Defender");
+            defender.add(infUnit, army.size() / 2);
+
+            for (Terrain terrain : new Terrain[]{null, Terrain.HILL}) {
+                BattleEstimate estimate = new BattleSolver(army, defender, terrain).solve();
+                BatchResult result = new BatchSimulation(army, defender, terrain, 400, 1, 11).run();
+
+                assertEquals(result.getAttackerWinRate(), estimate.getAttackerWinProbability());
+                assertEquals(result.getMeanAttackerSurvivors(), estimate.getExpectedAttackerSurvivors(),
+                        Math.max(0.5, army.size() * 0.02));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test that mixed armies and cavalry without terrain are simulated")
+    void testFallbackToSimulation() {
+        Army mixed = new Army("Mixed");
+        Army cavalry = new Army("Cavalry");
+        Army infantry = new Army("Infantry");
+
+        mixed.add(infUnit, 5);
+        mixed.add(rangedUnit, 5);
+        cavalry.add(new CavalryUnit("cav", 40), 10);
+        infantry.add(infUnit, 10);
+
+        BattleSolver mixedSolver = new BattleSolver(mixed, infantry, Terrain.HILL);
+        mixedSolver.setFallbackRuns(20);
+
+        assertFalse(mixedSolver.isAnalytical());
+        assertFalse(mixedSolver.solve().isAnalytical());
+        assertFalse(new BattleSolver(cavalry, infantry, null).isAnalytical());
+        assertTrue(new BattleSolver(cavalry, infantry, Terrain.PLAINS).isAnalytical());
+    }
+
+    @Test
+    @DisplayName("Test solving with an empty army")
+    void testEmptyArmy() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit);
+
+        assertThrows(IllegalStateException.class, () -> new BattleSolver(attacker, defender, null).solve());
+        assertThrows(IllegalArgumentException.class, () -> new BattleSolver(attacker, defender, null).setFallbackRuns(0));
+    }
+}
@@ -1,5 +1,6 @@
 package edu.ntnu.arunang.wargames.model.battle;
 
+import edu.ntnu.arunang.wargames.event.EventType;
 import edu.ntnu.arunang.wargames.model.army.Army;
 import edu.ntnu.arunang.wargames.model.battle.Battle;
 import edu.ntnu.arunang.wargames.model.unit.CavalryUnit;
@@ -9,8 +10,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class BattleTest {
 
@@ -95,4 +100,248 @@ class BattleTest {
 
         assertEquals("Delay must be positive", thrown.getMessage());
     }
+
+    @Test
+    @DisplayName("Simulates an unfavorable match for the attacker.")
+    void testLoseBattle() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+        Battle battle = new Battle(attacker, defender, null);
+
+        attacker.add(infUnit, 3);
+        defender.add(opUnit);
+
+        assertEquals(defender, battle.simulate(0));
+        assertEquals(0, attacker.size());
+    }
+
+    @Test
+    @DisplayName("Test that two battles with the same seed are simulated the same way")
+    void testSameSeed() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 50);
+        attacker.add(comUnit, 20);
+        defender.add(infUnit, 60);
+        defender.add(comUnit, 15);
+
+        Battle first = new Battle(attacker.copy(), defender.copy(), Terrain.PLAINS, 42);
+        Battle second = new Battle(attacker.copy(), defender.copy(), Terrain.PLAINS, 42);
+        first.simulate(0);
+        second.simulate(0);
+
+        assertEquals(first.getNumOfAttacks(), second.getNumOfAttacks());
+        assertEquals(first.getAttacker(), second.getAttacker());
+        assertEquals(first.getDefender(), second.getDefender());
+    }
+
+    @Test
+    @DisplayName("Test that copies of a seeded battle are simulated the same way")
+    void testCopyWithSeed() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 40);
+        defender.add(comUnit, 30);
+
+        Battle battle = new Battle(attacker, defender, Terrain.HILL);
+        Battle first = battle.copy(7);
+        Battle second = battle.copy(7);
+        first.simulate(0);
+        second.simulate(0);
+
+        assertEquals(first.getNumOfAttacks(), second.getNumOfAttacks());
+        assertEquals(first.getWinner().size(), second.getWinner().size());
+        assertEquals(40, attacker.size());
+    }
+
+    /**
+     * Helper method for counting the attacks of a battle. The latch counts down on every update event.
+     *
+     * @param battle  the battle
+     * @param attacks number of attacks to count
+     * @return latch that is released after the given number of attacks
+     */
+
+    private CountDownLatch countAttacks(Battle battle, int attacks) {
+        CountDownLatch latch = new CountDownLatch(attacks);
+        battle.attach(eventType -> {
+            if (eventType == EventType.UPDATE) {
+                latch.countDown();
+            }
+        });
+        return latch;
+    }
+
+    @Test
+    @DisplayName("Test that a paused battle parks, steps the given number of attacks and resumes")
+    void testPauseStepAndResume() throws InterruptedException {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 20);
+        defender.add(infUnit, 20);
+
+        Battle battle = new Battle(attacker, defender, null);
+        CountDownLatch stepped = countAttacks(battle, 5);
+        battle.pause();
+
+        Thread thread = new Thread(() -> battle.simulate(0));
+        thread.start();
+
+        // paused without steps, so no turn can be taken
+        assertFalse(battle.canContinue());
+        assertFalse(battle.acquireTurn());
+
+        battle.step(5);
+        assertTrue(stepped.await(5, TimeUnit.SECONDS));
+
+        // all steps are used, so the simulation can not attack again before it is resumed
+        assertFalse(battle.canContinue());
+        assertEquals(5, battle.getNumOfAttacks());
+        assertTrue(battle.isPaused());
+
+        battle.resume();
+        thread.join(5000);
+
+        assertFalse(thread.isAlive());
+        assertNotNull(battle.getWinner());
+    }
+
+    @Test
+    @DisplayName("Test that steps, pause and resume from several threads do not overwrite each other")
+    void testConcurrentSteps() throws InterruptedException {
+        Battle battle = new Battle(new Army("Attacker"), new Army("Defender"), null);
+        battle.pause();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    battle.step(1);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int turns = 0;
+        while (battle.acquireTurn()) {
+            turns++;
+        }
+        assertEquals(4000, turns);
+        assertTrue(battle.isPaused());
+
+        // steps while running pause the battle after the steps
+        battle.resume();
+        assertTrue(battle.acquireTurn());
+        battle.step(2);
+        assertTrue(battle.acquireTurn());
+        assertTrue(battle.acquireTurn());
+        assertFalse(battle.acquireTurn());
+
+        battle.resume();
+        assertFalse(battle.isPaused());
+        assertTrue(battle.acquireTurn());
+        battle.cancel();
+        assertFalse(battle.acquireTurn());
+        assertTrue(battle.canContinue());
+    }
+
+    @Test
+    @DisplayName("Test that a cancelled battle stops and can be continued")
+    void testCancel() throws InterruptedException {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 20);
+        defender.add(infUnit, 20);
+
+        Battle battle = new Battle(attacker, defender, null);
+        CountDownLatch stepped = countAttacks(battle, 3);
+        battle.step(3);
+
+        Thread thread = new Thread(() -> battle.simulate(0));
+        thread.start();
+        assertTrue(stepped.await(5, TimeUnit.SECONDS));
+
+        battle.cancel();
+        thread.join(5000);
+
+        assertFalse(thread.isAlive());
+        assertTrue(battle.isCancelled());
+        assertEquals(3, battle.getNumOfAttacks());
+        assertNull(battle.getWinner());
+
+        // the cancel is kept until it is reset
+        battle.resume();
+        assertNull(battle.simulate(0));
+        assertEquals(3, battle.getNumOfAttacks());
+
+        battle.resetCancel();
+        assertNotNull(battle.simulate(0));
+        assertThrows(IllegalArgumentException.class, () -> battle.step(0));
+    }
+
+    @Test
+    @DisplayName("Test that a battle that is cancelled before it is simulated does not attack")
+    void testCancelBeforeSimulate() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(infUnit, 5);
+        defender.add(infUnit, 5);
+
+        Battle battle = new Battle(attacker, defender, null);
+        List<EventType> events = new ArrayList<>();
+        battle.attach(events::add);
+        battle.cancel();
+
+        assertNull(battle.simulate(0));
+        assertEquals(0, battle.getNumOfAttacks());
+        assertTrue(events.isEmpty());
+        assertFalse(battle.copy().isCancelled());
+    }
+
+    @Test
+    @DisplayName("Test that snapshots are only published when turned on, and that the last one is finished")
+    void testSnapshots() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(opUnit);
+        defender.add(infUnit, 3);
+
+        Battle battle = new Battle(attacker, defender, null);
+        assertNull(battle.getSnapshot());
+
+        battle.setPublishSnapshots(true);
+        BattleSnapshot first = battle.getSnapshot();
+        assertEquals(0, first.numOfAttacks());
+        assertEquals(3, first.defender().size());
+        assertEquals(defender.getTotalHealthPoints(), first.defender().healthPoints());
+        assertEquals(defender.getUnitsVersion(), first.defender().unitsVersion());
+        assertEquals(defender.getCondensedMap(), battle.getUnitCounts().defender());
+        assertFalse(first.finished());
+
+        battle.simulate(0);
+        BattleSnapshot last = battle.getSnapshot();
+        assertTrue(last.finished());
+        assertEquals(battle.getNumOfAttacks(), last.numOfAttacks());
+        assertEquals(0, last.defender().size());
+        assertEquals(attacker.getTotalHealthPoints(), last.attacker().healthPoints());
+
+        // the counts of the last turn are published, even if it came right after the last counts
+        BattleSnapshot.UnitCounts counts = battle.getUnitCounts();
+        assertTrue(counts.defender().isEmpty());
+        assertEquals(attacker.getCondensedMap(), counts.attacker());
+        assertEquals(last.defender().unitsVersion(), counts.defenderVersion());
+
+        battle.setPublishSnapshots(false);
+        assertNull(battle.getSnapshot());
+        assertNull(battle.getUnitCounts());
+    }
 }
\ No newline at end of file
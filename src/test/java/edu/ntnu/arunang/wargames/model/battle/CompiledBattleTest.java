@@ -0,0 +1,181 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.*;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledBattleTest {
+
+    CavalryUnit opUnit = new CavalryUnit("opUnit", 10000);
+    CavalryUnit cavUnit = new CavalryUnit("cavUnit", 100);
+    CommanderUnit comUnit = new CommanderUnit("comUnit", 100);
+    InfantryUnit infUnit = new InfantryUnit("infUnit", 100);
+    RangedUnit rangedUnit = new RangedUnit("rangedUnit", 100);
+
+    @Test
+    @DisplayName("Test that compiling keeps the stats and state of the units")
+    void testCompile() {
+        Army army = new Army("Army");
+        army.add(infUnit);
+        army.add(cavUnit);
+        army.add(rangedUnit);
+
+        army.get(1).attack(army.get(2));
+        CompiledArmy compiled = new CompiledArmy(army);
+
+        assertEquals(3, compiled.size());
+        assertEquals(UnitType.CavalryUnit, compiled.getType(1));
+        assertEquals(army.get(2).getHealthPoints(), compiled.getHealthPoints(2));
+        assertEquals(1, compiled.state[1]);
+        assertEquals(1, compiled.state[2]);
+        assertEquals(army.getTotalHealthPoints(), compiled.getTotalHealthPoints());
+    }
+
+    @Test
+    @DisplayName("Test that compiling does not take units out of their stacks")
+    void testCompileStackedArmy() {
+        Army army = new Army("Army");
+        army.add(cavUnit);
+        army.addStack(infUnit, 1000);
+
+        CompiledArmy compiled = new CompiledArmy(army);
+
+        assertEquals(1001, compiled.size());
+        assertEquals(1000, army.getStackedCount());
+        assertEquals(army.getTotalHealthPoints(), compiled.getTotalHealthPoints());
+
+        // the stack is not expanded, only the individual unit has its own index
+        assertEquals(1, compiled.types.length);
+        assertEquals(UnitType.InfantryUnit, compiled.getType(1000));
+        assertEquals(infUnit.getHealthPoints(), compiled.getHealthPoints(500));
+
+        // a stacked unit gets its own index when it is taken out of the stack
+        CompiledArmy copy = compiled.copy();
+        assertEquals(1, copy.take(copy.slotOf(700)));
+        assertEquals(2, copy.individuals);
+        assertEquals(1001, copy.size());
+        assertEquals(1, compiled.individuals);
+
+        // a reset copy is equal to the original again, and only a copy can be reset
+        copy.reset(compiled);
+        assertEquals(1, copy.individuals);
+        assertEquals(1001, copy.size());
+        assertEquals(compiled.getTotalHealthPoints(), copy.getTotalHealthPoints());
+        assertThrows(IllegalArgumentException.class, () -> copy.reset(new CompiledArmy(army)));
+    }
+
+    @Test
+    @DisplayName("Simulates an unfavorable match for the defender.")
+    void testWinBattle() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(opUnit);
+        defender.add(comUnit, 5);
+
+        CompiledBattle battle = new CompiledBattle(attacker, defender, Terrain.FOREST);
+
+        assertSame(battle.getAttacker(), battle.simulate());
+        assertEquals(0, battle.getDefender().size());
+        assertEquals(5, defender.size());
+    }
+
+    @Test
+    @DisplayName("Test simulation on an empty army")
+    void testEmptyArmy() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+        attacker.add(infUnit);
+
+        CompiledBattle battle = new CompiledBattle(attacker, defender, null);
+
+        assertThrows(IllegalStateException.class, battle::simulate);
+    }
+
+    @Test
+    @DisplayName("Test that the compiled battle gives the same outcome as the battle")
+    void testSameOutcomeAsBattle() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(cavUnit, 30);
+        attacker.add(rangedUnit, 20);
+        defender.add(infUnit, 40);
+        defender.add(comUnit, 10);
+
+        for (Terrain terrain : new Terrain[]{null, Terrain.PLAINS, Terrain.FOREST, Terrain.HILL}) {
+            BatchSimulation objects = new BatchSimulation(attacker, defender, terrain, 400, 4, 99);
+            BatchSimulation compiled = new BatchSimulation(attacker, defender, terrain, 400, 4, 100);
+            compiled.setCompiled(true);
+
+            BatchResult expected = objects.run();
+            BatchResult actual = compiled.run();
+
+            assertEquals(expected.getAttackerWinRate(), actual.getAttackerWinRate(), 0.1);
+            assertEquals(expected.getMeanAttacks(), actual.getMeanAttacks(), expected.getMeanAttacks() * 0.05);
+            assertEquals(expected.getMeanAttackerSurvivors(), actual.getMeanAttackerSurvivors(), 3);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that a seeded compiled battle gives exactly the same battle as a seeded battle")
+    void testSameBattleWithSeed() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(cavUnit, 30);
+        attacker.add(rangedUnit, 20);
+        defender.add(infUnit, 40);
+        defender.add(comUnit, 10);
+
+        for (Terrain terrain : new Terrain[]{null, Terrain.PLAINS, Terrain.FOREST, Terrain.HILL}) {
+            Battle battle = new Battle(attacker.copy(), defender.copy(), terrain, 7);
+            CompiledBattle compiled = new CompiledBattle(attacker, defender, terrain, 7);
+
+            Army winner = battle.simulate(0);
+            CompiledArmy compiledWinner = compiled.simulate();
+
+            assertEquals(winner.getName(), compiledWinner.getName());
+            assertEquals(battle.getNumOfAttacks(), compiled.getNumOfAttacks());
+            assertEquals(winner.getTotalHealthPoints(), compiledWinner.getTotalHealthPoints());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that a seeded compiled battle gives exactly the same battle as a seeded battle of stacked armies")
+    void testSameBattleWithSeedOnStackedArmies() {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+
+        attacker.add(rangedUnit, 3);
+        attacker.addStack(cavUnit, 30);
+        attacker.addStack(rangedUnit, 20);
+        attacker.addStack(comUnit, 5);
+        defender.addStack(infUnit, 40);
+        defender.add(comUnit, 2);
+        defender.addStack(comUnit, 10);
+        defender.addStack(rangedUnit, 15);
+
+        for (Terrain terrain : new Terrain[]{null, Terrain.PLAINS, Terrain.FOREST, Terrain.HILL}) {
+            for (long seed = 0; seed < 5; seed++) {
+                Battle battle = new Battle(attacker.copy(), defender.copy(), terrain, seed);
+                CompiledBattle compiled = new CompiledBattle(attacker, defender, terrain, seed);
+
+                Army winner = battle.simulate(0);
+                CompiledArmy compiledWinner = compiled.simulate();
+
+                assertEquals(winner.getName(), compiledWinner.getName());
+                assertEquals(battle.getNumOfAttacks(), compiled.getNumOfAttacks());
+                assertEquals(winner.size(), compiledWinner.size());
+                // the units are in the same order
+                for (int i = 0; i < winner.size(); i++) {
+                    assertEquals(winner.getUnitsView().get(i).getHealthPoints(), compiledWinner.getHealthPoints(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.unit.*;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitFactory;
+import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DamageTableTest {
+
+    Terrain[] terrains = {null, Terrain.PLAINS, Terrain.FOREST, Terrain.HILL};
+
+    /**
+     * Creates a unit that has attacked and been hit a number of times.
+     */
+
+    Unit createUnit(UnitType type, int attacks, int hits) {
+        Unit unit = UnitFactory.constructUnit(type, "unit", 1000);
+        for (int i = 0; i < attacks; i++) {
+            unit.attack(new InfantryUnit("dummy", 1000));
+        }
+        for (int i = 0; i < hits; i++) {
+            unit.setHealthPoints(unit.getHealthPoints());
+        }
+        return unit;
+    }
+
+    @Test
+    @DisplayName("Test that the table gives the same damage and states as Unit.attack")
+    void testSameAsUnitAttack() {
+        for (Terrain terrain : terrains) {
+            int terrainIndex = DamageTable.terrainIndex(terrain);
+
+            for (UnitType attackerType : UnitType.values()) {
+                for (UnitType defenderType : UnitType.values()) {
+                    for (int history = 0; history < 4; history++) {
+                        Unit attacker = createUnit(attackerType, history % 2, history);
+                        Unit defender = createUnit(defenderType, history % 2, history);
+
+                        int attackerState = DamageTable.stateOf(attacker, attackerType);
+                        int defenderState = DamageTable.stateOf(defender, defenderType);
+                        int bonus = DamageTable.bonus(DamageTable.index(terrainIndex, attackerType.ordinal(),
+                                attackerState, defenderType.ordinal(), defenderState));
+                        int expectedHealth = defender.getHealthPoints() - attacker.getAttackPoints()
+                                + defender.getArmorPoints() - bonus;
+
+                        if (terrain == null) {
+                            attacker.attack(defender);
+                        } else {
+                            attacker.attack(defender, terrain);
+                        }
+
+                        assertEquals(expectedHealth, defender.getHealthPoints());
+                        assertEquals(DamageTable.stateOf(attacker, attackerType),
+                                DamageTable.attackerStateAfter(terrainIndex, attackerType.ordinal(), attackerState));
+                        assertEquals(DamageTable.stateOf(defender, defenderType),
+                                DamageTable.defenderStateAfter(defenderType.ordinal(), defenderState));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the resist bonus of a ranged unit stops going down")
+    void testRangedStateStops() {
+        RangedUnit unit = new RangedUnit("ranged", 1000);
+        for (int i = 0; i < 10; i++) {
+            unit.setHealthPoints(unit.getHealthPoints());
+        }
+
+        assertEquals(2, unit.getResistBonus());
+        assertEquals(2, DamageTable.stateOf(unit, UnitType.RangedUnit));
+    }
+
+    @Test
+    @DisplayName("Test the state of a ranged unit with a resist bonus it can not have")
+    void testInvalidRangedState() {
+        RangedUnit unit = new RangedUnit("ranged", 100);
+        unit.setResistBonus(5);
+
+        assertThrows(IllegalArgumentException.class, () -> DamageTable.stateOf(unit, UnitType.RangedUnit));
+    }
+}
@@ -0,0 +1,82 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.CavalryUnit;
+import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchupCacheTest {
+
+    CavalryUnit cavUnit = new CavalryUnit("cavUnit", 30);
+    InfantryUnit infUnit = new InfantryUnit("infUnit", 60);
+
+    @Test
+    @DisplayName("Test that a matchup is only simulated once, also with the units in another order")
+    void testStoredResult() {
+        MatchupCache cache = new MatchupCache();
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+        Army reordered = new Army("Reordered");
+
+        attacker.add(infUnit, 5);
+        attacker.add(cavUnit, 5);
+        reordered.add(cavUnit, 5);
+        reordered.add(infUnit, 5);
+        defender.add(infUnit, 10);
+
+        BatchResult first = cache.simulate(attacker, defender, Terrain.HILL, 20);
+
+        assertSame(first, cache.simulate(reordered, defender, Terrain.HILL, 20));
+        assertNotSame(first, cache.simulate(attacker, defender, Terrain.FOREST, 20));
+        assertNotSame(first, cache.simulate(attacker, defender, Terrain.HILL, 21));
+        assertNotSame(first, cache.simulate(defender, attacker, Terrain.HILL, 20));
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    @DisplayName("Test that the least recently used result is removed when the cache is full")
+    void testEviction() {
+        MatchupCache cache = new MatchupCache(2);
+        MatchupCache.Key first = new MatchupCache.Key(1, 2, null, 10, new int[0], new int[0]);
+        MatchupCache.Key second = new MatchupCache.Key(1, 2, Terrain.HILL, 10, new int[0], new int[0]);
+        MatchupCache.Key third = new MatchupCache.Key(2, 1, null, 10, new int[0], new int[0]);
+
+        cache.put(first, new BatchResult());
+        cache.put(second, new BatchResult());
+        cache.get(first);
+        cache.put(third, new BatchResult());
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertThrows(IllegalArgumentException.class, () -> new MatchupCache(0));
+    }
+
+    @Test
+    @DisplayName("Test that armies with the same fingerprint but other units do not share a result")
+    void testFingerprintCollision() {
+        MatchupCache cache = new MatchupCache();
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+        attacker.add(infUnit, 2);
+        defender.add(cavUnit);
+
+        MatchupCache.Key key = MatchupCache.Key.of(attacker, defender, null, 10);
+        int[] other = key.attackerContent();
+        other[1]++;
+        MatchupCache.Key collision = new MatchupCache.Key(key.attacker(), key.defender(), null, 10, other,
+                key.defenderContent());
+
+        cache.put(key, new BatchResult());
+        assertEquals(key.hashCode(), collision.hashCode());
+        assertNotEquals(key, collision);
+        assertNull(cache.get(collision));
+        assertEquals(key, MatchupCache.Key.of(attacker.copy(), defender, null, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MatchupCache.Key(1, 2, null, 10, new int[3], new int[0]));
+    }
+}
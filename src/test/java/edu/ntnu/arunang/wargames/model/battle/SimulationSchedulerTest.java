@@ -0,0 +1,166 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.event.EventType;
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationSchedulerTest {
+
+    InfantryUnit infUnit = new InfantryUnit("infUnit", 20);
+
+    /**
+     * Helper method for creating a battle between two equal armies.
+     *
+     * @param size number of units in each army
+     * @return the battle
+     */
+
+    private Battle createBattle(int size) {
+        Army attacker = new Army("Attacker");
+        Army defender = new Army("Defender");
+        attacker.add(infUnit, size);
+        defender.add(infUnit, size);
+        return new Battle(attacker, defender, Terrain.HILL, size);
+    }
+
+    @Test
+    @DisplayName("Test that many slow simulations finish on a few threads")
+    void testManySlowSimulations() throws Exception {
+        SimulationScheduler scheduler = new SimulationScheduler(2);
+        List<Battle> battles = new ArrayList<>();
+        List<Future<Army>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            Battle battle = createBattle(3);
+            battles.add(battle);
+            futures.add(scheduler.submit(battle, 1));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            Army winner = futures.get(i).get(10, TimeUnit.SECONDS);
+            assertSame(battles.get(i).getWinner(), winner);
+        }
+
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.getRunningCount());
+    }
+
+    @Test
+    @DisplayName("Test that a cancelled simulation stops, and resumes when it is submitted again")
+    void testCancelAndResume() throws Exception {
+        SimulationScheduler scheduler = new SimulationScheduler(1);
+        Battle battle = createBattle(50);
+        AtomicReference<Future<Army>> future = new AtomicReference<>();
+        AtomicInteger attacks = new AtomicInteger();
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        // the future is cancelled by the fifth turn, while the battle still has steps left
+        battle.attach(eventType -> {
+            if (eventType == EventType.UPDATE && attacks.incrementAndGet() == 5) {
+                future.get().cancel(false);
+                cancelled.countDown();
+            }
+        });
+        battle.pause();
+        future.set(scheduler.submit(battle, 5));
+        battle.step(100);
+
+        assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+        assertTrue(future.get().isCancelled());
+
+        // every turn has run when the scheduler terminates, and no turn was run after the cancel
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(5, battle.getNumOfAttacks());
+        assertNull(battle.getWinner());
+
+        SimulationScheduler next = new SimulationScheduler(1);
+        battle.resume();
+        Army winner = next.submit(battle, 0).get(10, TimeUnit.SECONDS);
+
+        assertSame(battle.getWinner(), winner);
+        assertTrue(battle.getNumOfAttacks() > 5);
+        next.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Test submitting invalid battles and submitting after shutdown")
+    void testInvalidSubmit() {
+        SimulationScheduler scheduler = new SimulationScheduler(1);
+        Army empty = new Army("Empty");
+
+        assertThrows(IllegalArgumentException.class, () -> new SimulationScheduler(0));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.submit(createBattle(1), -1));
+        assertThrows(IllegalStateException.class, () -> scheduler.submit(new Battle(empty, empty, null), 0));
+
+        scheduler.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit(createBattle(1), 0));
+    }
+
+    @Test
+    @DisplayName("Test that a paused battle has no turns scheduled until it is stepped or resumed")
+    void testPauseAndStep() throws Exception {
+        SimulationScheduler scheduler = new SimulationScheduler(1);
+        Battle battle = createBattle(50);
+        battle.pause();
+
+        CountDownLatch stepped = new CountDownLatch(10);
+        battle.attach(eventType -> {
+            if (eventType == EventType.UPDATE) {
+                stepped.countDown();
+            }
+        });
+
+        Future<Army> future = scheduler.submit(battle, 0);
+        assertFalse(battle.canContinue());
+
+        battle.step(10);
+        assertTrue(stepped.await(10, TimeUnit.SECONDS));
+
+        // the steps are used, so no turn can run before the battle is resumed
+        assertFalse(battle.canContinue());
+        assertEquals(10, battle.getNumOfAttacks());
+        assertFalse(future.isDone());
+
+        battle.resume();
+        Army winner = future.get(10, TimeUnit.SECONDS);
+        assertSame(battle.getWinner(), winner);
+
+        Battle cancelled = createBattle(50);
+        cancelled.pause();
+        Future<Army> cancelledFuture = scheduler.submit(cancelled, 0);
+        cancelled.cancel();
+
+        assertThrows(CancellationException.class, () -> cancelledFuture.get(10, TimeUnit.SECONDS));
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Test that a battle that is cancelled before it is submitted is not simulated")
+    void testCancelBeforeSubmit() {
+        SimulationScheduler scheduler = new SimulationScheduler(1);
+        Battle battle = createBattle(5);
+        battle.cancel();
+
+        Future<Army> future = scheduler.submit(battle, 0);
+
+        assertThrows(CancellationException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertEquals(0, battle.getNumOfAttacks());
+
+        battle.resetCancel();
+        assertDoesNotThrow(() -> scheduler.submit(battle, 0).get(10, TimeUnit.SECONDS));
+        assertNotNull(battle.getWinner());
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+package edu.ntnu.arunang.wargames.model.battle;
+
+import edu.ntnu.arunang.wargames.model.army.Army;
+import edu.ntnu.arunang.wargames.model.unit.CavalryUnit;
+import edu.ntnu.arunang.wargames.model.unit.CommanderUnit;
+import edu.ntnu.arunang.wargames.model.unit.InfantryUnit;
+import edu.ntnu.arunang.wargames.model.unit.RangedUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    Army createArmy(String name, int infantry, int ranged, int cavalry) {
+        Army army = new Army(name);
+        army.add(new InfantryUnit("Footman", 100), infantry);
+        army.add(new RangedUnit("Archer", 100), ranged);
+        army.add(new CavalryUnit("Knight", 100), cavalry);
+        return army;
+    }
+
+    @Test
+    @DisplayName("Test that every match is counted in the win matrix")
+    void testWinMatrix() {
+        List<Army> armies = List.of(createArmy("A", 10, 5, 5), createArmy("B", 5, 10, 5), createArmy("C", 5, 5, 10));
+
+        Tournament tournament = new Tournament(armies, 10, 4, 1);
+        TournamentResult result = tournament.run();
+
+        assertEquals(3 * 2 * Terrain.values().length, tournament.getNumOfMatches());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, result.getGames(i, i));
+            for (int j = 0; j < 3; j++) {
+                if (i != j) {
+                    // every pair plays as attacker and defender on every terrain
+                    assertEquals(2 * 10 * Terrain.values().length, result.getGames(i, j));
+                    assertEquals(result.getGames(i, j), result.getWins(i, j) + result.getWins(j, i));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the strongest army is ranked first")
+    void testRanking() {
+        Army strong = new Army("Strong");
+        strong.add(new CommanderUnit("King", 1000), 20);
+        List<Army> armies = List.of(createArmy("A", 10, 5, 5), strong, createArmy("B", 2, 2, 2));
+
+        TournamentResult result = new Tournament(armies, 5, 2, 2).run();
+
+        assertEquals(List.of(1, 0, 2), result.getRanking());
+        assertEquals(1.0, result.getWinRate(1));
+        assertTrue(result.getRating(1) > TournamentResult.INITIAL_RATING);
+        assertTrue(result.toString().contains("Strong"));
+    }
+
+    @Test
+    @DisplayName("Test that a seeded tournament gives the same result on any number of workers")
+    void testSeededTournament() {
+        List<Army> armies = List.of(createArmy("A", 10, 5, 5), createArmy("B", 5, 10, 5), createArmy("C", 5, 5, 10),
+                createArmy("D", 7, 7, 6));
+
+        TournamentResult first = new Tournament(armies, 8, 1, 99).run();
+        TournamentResult second = new Tournament(armies, 8, 4, 99).run();
+
+        for (int i = 0; i < armies.size(); i++) {
+            assertEquals(first.getRating(i), second.getRating(i));
+            for (int j = 0; j < armies.size(); j++) {
+                assertEquals(first.getWins(i, j), second.getWins(i, j));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test a tournament with too few or empty armies")
+    void testInvalidTournament() {
+        Army army = createArmy("A", 1, 1, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(List.of(army), 1));
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(List.of(army, new Army("Empty")), 1));
+        assertThrows(IllegalArgumentException.class, () -> new Tournament(List.of(army, army), 0));
+    }
+}
@@ -5,6 +5,8 @@ import edu.ntnu.arunang.wargames.model.unit.util.UnitType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class UnitFactoryTest {
@@ -41,4 +43,22 @@ class UnitFactoryTest {
         }
     }
 
+    @Test
+    @DisplayName("Units of the same kind share one template, and copies keep it")
+    void testSharedTemplate() {
+        List<Unit> units = UnitFactory.constructUnitsFromString("RangedUnit", new String("archer"), 10, 3);
+        Unit other = new RangedUnit("archer", 20);
+
+        assertSame(units.get(0).getTemplate(), units.get(2).getTemplate());
+        assertSame(units.get(0).getTemplate(), other.getTemplate());
+        assertSame(other.getTemplate(), other.copy().getTemplate());
+        assertSame(units.get(1).getName(), other.getName());
+        assertEquals(UnitType.RangedUnit, other.getTemplate().getType());
+        assertNotSame(other.getTemplate(), new InfantryUnit("archer", 20).getTemplate());
+
+        assertSame(other.getTemplate(), UnitTemplate.of(UnitType.RangedUnit, "archer"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CavalryUnit(UnitTemplate.of(UnitType.CommanderUnit, "archer"), 10));
+    }
+
 }
\ No newline at end of file